@@ -3,14 +3,21 @@ package restaurantsystem;
 import java.io.Serializable;
 
 /**
- * Address class for customer delivery addresses
+ * Address class for customer delivery addresses.
+ *
+ * Addresses are interned by AddressRegistry and shared between customers and
+ * orders, so the id, text and default flag are fixed once created: a customer
+ * moving gets the Address interned for the new text. Only the coordinates can
+ * be filled in later, and they describe the place itself.
  */
 public class Address implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private int addressId;
-    private String fullAddress;
-    private boolean isDefault;
+    private final int addressId;
+    private final String fullAddress;
+    private final boolean isDefault;
+    private volatile double latitude = Double.NaN;
+    private volatile double longitude = Double.NaN;
 
     public Address(int addressId, String fullAddress, boolean isDefault) {
         this.addressId = addressId;
@@ -18,41 +25,63 @@ public class Address implements Serializable {
         this.isDefault = isDefault;
     }
 
-    // Getters and Setters
+    // Getters
     public int getAddressId() {
         return addressId;
     }
 
-    public void setAddressId(int addressId) {
-        this.addressId = addressId;
-    }
-
     public String getFullAddress() {
         return fullAddress;
     }
 
-    public void setFullAddress(String fullAddress) {
-        this.fullAddress = fullAddress;
-    }
-
     public boolean isDefault() {
         return isDefault;
     }
 
-    public void setIsDefault(boolean isDefault) {
-        this.isDefault = isDefault;
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Record where the place is (the same for everyone sharing this address)
+     */
+    public synchronized void setCoordinates(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * True once the address has been resolved to coordinates
+     */
+    public boolean hasCoordinates() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
     }
 
     public boolean validateAddress() {
-        if (fullAddress == null || fullAddress.trim().isEmpty()) {
-            System.out.println("❌ Address cannot be empty!");
+        String problem = problemWith(fullAddress);
+        if (problem != null) {
+            System.out.println("❌ " + problem);
             return false;
         }
+        return true;
+    }
+
+    /**
+     * Why this text is not a usable address, or null if it is (same rule as
+     * validateAddress, without printing; used by bulk import)
+     */
+    public static String problemWith(String fullAddress) {
+        if (fullAddress == null || fullAddress.trim().isEmpty()) {
+            return "Address cannot be empty!";
+        }
         if (fullAddress.length() < 10) {
-            System.out.println("❌ Address too short! Please provide full address.");
-            return false;
+            return "Address too short! Please provide full address.";
         }
-        return true;
+        return null;
     }
 
     @Override
@@ -0,0 +1,131 @@
+package restaurantsystem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Address registry - normalises free-text addresses and interns them, so every
+ * spelling of the same place resolves to one shared Address with a stable id.
+ *
+ * Interned addresses are shared between customers and orders, so Address
+ * has no setters for its text, id or flag: change a customer's address by
+ * interning the new text.
+ */
+public class AddressRegistry {
+    public static final String WALK_IN = "Walk-in";
+
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("st", "street"),
+            Map.entry("str", "street"),
+            Map.entry("rd", "road"),
+            Map.entry("ave", "avenue"),
+            Map.entry("av", "avenue"),
+            Map.entry("blvd", "boulevard"),
+            Map.entry("sq", "square"),
+            Map.entry("hwy", "highway"),
+            Map.entry("apt", "apartment"),
+            Map.entry("bldg", "building"),
+            Map.entry("fl", "floor"),
+            Map.entry("no", "number"),
+            Map.entry("nr", "number"));
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Address> defaults = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Address> others = new ConcurrentHashMap<>();
+    private final AtomicInteger idCounter = new AtomicInteger(1);
+    private final Address walkIn;
+
+    public AddressRegistry() {
+        walkIn = intern(WALK_IN, true);
+    }
+
+    /**
+     * Shared address used for every walk-in customer
+     */
+    public Address walkIn() {
+        return walkIn;
+    }
+
+    /**
+     * Return the shared Address for this text, creating it on first use.
+     * Addresses that normalise to the same text get the same id; the default
+     * and non-default flavours are separate instances carrying that id.
+     */
+    public Address intern(String fullAddress, boolean isDefault) {
+        if (fullAddress == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        String key = normalize(fullAddress);
+        ConcurrentHashMap<String, Address> pool = isDefault ? defaults : others;
+        Address existing = pool.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = ids.computeIfAbsent(key, k -> idCounter.getAndIncrement());
+        return pool.computeIfAbsent(key, k -> new Address(id, clean(fullAddress), isDefault));
+    }
+
+    /**
+     * Stable id of the address this text normalises to, or -1 if never interned
+     */
+    public int idOf(String fullAddress) {
+        Integer id = ids.get(normalize(fullAddress));
+        return id != null ? id : -1;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    // ==================== NORMALISATION ====================
+
+    /**
+     * Canonical form: lower case, single spaces, punctuation spaced consistently
+     * and common street abbreviations expanded ("12  Tahrir St." → "12 tahrir street")
+     */
+    public static String normalize(String fullAddress) {
+        StringBuilder out = new StringBuilder(fullAddress.length() + 16);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= fullAddress.length(); i++) {
+            char c = i < fullAddress.length() ? fullAddress.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (word.length() > 0) {
+                char last = out.length() > 0 ? out.charAt(out.length() - 1) : ' ';
+                if (last != ' ' && last != '-' && last != '/') {
+                    out.append(' ');
+                }
+                String token = word.toString();
+                out.append(ABBREVIATIONS.getOrDefault(token, token));
+                word.setLength(0);
+            }
+            // Keep separators that carry meaning, drop '.', '#' and the like
+            if (c == ',' || c == '-' || c == '/') {
+                if (out.length() > 0 && out.charAt(out.length() - 1) == ' ') {
+                    out.setLength(out.length() - 1);
+                }
+                if (out.length() > 0) {
+                    out.append(c);
+                    if (c == ',') {
+                        out.append(' ');
+                    }
+                }
+            }
+        }
+        int end = out.length();
+        while (end > 0 && " ,-/".indexOf(out.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return out.substring(0, end);
+    }
+
+    /**
+     * Display form kept for the first spelling seen: trimmed, single spaces
+     */
+    private static String clean(String fullAddress) {
+        return fullAddress.trim().replaceAll("\\s+", " ");
+    }
+}
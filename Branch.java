@@ -0,0 +1,335 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Branch class - everything one restaurant branch owns: its menu, tables,
+ * cashiers, orders and the services built on them (ledger, pricing, kitchen
+ * admission, deliveries, reservations, waitlist, floor plan, inventory).
+ *
+ * Branches share nothing on their order paths - order ids, the change log
+ * and its clock, order subscribers and tables are all per branch - so a rush
+ * at one never contends with another. The customer list is the only thing that may be
+ * shared: pass the same list to every branch for chain-wide accounts, or a
+ * fresh one per branch to keep them apart.
+ */
+public class Branch {
+    private final String id;
+    private final String name;
+    private final ArrayList<Customer> customers;   // may be shared: guarded by itself
+    private final CustomerIndex customerIndex;
+    private final boolean ownCustomers;
+    private final ArrayList<Cashier> cashiers = new ArrayList<>();
+    private final Menu menu = new Menu();
+    private final ArrayList<Table> tables = new ArrayList<>();
+    private final ArrayList<Order> orders = new ArrayList<>();
+    private final OrderChangeLog orderChanges = new OrderChangeLog();
+    private final AtomicInteger orderCounter = new AtomicInteger(1);
+    private final CopyOnWriteArrayList<OrderListener> orderListeners = new CopyOnWriteArrayList<>();
+    private final PaymentLedger ledger = new PaymentLedger();
+    private final ShiftMetrics shiftMetrics = new ShiftMetrics();
+    private final PricingEngine pricingEngine = PricingEngine.withDefaultRules();
+    private final Systemmanager systemManager = new Systemmanager(Systemmode.DINE_IN);
+    private final Waitlist waitlist = new Waitlist();
+    private final Inventory inventory = new Inventory();
+    private final DisplayCache tableBoard = new DisplayCache();
+    private final AtomicLong boardVersion = new AtomicLong();   // bumped on any change to a table
+    private DeliveryBatcher deliveryBatcher = new DeliveryBatcher(null, 2.0, 5 * 60_000L, 4);
+    private ReservationBook reservationBook = new ReservationBook(tables);
+    private FloorPlan floorPlan = FloorPlan.grid(tables, 5);
+    private volatile OrderJournal journal;
+    private volatile ReceiptArchive receiptArchive;
+    private volatile OrderExporter orderExporter;
+
+    private final Table.SeatListener seating = new Table.SeatListener() {
+        @Override
+        public void seated(Table table) {
+            waitlist.onSeated(table);
+            tableChanged(table);
+        }
+
+        @Override
+        public void released(Table table, long seatedNanos) {
+            if (seatedNanos > 0) {
+                Metrics.TABLE_SEATED.record(seatedNanos);
+            }
+            tableChanged(table);
+            // A table booked before a walk-in would leave is not offered to the waitlist
+            boolean reservedSoon = reservationBook.isHeld(table, System.currentTimeMillis(),
+                                                          ReservationBook.DEFAULT_WALK_IN_MILLIS);
+            Waitlist.Party called = waitlist.onReleased(table, seatedNanos / 1_000_000, reservedSoon);
+            if (called != null) {
+                EventLog.log(EventLog.EventType.WAITLIST_CALLED, called.getName(), table.getTableNumber(), called.getPartySize());
+            }
+        }
+
+        @Override
+        public void changed(Table table) {
+            boardVersion.incrementAndGet();
+        }
+
+        private void tableChanged(Table table) {
+            OrderJournal current = journal;
+            if (current != null) {
+                current.tableChanged(table);
+            }
+        }
+    };
+
+    private int openOrders;   // taken and still PENDING; guarded by systemManager
+
+    private final AtomicInteger sessions = new AtomicInteger();
+    private volatile long lastUsedMillis = System.currentTimeMillis();
+
+    public Branch(String id, String name, ArrayList<Customer> customers) {
+        this(id, name, customers, null);
+    }
+
+    /**
+     * Branches sharing a customer list must share its index too; pass null
+     * for a list of the branch's own
+     */
+    public Branch(String id, String name, ArrayList<Customer> customers, CustomerIndex customerIndex) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Branch id cannot be empty");
+        }
+        this.id = id.trim().toUpperCase();
+        this.name = name;
+        this.ownCustomers = customers == null;
+        this.customers = customers != null ? customers : new ArrayList<>();
+        this.customerIndex = customerIndex != null ? customerIndex : new CustomerIndex(this.customers);
+    }
+
+    // ==================== SETUP ====================
+
+    /**
+     * Build the reservation book and floor plan over the tables added so far
+     * (floor laid out in rows of the given number of tables) and wire their
+     * seating into this branch's waitlist, metrics, journal and table board
+     */
+    public void layOutTables(int columns) {
+        reservationBook = new ReservationBook(tables);
+        floorPlan = FloorPlan.grid(tables, columns);
+        for (Table table : tables) {
+            table.setSeatListener(seating);
+        }
+        boardVersion.incrementAndGet();
+    }
+
+    public void setDeliveryBatcher(DeliveryBatcher deliveryBatcher) {
+        this.deliveryBatcher = deliveryBatcher;
+    }
+
+    /**
+     * Stream this branch's orders, payments and tables to a standby (null to stop)
+     */
+    public void setJournal(OrderJournal journal) {
+        OrderJournal previous = this.journal;
+        if (previous != null) {
+            orderListeners.remove(previous);
+        }
+        this.journal = journal;
+        if (journal != null) {
+            orderListeners.add(journal);
+        }
+    }
+
+    /**
+     * Keep the receipts of this branch's paid orders (null to stop); new
+     * orders are numbered past the receipts already kept
+     */
+    public void setReceiptArchive(ReceiptArchive receiptArchive) {
+        this.receiptArchive = receiptArchive;
+        if (receiptArchive != null) {
+            advanceOrderCounter(receiptArchive.getHighestOrderId() + 1);
+        }
+    }
+
+    /**
+     * The exporter feeding this branch's orders to accounting, if any
+     */
+    public void setOrderExporter(OrderExporter orderExporter) {
+        this.orderExporter = orderExporter;
+    }
+
+    // ==================== ORDERS ====================
+
+    /**
+     * Record an accepted order with the branch (and its standby); while it is
+     * PENDING it counts towards the kitchen backlog
+     */
+    public void addOrder(Order order) {
+        synchronized (orders) {
+            orders.add(order);
+        }
+        order.attachTo(this);
+        synchronized (order) {
+            if (order.getStatus() == Status.PENDING) {
+                order.subscribe(new OrderListener() {
+                    @Override
+                    public void onOrderDelta(OrderDelta delta) {
+                        if (delta.getType() == OrderDelta.Type.STATUS_CHANGED
+                                && delta.getStatus() != Status.PENDING) {
+                            order.unsubscribe(this);
+                            kitchenChanged(-1);
+                        }
+                    }
+                });
+                kitchenChanged(1);
+            }
+        }
+        OrderJournal current = journal;
+        if (current != null) {
+            current.orderOpened(order);
+        }
+    }
+
+    /**
+     * Id for a new order of this branch (Order's constructor)
+     */
+    int nextOrderId() {
+        return orderCounter.getAndIncrement();
+    }
+
+    /**
+     * The id the next order will get
+     */
+    public int getOrderCounter() {
+        return orderCounter.get();
+    }
+
+    /**
+     * Number the next order (a takeover reopening orders under their ids)
+     */
+    public void setOrderCounter(int counter) {
+        orderCounter.set(counter);
+    }
+
+    /**
+     * Make the next order id at least floor (never moves the counter back)
+     */
+    public void advanceOrderCounter(int floor) {
+        orderCounter.accumulateAndGet(floor, Math::max);
+    }
+
+    /**
+     * Receive the deltas of every order this branch has taken (kitchen
+     * screens, audit, the journal)
+     */
+    public void subscribeOrders(OrderListener listener) {
+        orderListeners.add(listener);
+    }
+
+    public void unsubscribeOrders(OrderListener listener) {
+        orderListeners.remove(listener);
+    }
+
+    List<OrderListener> getOrderListeners() {
+        return orderListeners;
+    }
+
+    private void kitchenChanged(int delta) {
+        synchronized (systemManager) {
+            openOrders += delta;
+            systemManager.reportKitchenBacklog(openOrders);
+        }
+    }
+
+    /**
+     * Archive the receipt of a paid order, if this branch keeps receipts
+     */
+    public void archiveReceipt(Order order) {
+        ReceiptArchive archive = receiptArchive;
+        if (archive == null || order.getPayment() == null) {
+            return;
+        }
+        try {
+            archive.archive(order);
+        } catch (java.io.IOException e) {
+            EventLog.log(EventLog.EventType.RECEIPT_ARCHIVE_FAILED, e.getMessage(), order.getOrderId());
+        }
+    }
+
+    // ==================== SESSIONS ====================
+
+    /**
+     * A login (or request) starts working in this branch
+     */
+    void enter() {
+        sessions.incrementAndGet();
+        lastUsedMillis = System.currentTimeMillis();
+    }
+
+    void leave() {
+        lastUsedMillis = System.currentTimeMillis();
+        sessions.decrementAndGet();
+    }
+
+    /**
+     * Nobody is working in the branch and nobody has for at least idleMillis
+     */
+    public boolean isIdle(long now, long idleMillis) {
+        return sessions.get() == 0 && now - lastUsedMillis >= idleMillis;
+    }
+
+    /**
+     * Holds something its loader could not rebuild: orders taken (and the
+     * payments and stock that went with them), reservations, waiting
+     * parties, restocked inventory or customers on a list of its own
+     */
+    public boolean holdsState() {
+        synchronized (orders) {
+            if (!orders.isEmpty()) {
+                return true;
+            }
+        }
+        if (reservationBook.size() > 0 || waitlist.size() > 0 || inventory.isRestocked()) {
+            return true;
+        }
+        if (!ownCustomers) {
+            return false;
+        }
+        synchronized (customers) {
+            return !customers.isEmpty();
+        }
+    }
+
+    public long getLastUsedMillis() {
+        return lastUsedMillis;
+    }
+
+    // ==================== GETTERS ====================
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public ArrayList<Customer> getCustomers() { return customers; }
+    public CustomerIndex getCustomerIndex() { return customerIndex; }
+    public ArrayList<Cashier> getCashiers() { return cashiers; }
+    public Menu getMenu() { return menu; }
+    public ArrayList<Table> getTables() { return tables; }
+    public ArrayList<Order> getOrders() { return orders; }
+    public OrderChangeLog getOrderChanges() { return orderChanges; }
+    public PaymentLedger getLedger() { return ledger; }
+    public ShiftMetrics getShiftMetrics() { return shiftMetrics; }
+    public PricingEngine getPricingEngine() { return pricingEngine; }
+    public Systemmanager getSystemManager() { return systemManager; }
+    public DeliveryBatcher getDeliveryBatcher() { return deliveryBatcher; }
+    public ReservationBook getReservationBook() { return reservationBook; }
+    public Waitlist getWaitlist() { return waitlist; }
+    public FloorPlan getFloorPlan() { return floorPlan; }
+    public Inventory getInventory() { return inventory; }
+    public DisplayCache getTableBoard() { return tableBoard; }
+    public long getBoardVersion() { return boardVersion.get(); }
+    public OrderJournal getJournal() { return journal; }
+    public ReceiptArchive getReceiptArchive() { return receiptArchive; }
+    public OrderExporter getOrderExporter() { return orderExporter; }
+
+    @Override
+    public String toString() {
+        return id + " - " + name;
+    }
+}
@@ -0,0 +1,156 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Branch registry - the branches one server knows about, loaded on first use
+ * and unloaded again when they go idle.
+ *
+ * A branch is defined by its id and a Loader that builds it; nothing is
+ * built until someone logs in to it. The default branch is the one used when
+ * no branch has been chosen (single-restaurant setups, tools) and is never
+ * unloaded. Nor is a branch that holds state its loader could not rebuild
+ * (Branch.holdsState) - open orders, unsettled takings, reservations - so
+ * only branches that were looked at but never traded in are dropped.
+ */
+public class BranchRegistry {
+    /**
+     * Builds a branch on first use and hears when it is dropped
+     */
+    public interface Loader {
+        Branch load(String branchId);
+
+        /**
+         * Called after the branch is removed from the registry (save it here)
+         */
+        default void unloaded(Branch branch) {
+        }
+    }
+
+    private final TreeMap<String, Loader> loaders = new TreeMap<>();
+    private final ConcurrentHashMap<String, Branch> loaded = new ConcurrentHashMap<>();
+    private final String defaultId;
+    private volatile Branch defaultBranch;
+
+    public BranchRegistry(String defaultId, Loader defaultLoader) {
+        this.defaultId = key(defaultId);
+        define(defaultId, defaultLoader);
+    }
+
+    public synchronized void define(String branchId, Loader loader) {
+        loaders.put(key(branchId), loader);
+    }
+
+    /**
+     * Ids of every defined branch, loaded or not, in order
+     */
+    public synchronized List<String> getBranchIds() {
+        return new ArrayList<>(loaders.keySet());
+    }
+
+    public synchronized boolean isDefined(String branchId) {
+        return branchId != null && loaders.containsKey(key(branchId));
+    }
+
+    public boolean isLoaded(String branchId) {
+        return loaded.containsKey(key(branchId));
+    }
+
+    public int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * The branches loaded right now
+     */
+    public List<Branch> getLoadedBranches() {
+        return new ArrayList<>(loaded.values());
+    }
+
+    /**
+     * The branch, loading it if needed; null if no such branch is defined
+     */
+    public Branch get(String branchId) {
+        String id = key(branchId);
+        Branch branch = loaded.get(id);
+        if (branch != null) {
+            return branch;
+        }
+        Loader loader;
+        synchronized (this) {
+            loader = loaders.get(id);
+        }
+        if (loader == null) {
+            return null;
+        }
+        // Concurrent logins to a branch that is still loading wait for the one load
+        return loaded.computeIfAbsent(id, loader::load);
+    }
+
+    public Branch getDefault() {
+        Branch branch = defaultBranch;
+        if (branch == null) {
+            branch = get(defaultId);
+            defaultBranch = branch;
+        }
+        return branch;
+    }
+
+    public String getDefaultId() {
+        return defaultId;
+    }
+
+    /**
+     * Drop a branch nobody is working in; false if it is in use, holds
+     * state, is not loaded or is the default branch
+     */
+    public boolean unload(String branchId) {
+        String id = key(branchId);
+        Branch branch = loaded.get(id);
+        if (branch == null || id.equals(defaultId) || !branch.isIdle(System.currentTimeMillis(), 0)
+                || branch.holdsState()) {
+            return false;
+        }
+        if (!loaded.remove(id, branch)) {
+            return false;
+        }
+        notifyUnloaded(id, branch);
+        return true;
+    }
+
+    /**
+     * Drop every branch (except the default and those holding state) unused
+     * for at least idleMillis; returns the number dropped
+     */
+    public int unloadIdle(long idleMillis) {
+        long now = System.currentTimeMillis();
+        int dropped = 0;
+        for (Map.Entry<String, Branch> entry : loaded.entrySet()) {
+            Branch branch = entry.getValue();
+            if (!entry.getKey().equals(defaultId) && branch.isIdle(now, idleMillis)
+                    && !branch.holdsState() && loaded.remove(entry.getKey(), branch)) {
+                notifyUnloaded(entry.getKey(), branch);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private void notifyUnloaded(String id, Branch branch) {
+        Loader loader;
+        synchronized (this) {
+            loader = loaders.get(id);
+        }
+        if (loader != null) {
+            loader.unloaded(branch);
+        }
+    }
+
+    private static String key(String branchId) {
+        return branchId.trim().toUpperCase();
+    }
+}
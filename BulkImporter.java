@@ -0,0 +1,745 @@
+package restaurantsystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Bulk importer - loads a branch's existing loyalty members and menu from CSV
+ * or JSON files.
+ *
+ * The file is read as a stream of lines and cut into chunks; worker threads
+ * parse and validate the chunks in parallel while this thread deduplicates
+ * and commits them in file order, one chunk per batch. The first occurrence
+ * of a customer (by username, email or phone) or of a menu item (by name,
+ * ignoring case, as MenuItem.equals) wins; later ones, and rows that fail
+ * validation, are reported with their line number and skipped.
+ *
+ * CSV files start with a header naming the columns (in any order):
+ *
+ *   customers: username,password,name,email,phone,address[,elite][,dineIns][,monthsRemaining]
+ *   menu:      name,description,price,category[,available]
+ *
+ * Fields may be quoted ("Tahrir St, Cairo"), with "" for a quote; a field
+ * cannot span lines. Files ending in .json or .jsonl hold one flat object per
+ * line with the same keys, either bare (JSON Lines) or inside a [ ... ] array.
+ */
+public class BulkImporter {
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private final int threads;
+    private final int batchSize;
+
+    public BulkImporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkImporter(int threads, int batchSize) {
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Threads and batch size must be positive");
+        }
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    // ==================== REPORT ====================
+
+    /**
+     * A row that was not imported
+     */
+    public static final class RowError {
+        private final long line;
+        private final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    /**
+     * Outcome of one import
+     */
+    public static final class ImportReport {
+        private final Path file;
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long batches;
+        private long elapsedMillis;
+        private final List<RowError> errors = new ArrayList<>();
+
+        ImportReport(Path file) {
+            this.file = file;
+        }
+
+        public long getRows() { return rows; }
+        public long getImported() { return imported; }
+        public long getDuplicates() { return duplicates; }
+        public long getBatches() { return batches; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * Rejected rows in file order: duplicates and validation failures
+         */
+        public List<RowError> getErrors() { return errors; }
+
+        @Override
+        public String toString() {
+            return file.getFileName() + ": " + imported + " of " + rows + " rows imported in " + batches
+                   + " batches, " + duplicates + " duplicates, " + (errors.size() - duplicates)
+                   + " invalid (" + elapsedMillis + " ms)";
+        }
+    }
+
+    // ==================== CUSTOMERS ====================
+
+    /**
+     * Import customers into a branch's customer list (new ids are assigned in
+     * file order; existing customers count for deduplication)
+     */
+    public ImportReport importCustomers(Path file, ArrayList<Customer> customers) throws IOException {
+        List<Customer> existing;
+        synchronized (customers) {
+            existing = new ArrayList<>(customers);
+        }
+        return importCustomers(file, existing, batch -> {
+            synchronized (customers) {
+                customers.addAll(batch);
+            }
+        });
+    }
+
+    /**
+     * Import customers into a branch's list and its lookup index
+     */
+    public ImportReport importCustomers(Path file, Branch branch) throws IOException {
+        ArrayList<Customer> customers = branch.getCustomers();
+        List<Customer> existing;
+        synchronized (customers) {
+            existing = new ArrayList<>(customers);
+        }
+        return importCustomers(file, existing, batch -> {
+            synchronized (customers) {
+                customers.addAll(batch);
+            }
+            branch.getCustomerIndex().addAll(batch);
+        });
+    }
+
+    /**
+     * Import customers into a compact store
+     */
+    public ImportReport importCustomers(Path file, CustomerStore store) throws IOException {
+        List<Customer> existing = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            existing.add(store.get(row));
+        }
+        return importCustomers(file, existing, batch -> batch.forEach(store::add));
+    }
+
+    private ImportReport importCustomers(Path file, List<Customer> existing, Batch<Customer> commit)
+            throws IOException {
+        HashSet<String> usernames = new HashSet<>();
+        HashSet<String> emails = new HashSet<>();
+        HashSet<String> phones = new HashSet<>();
+        for (Customer c : existing) {
+            usernames.add(c.getUsername().toLowerCase());
+            addKey(emails, emailKey(c.getEmail()));
+            addKey(phones, phoneKey(c.getPhoneNumber()));
+        }
+        AddressRegistry addresses = RestaurantSystem.getAddressRegistry();
+
+        return run(file, List.of("username", "password", "name", "email", "phone", "address"), row -> {
+            String address = row.get("address");
+            String problem = Address.problemWith(address);
+            if (problem != null) {
+                throw new IllegalArgumentException(problem);
+            }
+            // Interning normalises the text, so do it here on the workers
+            return new CustomerRow(row.required("username"), row.required("password"), row.required("name"),
+                                   row.get("email"), row.get("phone"), addresses.intern(address, true),
+                                   row.flag("elite"), row.count("dineIns"), row.count("monthsRemaining"));
+        }, (CustomerRow r) -> {
+            String username = r.username.toLowerCase();
+            String email = emailKey(r.email);
+            String phone = phoneKey(r.phone);
+            if (usernames.contains(username)) {
+                return "Duplicate username " + r.username;
+            }
+            if (email != null && emails.contains(email)) {
+                return "Duplicate email " + r.email;
+            }
+            if (phone != null && phones.contains(phone)) {
+                return "Duplicate phone " + r.phone;
+            }
+            usernames.add(username);
+            addKey(emails, email);
+            addKey(phones, phone);
+            return null;
+        }, r -> {
+            Customer customer = new Customer(r.username, r.password, r.elite, r.address, r.name, r.email, r.phone);
+            customer.setDineInCount(r.dineIns);
+            if (r.monthsRemaining > 0) {
+                customer.setMonthsRemaining(r.monthsRemaining);
+                customer.setSubscriptionActive(true);
+            }
+            return customer;
+        }, commit);
+    }
+
+    private static final class CustomerRow {
+        final String username, password, name, email, phone;
+        final Address address;
+        final boolean elite;
+        final int dineIns, monthsRemaining;
+
+        CustomerRow(String username, String password, String name, String email, String phone, Address address,
+                    boolean elite, int dineIns, int monthsRemaining) {
+            this.username = username;
+            this.password = password;
+            this.name = name;
+            this.email = email;
+            this.phone = phone;
+            this.address = address;
+            this.elite = elite;
+            this.dineIns = dineIns;
+            this.monthsRemaining = monthsRemaining;
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase();
+    }
+
+    /**
+     * Digits only, so "0100 123-4567" and "01001234567" are the same phone
+     */
+    private static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            if (Character.isDigit(phone.charAt(i))) {
+                digits.append(phone.charAt(i));
+            }
+        }
+        return digits.length() == 0 ? null : digits.toString();
+    }
+
+    private static void addKey(HashSet<String> keys, String key) {
+        if (key != null) {
+            keys.add(key);
+        }
+    }
+
+    // ==================== MENU ====================
+
+    /**
+     * Import menu items (names already on the menu count as duplicates)
+     */
+    public ImportReport importMenu(Path file, Menu menu) throws IOException {
+        HashSet<MenuItem> seen = new HashSet<>(menu.getMenuItems());
+        return run(file, List.of("name", "description", "price", "category"), row -> {
+            double price;
+            try {
+                price = Double.parseDouble(row.required("price"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Price is not a number: " + row.get("price"));
+            }
+            if (!(price > 0)) {
+                throw new IllegalArgumentException("Price must be positive: " + row.get("price"));
+            }
+            String available = row.get("available");
+            return new MenuItem(row.required("name"), row.get("description"), price, row.required("category"),
+                                available == null || available.isBlank() || row.flag("available"));
+        }, (MenuItem item) -> seen.add(item) ? null : "Duplicate menu item " + item.getName(),
+           item -> item, batch -> menu.addItems(batch));
+    }
+
+    // ==================== PIPELINE ====================
+
+    /**
+     * Parse (on a worker) one row into a candidate; throw IllegalArgumentException to reject it
+     */
+    private interface Parser<R> {
+        R parse(Row row);
+    }
+
+    /**
+     * Check (in file order) a candidate against everything accepted so far;
+     * returns why it is a duplicate, or null to accept it
+     */
+    private interface Dedupe<R> {
+        String check(R candidate);
+    }
+
+    private interface Build<R, T> {
+        T build(R candidate);
+    }
+
+    private interface Batch<T> {
+        void commit(List<T> batch);
+    }
+
+    private static final class Chunk {
+        final long firstLine;
+        final String[] lines;
+
+        Chunk(long firstLine, String[] lines) {
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Parsed chunk: per line either a candidate, an error message, or neither (blank line)
+     */
+    private static final class Parsed {
+        final long firstLine;
+        final Object[] candidates;
+        final String[] errors;
+
+        Parsed(long firstLine, int size) {
+            this.firstLine = firstLine;
+            this.candidates = new Object[size];
+            this.errors = new String[size];
+        }
+    }
+
+    private <R, T> ImportReport run(Path file, List<String> requiredColumns, Parser<R> parser, Dedupe<R> dedupe,
+                                    Build<R, T> build, Batch<T> commit) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport(file);
+        String name = file.getFileName().toString().toLowerCase();
+        boolean json = name.endsWith(".json") || name.endsWith(".jsonl");
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "bulk-import");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<Parsed>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            Map<String, Integer> header = null;
+            if (!json) {
+                String first = reader.readLine();
+                lineNumber++;
+                if (first == null) {
+                    throw new IOException(file + " is empty");
+                }
+                header = readHeader(first, requiredColumns);
+            }
+            Map<String, Integer> columns = header;
+            List<String> lines = new ArrayList<>(batchSize);
+            long chunkStart = lineNumber + 1;
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null) {
+                    lines.add(line);
+                    lineNumber++;
+                }
+                if (lines.size() == batchSize || (line == null && !lines.isEmpty())) {
+                    Chunk chunk = new Chunk(chunkStart, lines.toArray(new String[0]));
+                    inFlight.add(workers.submit(() -> parse(chunk, columns, parser)));
+                    lines.clear();
+                    chunkStart = lineNumber + 1;
+                    // Bounded read-ahead: commit the oldest chunk before reading further
+                    if (inFlight.size() >= threads * 2) {
+                        commit(inFlight.removeFirst(), report, dedupe, build, commit);
+                    }
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                commit(inFlight.removeFirst(), report, dedupe, build, commit);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private <R> Parsed parse(Chunk chunk, Map<String, Integer> header, Parser<R> parser) {
+        Parsed parsed = new Parsed(chunk.firstLine, chunk.lines.length);
+        for (int i = 0; i < chunk.lines.length; i++) {
+            String line = chunk.lines[i];
+            try {
+                Row row = header != null ? CsvRow.parse(line, header) : JsonRow.parse(line);
+                if (row != null) {
+                    parsed.candidates[i] = parser.parse(row);
+                }
+            } catch (IllegalArgumentException e) {
+                parsed.errors[i] = e.getMessage();
+            }
+        }
+        return parsed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R, T> void commit(Future<Parsed> future, ImportReport report, Dedupe<R> dedupe, Build<R, T> build,
+                               Batch<T> commit) throws IOException {
+        Parsed parsed;
+        try {
+            parsed = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        }
+        List<T> batch = new ArrayList<>(parsed.candidates.length);
+        for (int i = 0; i < parsed.candidates.length; i++) {
+            long line = parsed.firstLine + i;
+            if (parsed.errors[i] != null) {
+                report.rows++;
+                report.errors.add(new RowError(line, parsed.errors[i]));
+                continue;
+            }
+            if (parsed.candidates[i] == null) {
+                continue;   // blank line
+            }
+            report.rows++;
+            R candidate = (R) parsed.candidates[i];
+            String duplicate = dedupe.check(candidate);
+            if (duplicate != null) {
+                report.duplicates++;
+                report.errors.add(new RowError(line, duplicate));
+                continue;
+            }
+            batch.add(build.build(candidate));
+        }
+        if (!batch.isEmpty()) {
+            commit.commit(batch);
+            report.imported += batch.size();
+            report.batches++;
+        }
+    }
+
+    private static Map<String, Integer> readHeader(String line, List<String> requiredColumns) throws IOException {
+        String[] names = CsvRow.split(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        if (names == null) {
+            throw new IOException("Unreadable CSV header: " + line);
+        }
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            header.put(names[i].trim().toLowerCase(), i);
+        }
+        for (String column : requiredColumns) {
+            if (!header.containsKey(column.toLowerCase())) {
+                throw new IOException("CSV header is missing column '" + column + "'");
+            }
+        }
+        return header;
+    }
+
+    // ==================== ROWS ====================
+
+    /**
+     * One record's fields by (case-insensitive) column name
+     */
+    private abstract static class Row {
+        abstract String get(String column);
+
+        String required(String column) {
+            String value = get(column);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Missing " + column);
+            }
+            return value.trim();
+        }
+
+        boolean flag(String column) {
+            String value = get(column);
+            if (value == null || value.isBlank()) {
+                return false;
+            }
+            switch (value.trim().toLowerCase()) {
+                case "true", "yes", "y", "1" -> { return true; }
+                case "false", "no", "n", "0" -> { return false; }
+                default -> throw new IllegalArgumentException(column + " is not true/false: " + value);
+            }
+        }
+
+        int count(String column) {
+            String value = get(column);
+            if (value == null || value.isBlank()) {
+                return 0;
+            }
+            try {
+                int n = Integer.parseInt(value.trim());
+                if (n >= 0) {
+                    return n;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            throw new IllegalArgumentException(column + " is not a non-negative number: " + value);
+        }
+    }
+
+    private static final class CsvRow extends Row {
+        private final Map<String, Integer> header;
+        private final String[] fields;
+
+        private CsvRow(Map<String, Integer> header, String[] fields) {
+            this.header = header;
+            this.fields = fields;
+        }
+
+        /**
+         * The row, or null for a blank line
+         */
+        static CsvRow parse(String line, Map<String, Integer> header) {
+            if (line.isBlank()) {
+                return null;
+            }
+            String[] fields = split(line);
+            if (fields == null) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            return new CsvRow(header, fields);
+        }
+
+        @Override
+        String get(String column) {
+            Integer index = header.get(column.toLowerCase());
+            return index == null || index >= fields.length ? null : fields[index];
+        }
+
+        /**
+         * Split one CSV line, honouring quotes; null if a quote is left open
+         */
+        static String[] split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields.toArray(new String[0]);
+        }
+    }
+
+    private static final class JsonRow extends Row {
+        private final Map<String, String> values;
+
+        private JsonRow(Map<String, String> values) {
+            this.values = values;
+        }
+
+        @Override
+        String get(String column) {
+            return values.get(column.toLowerCase());
+        }
+
+        /**
+         * One flat object per line; null for blank lines and the array brackets
+         */
+        static JsonRow parse(String line) {
+            String text = line.trim();
+            if (text.endsWith(",")) {
+                text = text.substring(0, text.length() - 1).trim();
+            }
+            if (text.startsWith("[")) {
+                text = text.substring(1).trim();
+            }
+            if (text.endsWith("]")) {
+                text = text.substring(0, text.length() - 1).trim();
+            }
+            if (text.isEmpty()) {
+                return null;
+            }
+            return new JsonRow(new JsonCursor(text).object());
+        }
+    }
+
+    /**
+     * Just enough JSON for a flat object of strings, numbers, booleans and nulls
+     */
+    private static final class JsonCursor {
+        private final String text;
+        private int pos;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> values = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                do {
+                    String key = string().toLowerCase();
+                    expect(':');
+                    values.put(key, value());
+                } while (next(',', '}') == ',');
+            }
+            if (peek() != 0) {
+                throw new IllegalArgumentException("Unexpected text after object at column " + (pos + 1));
+            }
+            return values;
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested values are not supported (column " + (pos + 1) + ")");
+            }
+            int start = pos;
+            while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Missing value at column " + (start + 1));
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("Bad \\u escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException("Bad \\u escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> sb.append(e);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+
+        private char next(char a, char b) {
+            char c = peek();
+            if (c != a && c != b) {
+                throw new IllegalArgumentException("Expected '" + a + "' or '" + b + "' at column " + (pos + 1));
+            }
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at column " + (pos + 1));
+            }
+            pos++;
+        }
+
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+    }
+
+    // ==================== MAIN ====================
+
+    /**
+     * Import files into a fresh default branch and print the reports:
+     *
+     *   java restaurantsystem.BulkImporter customers=members.csv menu=menu.json threads=8
+     */
+    public static void main(String[] args) throws IOException {
+        Path customers = null;
+        Path menu = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int errorsShown = 20;
+        for (String arg : args) {
+            if (arg.startsWith("customers=")) {
+                customers = Paths.get(arg.substring(10));
+            } else if (arg.startsWith("menu=")) {
+                menu = Paths.get(arg.substring(5));
+            } else if (arg.startsWith("threads=")) {
+                threads = Integer.parseInt(arg.substring(8));
+            }
+        }
+        EventLog.setLevel(EventLog.Level.OFF);
+        BulkImporter importer = new BulkImporter(threads, DEFAULT_BATCH_SIZE);
+        Branch branch = RestaurantSystem.getBranch();
+        for (ImportReport report : new ImportReport[] {
+                customers == null ? null : importer.importCustomers(customers, branch),
+                menu == null ? null : importer.importMenu(menu, branch.getMenu())}) {
+            if (report == null) {
+                continue;
+            }
+            System.out.println(report);
+            report.getErrors().stream().limit(errorsShown).forEach(e -> System.out.println("  " + e));
+            if (report.getErrors().size() > errorsShown) {
+                System.out.println("  ... " + (report.getErrors().size() - errorsShown) + " more");
+            }
+        }
+    }
+}
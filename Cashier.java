@@ -1,9 +1,10 @@
 package restaurantsystem;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Cashier extends Person {
-    private static int empCounter = 1;
+    private static final AtomicInteger empCounter = new AtomicInteger(1);   // unique across branches
     
     private double salary;
     private String shift;
@@ -12,7 +13,7 @@ public class Cashier extends Person {
     public Cashier(String name, String email, String phoneNumber, String password,
                    double salary, String shift) {
         super(name, email, phoneNumber, password);
-        this.id = "CH" + String.format("%03d", empCounter++);
+        this.id = "CH" + String.format("%03d", empCounter.getAndIncrement());
         this.salary = salary;
         this.shift = shift;
     }
@@ -43,55 +44,57 @@ public class Cashier extends Person {
     // ==================== INSTANCE METHODS ====================
     
     @Override
-    public boolean login(String inputId, String inputPassword) {
-        if (super.login(inputId, inputPassword)) {
-            System.out.println("👔 Cashier ID: " + id);
-            System.out.println("⏰ Shift: " + shift);
-            return true;
-        }
-        return false;
+    void welcome() {
+        super.welcome();
+        System.out.println("👔 Cashier ID: " + id);
+        System.out.println("⏰ Shift: " + shift);
     }
 
     /**
-     * Process Takeaway Order
+     * Process Takeaway Order (null if an ingredient is out of stock)
      */
     public Order processTakeawayOrder(Customer customer, Map<MenuItem, Integer> items) {
-        System.out.println("\n=== PROCESSING TAKEAWAY ORDER ===");
-        System.out.println("👔 Cashier: " + getName());
-        System.out.println("👤 Customer: " + customer.getName());
+        long start = System.nanoTime();
+        EventLog.log(EventLog.EventType.ORDER_PROCESSING, getName(), customer.getName(), 0);
 
         Order order = new Order(customer.getCustomerId(), items, Systemmode.TAKEAWAY, null);
+        if (!RestaurantSystem.getInventory().reserve(order)) {
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Out of stock for this order");
+            return null;
+        }
         order.calculateSubtotal();
-        order.applyEliteDiscount(customer.isEliteCustomer(), customer.isSubscriptionActive());
+        order.applyPricing(RestaurantSystem.getPricingEngine(),
+                           customer.isEliteCustomer(), customer.isSubscriptionActive());
         order.calculateTotal();
 
-        System.out.println("✅ Takeaway order processed!");
         order.updateStatus(Status.COMPLETE);
-        System.out.println("📋 Order ID: " + order.getOrderId());
-        System.out.println("💰 Total: EGP " + order.getTotal());
+        EventLog.log(EventLog.EventType.ORDER_PROCESSED, "Takeaway", order.getOrderId(), order.getTotal());
+        Metrics.ORDER_PLACEMENT.recordSince(start);
         
         return order;
     }
 
     /**
-     * Process Walk-In (Dine-In) Order
+     * Process Walk-In (Dine-In) Order (null if an ingredient is out of stock)
      */
     public Order processWalkInOrder(Customer customer, Map<MenuItem, Integer> items, Table table) {
-        System.out.println("\n=== PROCESSING DINE-IN ORDER ===");
-        System.out.println("👔 Cashier: " + getName());
-        System.out.println("👤 Customer: " + customer.getName());
-        System.out.println("🪑 Table: #" + table.getTableNumber());
+        long start = System.nanoTime();
+        EventLog.log(EventLog.EventType.ORDER_PROCESSING, getName(), customer.getName(), table.getTableNumber());
 
+        Order order = new Order(customer.getCustomerId(), items, Systemmode.DINE_IN, table);
+        if (!RestaurantSystem.getInventory().reserve(order)) {
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Out of stock for this order");
+            return null;
+        }
         customer.incrementDineInCount();
 
-        Order order = new Order(customer.getCustomerId(), items, Systemmode.DINE_IN, table);
         order.calculateSubtotal();
-        order.applyEliteDiscount(customer.isEliteCustomer(), customer.isSubscriptionActive());
+        order.applyPricing(RestaurantSystem.getPricingEngine(),
+                           customer.isEliteCustomer(), customer.isSubscriptionActive());
         order.calculateTotal();
 
-        System.out.println("✅ Dine-in order processed!");
-        System.out.println("📋 Order ID: " + order.getOrderId());
-        System.out.println("💰 Total: EGP " + order.getTotal());
+        EventLog.log(EventLog.EventType.ORDER_PROCESSED, "Dine-in", order.getOrderId(), order.getTotal());
+        Metrics.ORDER_PLACEMENT.recordSince(start);
         
         return order;
     }
@@ -100,12 +103,23 @@ public class Cashier extends Person {
      * Accept payment for an order
      */
     public boolean acceptPayment(Order order, double paymentAmount, Payment.PaymentMethod paymentMethod) {
+        return acceptPayment(order, paymentAmount, paymentMethod, ShiftMetrics.NO_START);
+    }
+
+    /**
+     * Accept payment for an order the cashier started at orderStartNanos
+     * (System.nanoTime()), counting it towards the shift metrics
+     */
+    public boolean acceptPayment(Order order, double paymentAmount, Payment.PaymentMethod paymentMethod,
+                                 long orderStartNanos) {
         if (order == null) {
             System.out.println("❌ Error: No order!");
             return false;
         }
 
+        long start = System.nanoTime();
         Payment payment = new Payment(paymentAmount, paymentMethod, order.getOrderId());
+        payment.setCashierId(id);
         boolean success = payment.processPayment(order.getTotal());
 
         if (success) {
@@ -114,6 +128,8 @@ public class Cashier extends Person {
         } else {
             order.updateStatus(Status.FAILED);
         }
+        RestaurantSystem.getShiftMetrics().recordPayment(this, order, success, orderStartNanos);
+        Metrics.ACCEPT_PAYMENT.recordSince(start);
 
         return success;
     }
@@ -122,33 +138,60 @@ public class Cashier extends Person {
      * Print receipt
      */
     public void printReceipt(Order order) {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("                    🧾 RECEIPT");
-        System.out.println("=".repeat(60));
-        System.out.println("👔 Cashier: " + getName() + " (" + id + ")");
-        System.out.println("📋 Order ID: " + order.getOrderId());
-        System.out.println("-".repeat(60));
-        System.out.println("Items Ordered:");
+        EventLog.flush();   // the order's events first, then its receipt
+        System.out.print(renderReceipt(order));
+    }
+
+    /**
+     * Render the receipt text printed by printReceipt
+     */
+    public String renderReceipt(Order order) {
+        StringBuilder sb = new StringBuilder(512 + order.getItems().size() * 64);
+        Formatter formatter = new Formatter(sb);
+        sb.append("\n").append("=".repeat(60)).append("\n");
+        sb.append("                    🧾 RECEIPT\n");
+        sb.append("=".repeat(60)).append("\n");
+        sb.append("👔 Cashier: ").append(getName()).append(" (").append(id).append(")\n");
+        sb.append("📋 Order ID: ").append(order.getOrderId()).append("\n");
+        sb.append("-".repeat(60)).append("\n");
+        sb.append("Items Ordered:\n");
 
         for (Map.Entry<MenuItem, Integer> entry : order.getItems().entrySet()) {
             MenuItem item = entry.getKey();
             int qty = entry.getValue();
-            double itemTotal = item.getPrice() * qty;
-            System.out.println(String.format("  - %-30s x%-3d  EGP %7.2f",
-                                           item.getName(), qty, itemTotal));
+            double itemTotal = order.getLineTotalCents(item) / 100.0;
+            formatter.format("  - %-30s x%-3d  EGP %7.2f\n", item.getName(), qty, itemTotal);
         }
 
-        System.out.println("-".repeat(60));
-        System.out.println(String.format("Subtotal:                            EGP %7.2f",
-                                        order.getSubtotal()));
-        System.out.println(String.format("Discount:                            EGP %7.2f",
-                                        order.getDiscountAmount()));
-        System.out.println(String.format("TOTAL:                               EGP %7.2f",
-                                        order.getTotal()));
-        System.out.println("-".repeat(60));
-        System.out.println("Payment Status: " +
-                         (order.getPayment() != null ? order.getPayment().getStatus() : "Pending"));
-        System.out.println("=".repeat(60));
+        sb.append("-".repeat(60)).append("\n");
+        formatter.format("Subtotal:                            EGP %7.2f\n", order.getSubtotal());
+        formatter.format("Discount:                            EGP %7.2f\n", order.getDiscountAmount());
+        formatter.format("TOTAL:                               EGP %7.2f\n", order.getTotal());
+        sb.append("-".repeat(60)).append("\n");
+        sb.append("Payment Status: ")
+          .append(order.getPayment() != null ? order.getPayment().getStatus() : "Pending").append("\n");
+        sb.append("=".repeat(60)).append("\n");
+        return sb.toString();
+    }
+
+    /**
+     * Close this cashier's own shift and print the settlement of their
+     * payments per method (other cashiers' takings stay open)
+     */
+    public PaymentLedger.ShiftReport closeShift(PaymentLedger ledger) {
+        PaymentLedger.ShiftReport report = ledger.closeShift(id);
+        System.out.println("🔒 Shift closed for " + getName() + " (" + id + ")");
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Close this cashier's own shift, printing their settlement and then their productivity
+     */
+    public PaymentLedger.ShiftReport closeShift(PaymentLedger ledger, ShiftMetrics metrics) {
+        PaymentLedger.ShiftReport report = closeShift(ledger);
+        System.out.println(metrics.closeShift(this));
+        return report;
     }
 
     @Override
@@ -1,9 +1,10 @@
 package restaurantsystem;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Customer extends Person {
-    private static int idCounter = 1;
+    private static final AtomicInteger idCounter = new AtomicInteger(1);   // unique across branches
     
     private String username;
     private boolean isEliteCustomer;
@@ -12,11 +13,12 @@ public class Customer extends Person {
     private double subscriptionFee = 100.0;
     private boolean subscriptionActive;
     private int monthsRemaining;
+    private transient CustomerIndex index;   // the lookup index this customer is in, if any
 
     public Customer(String username, String password, boolean isEliteCustomer,
                     Address address, String name, String email, String phoneNumber) {
         super(name, email, phoneNumber, password);
-        this.id = "CUST" + String.format("%03d", idCounter++);
+        this.id = formatId(nextIdNumber());
         this.username = username;
         this.isEliteCustomer = isEliteCustomer;
         this.address = address;
@@ -25,6 +27,13 @@ public class Customer extends Person {
         this.monthsRemaining = 0;
     }
 
+    /**
+     * For views whose state lives elsewhere (CustomerStore); takes no id
+     */
+    Customer() {
+        super(null, null, null, null);
+    }
+
     // Getters and Setters
     public String getCustomerId() { return id; }
     public String getUsername() { return username; }
@@ -33,6 +42,10 @@ public class Customer extends Person {
     public Address getAddress() { return address; }
     public void setAddress(Address address) { this.address = address; }
     public int getDineInCount() { return dineInCount; }
+    void setDineInCount(int dineInCount) { this.dineInCount = dineInCount; }
+    CustomerIndex getIndex() { return index; }
+    void setIndex(CustomerIndex index) { this.index = index; }
+    boolean passwordMatches(String input) { return input != null && input.equals(getPassword()); }
     public double getSubscriptionFee() { return subscriptionFee; }
     public boolean isSubscriptionActive() { return subscriptionActive && monthsRemaining > 0; }
     public void setSubscriptionActive(boolean subscriptionActive) { 
@@ -42,6 +55,32 @@ public class Customer extends Person {
     public void setMonthsRemaining(int monthsRemaining) { this.monthsRemaining = monthsRemaining; }
 
     // ==================== STATIC METHODS ====================
+
+    static int nextIdNumber() {
+        return idCounter.getAndIncrement();
+    }
+
+    static String formatId(int number) {
+        return "CUST" + String.format("%03d", number);
+    }
+
+    /**
+     * The number in a CUST### id, or -1 if the text is not a customer id
+     */
+    static int parseIdNumber(String id) {
+        if (id.length() < 5 || !id.regionMatches(true, 0, "CUST", 0, 4)) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = 4; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9' || number > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
     
     /**
      * Register new customer
@@ -50,26 +89,29 @@ public class Customer extends Person {
         System.out.println("\n=== CUSTOMER REGISTRATION ===");
         
         System.out.print("Enter your name: ");
-        String name = scanner.nextLine();
+        String name = Prompt.readLine(scanner);
         
         System.out.print("Enter email: ");
-        String email = scanner.nextLine();
+        String email = Prompt.readLine(scanner);
         
         System.out.print("Enter phone number: ");
-        String phone = scanner.nextLine();
+        String phone = Prompt.readLine(scanner);
         
         System.out.print("Enter username: ");
-        String username = scanner.nextLine();
+        String username = Prompt.readLine(scanner);
         
         System.out.print("Enter password: ");
-        String password = scanner.nextLine();
+        String password = Prompt.readLine(scanner);
         
         System.out.print("Enter address: ");
-        String addressStr = scanner.nextLine();
-        Address address = new Address(1, addressStr, true);
+        String addressStr = Prompt.readLine(scanner);
+        Address address = RestaurantSystem.getAddressRegistry().intern(addressStr, true);
         
         Customer customer = new Customer(username, password, false, address, name, email, phone);
-        customers.add(customer);
+        synchronized (customers) {
+            customers.add(customer);
+        }
+        RestaurantSystem.getCustomerIndex().add(customer);
         
         System.out.println("\n✅ Registration completed!");
         System.out.println("👤 Your Customer ID: " + customer.getCustomerId());
@@ -77,20 +119,30 @@ public class Customer extends Person {
         
         // Auto login
         System.out.print("\nLogin now? (y/n): ");
-        String choice = scanner.nextLine();
+        String choice = Prompt.readLine(scanner);
         if (choice.equalsIgnoreCase("y")) {
             customer.customerMenu(RestaurantSystem.getMenu(), RestaurantSystem.getTables(), scanner);
         }
     }
     
     /**
-     * Find customer by ID or username
+     * Find customer by ID or username in a compact store (returns a view)
+     */
+    public static Customer findCustomer(String idOrUsername, CustomerStore customers) {
+        return customers.find(idOrUsername);
+    }
+
+    /**
+     * Find customer by ID or username (the list may be shared by branches, so
+     * it is read under its own lock, as it is written)
      */
     public static Customer findCustomer(String idOrUsername, ArrayList<Customer> customers) {
-        for (Customer c : customers) {
-            if (c.getCustomerId().equalsIgnoreCase(idOrUsername) || 
-                c.getUsername().equalsIgnoreCase(idOrUsername)) {
-                return c;
+        synchronized (customers) {
+            for (Customer c : customers) {
+                if (c.getCustomerId().equalsIgnoreCase(idOrUsername) || 
+                    c.getUsername().equalsIgnoreCase(idOrUsername)) {
+                    return c;
+                }
             }
         }
         return null;
@@ -98,16 +150,29 @@ public class Customer extends Person {
     
     // ==================== INSTANCE METHODS ====================
     
+    /**
+     * Update personal information and re-index the new phone, email and name
+     */
     @Override
-    public boolean login(String inputUsername, String inputPassword) {
-        if ((this.username.equals(inputUsername) || this.id.equals(inputUsername))
-                && this.password.equals(inputPassword)) {
-            System.out.println("✅ Login successful! Welcome back, " + getName() + "!");
-            System.out.println("📊 Dine-in Count: " + dineInCount);
-            System.out.println("⭐ Elite Status: " + (isSubscriptionActive() ? "Active" : "Not Active"));
-            return true;
+    public void updateInfo(String newName, String newEmail, String newPhone) {
+        super.updateInfo(newName, newEmail, newPhone);
+        CustomerIndex current = index;
+        if (current != null) {
+            current.update(this);
         }
-        return false;
+    }
+
+    @Override
+    public boolean authenticate(String inputUsername, String inputPassword) {
+        return (getUsername().equals(inputUsername) || getCustomerId().equals(inputUsername))
+                && passwordMatches(inputPassword);
+    }
+
+    @Override
+    void welcome() {
+        System.out.println("✅ Login successful! Welcome back, " + getName() + "!");
+        System.out.println("📊 Dine-in Count: " + getDineInCount());
+        System.out.println("⭐ Elite Status: " + (isSubscriptionActive() ? "Active" : "Not Active"));
     }
     
     /**
@@ -126,8 +191,8 @@ public class Customer extends Person {
             System.out.print("Choose an option: ");
             
             try {
-                int choice = scanner.nextInt();
-                scanner.nextLine();
+                int choice = Prompt.readInt(scanner);
+                Prompt.readLine(scanner);
                 
                 switch (choice) {
                     case 1 -> placeOnlineOrder(menu, scanner);
@@ -141,7 +206,7 @@ public class Customer extends Person {
                 }
             } catch (InputMismatchException e) {
                 System.out.println("❌ Invalid input!");
-                scanner.nextLine();
+                Prompt.readLine(scanner);
             }
         }
     }
@@ -149,39 +214,83 @@ public class Customer extends Person {
     private void placeOnlineOrder(Menu menu, Scanner scanner) {
         System.out.println("\n=== ONLINE DELIVERY ORDER ===");
         
-        System.out.println("Delivery Address: " + address.getFullAddress());
+        Systemmanager manager = RestaurantSystem.getSystemManager();
+        Systemmanager.Admission admission = manager.admit(Systemmode.ONLINE_DELIVERY);
+        if (admission.getDecision() == Systemmanager.Decision.SHED) {
+            System.out.println("❌ Sorry, we are too busy to take online orders right now. Please try again later.");
+            return;
+        }
+        if (admission.getDecision() == Systemmanager.Decision.DEFERRED) {
+            System.out.println("⏳ High demand! Earliest delivery: " +
+                             admission.getPromisedAt().toLocalTime().withNano(0));
+            System.out.print("Continue with order? (y/n): ");
+            if (!Prompt.readLine(scanner).equalsIgnoreCase("y")) {
+                manager.withdraw(admission);
+                return;
+            }
+        }
+        
+        System.out.println("Delivery Address: " + getAddress().getFullAddress());
         System.out.print("Use this address? (y/n): ");
-        String confirm = scanner.nextLine();
+        String confirm = Prompt.readLine(scanner);
         
-        Address deliveryAddress = address;
+        Address deliveryAddress = getAddress();
         if (confirm.equalsIgnoreCase("n")) {
             System.out.print("Enter new address: ");
-            String newAddr = scanner.nextLine();
-            deliveryAddress = new Address(2, newAddr, false);
+            String newAddr = Prompt.readLine(scanner);
+            deliveryAddress = RestaurantSystem.getAddressRegistry().intern(newAddr, false);
         }
         
         Map<MenuItem, Integer> items = menu.selectMenuItems(scanner);
-        if (items.isEmpty()) return;
+        if (items.isEmpty()) {
+            manager.withdraw(admission);
+            return;
+        }
         
-        Order order = new Order(this.id, items, Systemmode.ONLINE_DELIVERY, null);
-        order.setDeliveryAddress(deliveryAddress);
-        order.calculateSubtotal();
-        order.applyEliteDiscount(isEliteCustomer, isSubscriptionActive());
-        order.calculateTotal();
+        Order order = createOnlineOrder(items, deliveryAddress);
+        if (order == null) {
+            manager.withdraw(admission);
+            return;
+        }
         
+        EventLog.flush();
         System.out.println(order.getOrderSummary());
+        RestaurantSystem.getBranch().addOrder(order);
         Payment.processPayment(order, scanner);
-        RestaurantSystem.getOrders().add(order);
+        RestaurantSystem.getBranch().archiveReceipt(order);
+        if (order.getPayment() != null) {
+            RestaurantSystem.getDeliveryBatcher().addReady(order);
+        }
         
         System.out.println("\n✅ Order will be delivered to: " + deliveryAddress.getFullAddress());
     }
     
+    /**
+     * Create and price an online delivery order for this customer
+     * (null if an ingredient is out of stock)
+     */
+    public Order createOnlineOrder(Map<MenuItem, Integer> items, Address deliveryAddress) {
+        long start = System.nanoTime();
+        Order order = new Order(getCustomerId(), items, Systemmode.ONLINE_DELIVERY, null);
+        if (!RestaurantSystem.getInventory().reserve(order)) {
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Out of stock for this order");
+            return null;
+        }
+        order.setDeliveryAddress(deliveryAddress);
+        order.calculateSubtotal();
+        order.applyPricing(RestaurantSystem.getPricingEngine(), isEliteCustomer(), isSubscriptionActive());
+        order.calculateTotal();
+        Metrics.ORDER_PLACEMENT.recordSince(start);
+        return order;
+    }
+    
     public void incrementDineInCount() {
-        dineInCount++;
-        System.out.println("📈 Dine-in recorded! Total: " + dineInCount);
+        int dineIns = getDineInCount() + 1;
+        setDineInCount(dineIns);
+        EventLog.log(EventLog.EventType.DINE_IN_RECORDED, dineIns);
         
-        if (dineInCount >= 5 && !isEliteCustomer) {
-            System.out.println("🎉 You're eligible for Elite membership!");
+        if (dineIns >= 5 && !isEliteCustomer()) {
+            EventLog.log(EventLog.EventType.ELITE_ELIGIBLE);
         }
     }
     
@@ -189,19 +298,19 @@ public class Customer extends Person {
         System.out.println("\n=== ELITE MEMBERSHIP ===");
         System.out.println("💰 Fee: EGP " + subscriptionFee);
         System.out.println("🎁 Benefits: 10% discount");
-        System.out.println("📊 Your dine-ins: " + dineInCount + "/5");
+        System.out.println("📊 Your dine-ins: " + getDineInCount() + "/5");
         System.out.print("\nSubscribe? (y/n): ");
-        String choice = scanner.nextLine();
+        String choice = Prompt.readLine(scanner);
         
         if (choice.equalsIgnoreCase("y")) {
             System.out.print("Process payment? (y/n): ");
-            String confirm = scanner.nextLine();
+            String confirm = Prompt.readLine(scanner);
             subscribeToElite(confirm.equalsIgnoreCase("y"));
         }
     }
     
     public boolean subscribeToElite(boolean paid) {
-        if (paid || dineInCount >= 5) {
+        if (paid || getDineInCount() >= 5) {
             setEliteCustomer(true);
             setSubscriptionActive(true);
             setMonthsRemaining(1);
@@ -211,7 +320,7 @@ public class Customer extends Person {
             System.out.println("💰 Payment required: EGP " + subscriptionFee);
             return false;
         } else {
-            System.out.println("⚠️ Need 5 dine-ins. Current: " + dineInCount);
+            System.out.println("⚠️ Need 5 dine-ins. Current: " + getDineInCount());
             return false;
         }
     }
@@ -219,11 +328,11 @@ public class Customer extends Person {
     @Override
     public String getDetails() {
         return super.getDetails() +
-               "\nCustomer ID: " + id +
-               "\nUsername: " + username +
-               "\n⭐ Elite: " + (isEliteCustomer ? "Yes" : "No") +
+               "\nCustomer ID: " + getCustomerId() +
+               "\nUsername: " + getUsername() +
+               "\n⭐ Elite: " + (isEliteCustomer() ? "Yes" : "No") +
                "\n📊 Subscription: " + (isSubscriptionActive() ? "Active" : "Inactive") +
-               "\n🏠 Address: " + address.getFullAddress() +
-               "\n📈 Dine-ins: " + dineInCount;
+               "\n🏠 Address: " + getAddress().getFullAddress() +
+               "\n📈 Dine-ins: " + getDineInCount();
     }
 }
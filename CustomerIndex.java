@@ -0,0 +1,585 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Customer index - prefix and typo-tolerant lookup by phone number, email and
+ * name, for the counter where nobody knows a CUST### id.
+ *
+ * Each field is a sorted array of keys (phone digits, lower-case email, the
+ * lower-case full name and each of its words) with the owning customer beside
+ * it. New keys go into a small sorted buffer that is merged into the main
+ * array once it fills, so registering stays cheap. A customer whose details
+ * change is simply indexed again: keys the customer no longer has are skipped
+ * at lookup and dropped at the next merge.
+ *
+ * Fuzzy lookup walks the sorted keys as an implicit trie, carrying one row of
+ * the edit-distance table per prefix (a swap of neighbouring characters counts
+ * as one typo) and pruning as soon as every cell is over the limit, so it
+ * visits a few thousand prefixes rather than every key.
+ */
+public class CustomerIndex {
+    public static final int DEFAULT_LIMIT = 10;
+
+    private static final int BUFFER_LIMIT = 16 * 1024;
+
+    /**
+     * Which detail a candidate matched on
+     */
+    public enum Field { PHONE, EMAIL, NAME }
+
+    /**
+     * One search result
+     */
+    public static final class Match {
+        private final Customer customer;
+        private final Field field;
+        private final String key;
+        private final int edits;
+
+        Match(Customer customer, Field field, String key, int edits) {
+            this.customer = customer;
+            this.field = field;
+            this.key = key;
+            this.edits = edits;
+        }
+
+        public Customer getCustomer() { return customer; }
+        public Field getField() { return field; }
+        public String getKey() { return key; }
+
+        /**
+         * Typos between the query and the start of the matched key (0 = exact prefix)
+         */
+        public int getEdits() { return edits; }
+
+        @Override
+        public String toString() {
+            return customer.getCustomerId() + " " + customer.getName() + " | " + customer.getPhoneNumber()
+                   + " | " + customer.getEmail() + (edits > 0 ? " (~" + field.name().toLowerCase() + ")" : "");
+        }
+    }
+
+    private final Segments phones = new Segments();
+    private final Segments emails = new Segments();
+    private final Segments names = new Segments();
+
+    public CustomerIndex() {
+    }
+
+    public CustomerIndex(List<Customer> customers) {
+        addAll(customers);
+    }
+
+    // ==================== UPDATES ====================
+
+    /**
+     * Index a customer, or re-index one whose details changed
+     */
+    public synchronized void add(Customer customer) {
+        boolean again = customer.getIndex() == this;
+        String phone = phoneKey(customer.getPhoneNumber());
+        if (phone != null) {
+            phones.add(phone, customer, again);
+        }
+        String email = textKey(customer.getEmail());
+        if (email != null) {
+            emails.add(email, customer, again);
+        }
+        for (String key : nameKeys(customer.getName())) {
+            names.add(key, customer, again);
+        }
+        customer.setIndex(this);
+    }
+
+    /**
+     * Index many new customers at once (one sort and merge per field)
+     */
+    public synchronized void addAll(List<Customer> customers) {
+        if (customers.size() < BUFFER_LIMIT) {
+            for (Customer customer : customers) {
+                add(customer);
+            }
+            return;
+        }
+        List<Entry> phoneEntries = new ArrayList<>(customers.size());
+        List<Entry> emailEntries = new ArrayList<>(customers.size());
+        List<Entry> nameEntries = new ArrayList<>(customers.size() * 3);
+        for (Customer customer : customers) {
+            if (customer.getIndex() == this) {
+                add(customer);
+                continue;
+            }
+            String phone = phoneKey(customer.getPhoneNumber());
+            if (phone != null) {
+                phoneEntries.add(new Entry(phone, customer));
+            }
+            String email = textKey(customer.getEmail());
+            if (email != null) {
+                emailEntries.add(new Entry(email, customer));
+            }
+            for (String key : nameKeys(customer.getName())) {
+                nameEntries.add(new Entry(key, customer));
+            }
+            customer.setIndex(this);
+        }
+        phones.addSorted(Segment.sorted(phoneEntries));
+        emails.addSorted(Segment.sorted(emailEntries));
+        names.addSorted(Segment.sorted(nameEntries));
+    }
+
+    /**
+     * Index the details a customer has now, after updateInfo (old keys fall away)
+     */
+    public void update(Customer customer) {
+        add(customer);
+    }
+
+    // ==================== LOOKUP ====================
+
+    /**
+     * Customers whose phone, email or name starts with the query, allowing a
+     * typo or two in longer queries when nothing matches as typed. A query of
+     * digits searches phones; one with '@' or '.' tries emails before names.
+     */
+    public List<Match> search(String query) {
+        return search(query, DEFAULT_LIMIT);
+    }
+
+    public synchronized List<Match> search(String query, int limit) {
+        List<Match> matches = new ArrayList<>();
+        if (query == null || query.isBlank() || limit <= 0) {
+            return matches;
+        }
+        String text = textKey(query);
+        String digits = phoneKey(query);
+        boolean phoneQuery = digits != null && text.chars().noneMatch(Character::isLetter) && text.indexOf('@') < 0;
+        IdentityHashMap<Customer, Boolean> seen = new IdentityHashMap<>();
+
+        int maxEdits = maxEdits(phoneQuery ? digits.length() : text.length());
+        // Typos are only tolerated when nothing matches with fewer of them
+        for (int edits = 0; edits <= maxEdits && matches.isEmpty(); edits++) {
+            if (phoneQuery) {
+                collect(Field.PHONE, phones, digits, edits, limit, matches, seen);
+            } else if (text.indexOf('@') >= 0 || text.indexOf('.') >= 0) {
+                collect(Field.EMAIL, emails, text, edits, limit, matches, seen);
+                collect(Field.NAME, names, text, edits, limit, matches, seen);
+            } else {
+                collect(Field.NAME, names, text, edits, limit, matches, seen);
+                collect(Field.EMAIL, emails, text, edits, limit, matches, seen);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Typos tolerated for a query of this length (none below 3 characters)
+     */
+    static int maxEdits(int length) {
+        return length < 3 ? 0 : length < 6 ? 1 : 2;
+    }
+
+    /**
+     * Append matches at exactly this edit distance, in key order
+     */
+    private void collect(Field field, Segments segments, String query, int edits, int limit,
+                         List<Match> matches, IdentityHashMap<Customer, Boolean> seen) {
+        for (Segment segment : segments.both()) {
+            if (matches.size() >= limit) {
+                return;
+            }
+            if (edits == 0) {
+                int from = segment.lowerBound(query, 0, segment.size);
+                int to = segment.prefixEnd(query, from);
+                take(field, segment, from, to, 0, limit, matches, seen);
+            } else {
+                // Typos are only looked for after the first character, which nearly everyone gets right
+                String first = query.substring(0, 1);
+                int from = segment.lowerBound(first, 0, segment.size);
+                int to = segment.prefixEnd(first, from);
+                int[] start = new int[query.length() + 1];   // edit distances before any character
+                int[] row = new int[query.length() + 1];     // ... and after matching the first one
+                row[0] = 1;
+                for (int i = 0; i < query.length(); i++) {
+                    start[i + 1] = i + 1;
+                    row[i + 1] = i;
+                }
+                walk(field, segment, query, edits, from, to, 1, start, row, query.charAt(0), limit, matches, seen);
+            }
+        }
+    }
+
+    /**
+     * Depth-first over the implicit trie node [from, to) whose keys share their
+     * first depth characters. row is the edit-distance row for that prefix,
+     * before the row for the prefix one shorter and last its final character
+     * (adjacent swaps count as one typo).
+     */
+    private void walk(Field field, Segment segment, String query, int edits, int from, int to, int depth,
+                      int[] before, int[] row, char last, int limit, List<Match> matches,
+                      IdentityHashMap<Customer, Boolean> seen) {
+        int n = query.length();
+        // Keys that end here have no children to extend the prefix
+        int start = segment.longerThan(from, to, depth);
+        int[] next = new int[n + 1];
+        while (start < to && matches.size() < limit) {
+            String key = segment.keys[start];
+            char c = key.charAt(depth);
+            int end = segment.childEnd(start, to, depth, c);
+            if (end - start == 1) {
+                // A single key below: finish it row by row instead of walking node by node
+                if (singleKeyWithin(key, depth, query, edits, before, row, last)) {
+                    take(field, segment, start, end, edits, limit, matches, seen);
+                }
+                start = end;
+                continue;
+            }
+            int best = step(query, c, last, before, row, next, depth + 1, edits);
+            if (next[n] == edits) {
+                // The whole query is within budget here: everything below is a match
+                take(field, segment, start, end, edits, limit, matches, seen);
+            } else if (best <= edits && next[n] > edits) {
+                walk(field, segment, query, edits, start, end, depth + 1, row, next, c, limit, matches, seen);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Whether some prefix of key (continuing from depth) is exactly edits away from the query
+     */
+    private static boolean singleKeyWithin(String key, int depth, String query, int edits,
+                                           int[] before, int[] row, char last) {
+        int[] older = before.clone();
+        int[] previous = row.clone();
+        int[] next = new int[previous.length];
+        for (int d = depth; d < key.length(); d++) {
+            char c = key.charAt(d);
+            int best = step(query, c, last, older, previous, next, d + 1, edits);
+            if (next[query.length()] <= edits) {
+                return next[query.length()] == edits;
+            }
+            if (best > edits) {
+                return false;
+            }
+            int[] recycled = older;
+            older = previous;
+            previous = next;
+            next = recycled;
+            last = c;
+        }
+        return false;
+    }
+
+    /**
+     * Next edit-distance row once the path reaches the given length with
+     * character c (after last); returns the row minimum. Only the diagonal
+     * band that can stay within edits is computed; cells outside it hold
+     * edits + 1.
+     */
+    private static int step(String query, char c, char last, int[] before, int[] row, int[] next,
+                             int length, int edits) {
+        int n = query.length();
+        int over = edits + 1;
+        int lo = Math.max(1, length - edits);
+        int hi = Math.min(n, length + edits);
+        next[0] = Math.min(length, over);
+        if (lo > 1) {
+            next[lo - 1] = over;
+        }
+        int best = next[0];
+        for (int i = lo; i <= hi; i++) {
+            char q = query.charAt(i - 1);
+            int value = Math.min(Math.min(next[i - 1] + 1, row[i] + 1), row[i - 1] + (q == c ? 0 : 1));
+            if (i > 1 && q == last && query.charAt(i - 2) == c) {
+                value = Math.min(value, before[i - 2] + 1);   // swapped neighbours
+            }
+            next[i] = Math.min(value, over);
+            best = Math.min(best, next[i]);
+        }
+        if (hi < n) {
+            next[hi + 1] = over;
+            next[n] = over;
+        }
+        return best;
+    }
+
+    private void take(Field field, Segment segment, int from, int to, int edits, int limit,
+                      List<Match> matches, IdentityHashMap<Customer, Boolean> seen) {
+        for (int i = from; i < to && matches.size() < limit; i++) {
+            Customer customer = segment.owners[i];
+            if (!seen.containsKey(customer) && hasKey(customer, field, segment.keys[i])) {
+                seen.put(customer, Boolean.TRUE);
+                matches.add(new Match(customer, field, segment.keys[i], edits));
+            }
+        }
+    }
+
+    // ==================== KEYS ====================
+
+    private static boolean hasKey(Customer customer, Field field, String key) {
+        switch (field) {
+            case PHONE:
+                return key.equals(phoneKey(customer.getPhoneNumber()));
+            case EMAIL:
+                return key.equals(textKey(customer.getEmail()));
+            default:
+                for (String name : nameKeys(customer.getName())) {
+                    if (name.equals(key)) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Digits only ("0100 123-4567" → "01001234567"); null if fewer than three
+     */
+    static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.length() < 3 ? null : digits.toString();
+    }
+
+    /**
+     * Lower case with single spaces; null if blank or "n/a"
+     */
+    static String textKey(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(Character.toLowerCase(c));
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ') {
+            sb.setLength(sb.length() - 1);
+        }
+        String key = sb.toString();
+        return key.isEmpty() || key.equals("n/a") ? null : key;
+    }
+
+    /**
+     * The full name and, for longer names, each word of it
+     */
+    static List<String> nameKeys(String name) {
+        String full = textKey(name);
+        if (full == null) {
+            return List.of();
+        }
+        String[] words = full.split(" ");
+        if (words.length == 1) {
+            return List.of(full);
+        }
+        List<String> keys = new ArrayList<>(words.length + 1);
+        keys.add(full);
+        for (String word : words) {
+            if (!word.isEmpty() && !keys.contains(word)) {
+                keys.add(word);
+            }
+        }
+        return keys;
+    }
+
+    // ==================== STORAGE ====================
+
+    private static final class Entry {
+        final String key;
+        final Customer owner;
+
+        Entry(String key, Customer owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * The main array plus the insert buffer for one field
+     */
+    private static final class Segments {
+        private Segment main = new Segment(0);
+        private Segment buffer = new Segment(64);
+        // Customers re-indexed since the last merge: only their entries can be stale
+        private final IdentityHashMap<Customer, Boolean> changed = new IdentityHashMap<>();
+
+        void add(String key, Customer owner, boolean again) {
+            if (again) {
+                changed.put(owner, Boolean.TRUE);
+            }
+            buffer.insert(key, owner);
+            if (buffer.size >= BUFFER_LIMIT) {
+                main = Segment.merge(main, buffer, changed);
+                buffer = new Segment(64);
+                changed.clear();
+            }
+        }
+
+        void addSorted(Segment sorted) {
+            main = Segment.merge(Segment.merge(main, buffer, changed), sorted, changed);
+            buffer = new Segment(64);
+            changed.clear();
+        }
+
+        Segment[] both() {
+            return new Segment[] {main, buffer};
+        }
+    }
+
+    /**
+     * Keys in sorted order with their owners; duplicates of a key sit together
+     */
+    private static final class Segment {
+        String[] keys;
+        Customer[] owners;
+        int size;
+
+        Segment(int capacity) {
+            keys = new String[capacity];
+            owners = new Customer[capacity];
+        }
+
+        static Segment sorted(List<Entry> entries) {
+            entries.sort((a, b) -> a.key.compareTo(b.key));
+            Segment segment = new Segment(entries.size());
+            for (Entry entry : entries) {
+                segment.keys[segment.size] = entry.key;
+                segment.owners[segment.size] = entry.owner;
+                segment.size++;
+            }
+            return segment;
+        }
+
+        void insert(String key, Customer owner) {
+            int at = lowerBound(key, 0, size);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(16, size * 2));
+                owners = Arrays.copyOf(owners, keys.length);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(owners, at, owners, at + 1, size - at);
+            keys[at] = key;
+            owners[at] = owner;
+            size++;
+        }
+
+        /**
+         * Merge two segments; entries of changed customers are dropped if the
+         * customer no longer has that key or it was already kept
+         */
+        static Segment merge(Segment a, Segment b, IdentityHashMap<Customer, Boolean> changed) {
+            Segment out = new Segment(a.size + b.size);
+            IdentityHashMap<Customer, List<String>> kept = new IdentityHashMap<>();
+            int i = 0;
+            int j = 0;
+            while (i < a.size || j < b.size) {
+                boolean fromA = j >= b.size || (i < a.size && a.keys[i].compareTo(b.keys[j]) <= 0);
+                String key = fromA ? a.keys[i] : b.keys[j];
+                Customer owner = fromA ? a.owners[i++] : b.owners[j++];
+                if (!changed.isEmpty() && changed.containsKey(owner)) {
+                    List<String> keys = kept.computeIfAbsent(owner, o -> new ArrayList<>(4));
+                    if (keys.contains(key) || !stillHas(owner, key)) {
+                        continue;
+                    }
+                    keys.add(key);
+                }
+                out.keys[out.size] = key;
+                out.owners[out.size] = owner;
+                out.size++;
+            }
+            return out;
+        }
+
+        private static boolean stillHas(Customer owner, String key) {
+            return key.equals(phoneKey(owner.getPhoneNumber())) || key.equals(textKey(owner.getEmail()))
+                   || nameKeys(owner.getName()).contains(key);
+        }
+
+        /**
+         * First index in [from, to) whose key is longer than length (the range
+         * shares its first length characters, so keys of exactly that length
+         * come first)
+         */
+        int longerThan(int from, int to, int length) {
+            int lo = from;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].length() == length) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * First index in [from, to) whose key is not less than the given one
+         */
+        int lowerBound(String key, int from, int to) {
+            int lo = from;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * End of the run of keys starting at from that begin with the prefix
+         */
+        int prefixEnd(String prefix, int from) {
+            int lo = from;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].startsWith(prefix)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * End of the run in [from, to) whose character at depth is c (all keys
+         * in the range share their first depth characters and are longer)
+         */
+        int childEnd(int from, int to, int depth, char c) {
+            int lo = from;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].charAt(depth) <= c) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
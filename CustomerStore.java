@@ -0,0 +1,449 @@
+package restaurantsystem;
+
+import java.util.Arrays;
+
+/**
+ * Customer store - the loyalty base held column-wise in primitive arrays.
+ *
+ * Each customer is one row: int codes into a StringDictionary for the text
+ * fields (the address text included), the address id and coordinates as
+ * plain columns, and ints and flag bits for the counters. The store holds
+ * a handful of arrays for the GC to trace instead of seven objects per
+ * customer; what it saves in bytes depends on how repetitive the text is
+ * (CustomerStoreBenchmark prints both footprints).
+ *
+ * Lookups hand out a View - a small Customer subclass that reads and writes
+ * its row - so findCustomer, login, getDetails and the order code work
+ * unchanged. Views are created per lookup and can be dropped freely; a
+ * view's getAddress builds a fresh Address from the row.
+ *
+ * Editing a profile encodes the new text, so the old value may be left in the
+ * dictionary; once enough have piled up the dictionary is rebuilt from the
+ * live rows (compact), which keeps it within a constant factor of the data.
+ *
+ * Scope: this is for the loyalty base handled in bulk (BulkImporter can load
+ * a file straight into a store). A branch's live customers stay Customer
+ * objects in its list and CustomerIndex, since that list may be shared
+ * between branches and orders keep references to the customer.
+ */
+public class CustomerStore {
+    private static final byte ELITE = 1;
+    private static final byte SUBSCRIBED = 2;
+    private static final byte DEFAULT_ADDRESS = 4;
+    private static final int COMPACT_AFTER = 4096;   // minimum overwritten codes before a rebuild
+
+    private StringDictionary strings = new StringDictionary();
+    private final IntIndex rowById = new IntIndex();
+    private IntIndex rowByUsername = new IntIndex();   // lower-case username code -> row
+    private int overwritten;   // codes replaced by edits since the last compaction
+
+    private int size;
+    private int[] idNumbers = new int[1024];
+    private int[] usernames = new int[1024];
+    private int[] passwords = new int[1024];
+    private int[] names = new int[1024];
+    private int[] emails = new int[1024];
+    private int[] phones = new int[1024];
+    private int[] addressIds = new int[1024];
+    private int[] addressTexts = new int[1024];   // -1: no address
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private int[] dineIns = new int[1024];
+    private int[] monthsRemaining = new int[1024];
+    private byte[] flags = new byte[1024];
+
+    // ==================== ADDING ====================
+
+    /**
+     * Register a new customer (takes the next customer id)
+     */
+    public synchronized View register(String username, String password, boolean isElite, Address address,
+                                      String name, String email, String phoneNumber) {
+        if (usernameTaken(username)) {
+            throw new IllegalArgumentException("Username already taken: " + username);
+        }
+        int row = append(Customer.nextIdNumber(), username, password, name, email, phoneNumber, address);
+        setFlag(row, ELITE, isElite);
+        return new View(this, row);
+    }
+
+    /**
+     * Copy an existing customer in, keeping its id and counters
+     */
+    public synchronized View add(Customer customer) {
+        int idNumber = Customer.parseIdNumber(customer.getCustomerId());
+        if (idNumber < 0) {
+            throw new IllegalArgumentException("Not a customer id: " + customer.getCustomerId());
+        }
+        if (rowById.get(idNumber) >= 0 || usernameTaken(customer.getUsername())) {
+            throw new IllegalArgumentException("Customer already stored: " + customer.getCustomerId());
+        }
+        int row = append(idNumber, customer.getUsername(), customer.getPassword(), customer.getName(),
+                         customer.getEmail(), customer.getPhoneNumber(), customer.getAddress());
+        dineIns[row] = customer.getDineInCount();
+        monthsRemaining[row] = customer.getMonthsRemaining();
+        setFlag(row, ELITE, customer.isEliteCustomer());
+        setFlag(row, SUBSCRIBED, customer.isSubscriptionActive());
+        return new View(this, row);
+    }
+
+    /**
+     * Checked without encoding, so a rejected username never enters the dictionary
+     */
+    private boolean usernameTaken(String username) {
+        int code = strings.lookup(username.toLowerCase());
+        return code >= 0 && rowByUsername.get(code) >= 0;
+    }
+
+    private int append(int idNumber, String username, String password, String name, String email,
+                       String phoneNumber, Address address) {
+        if (size == idNumbers.length) {
+            grow();
+        }
+        int row = size++;
+        idNumbers[row] = idNumber;
+        usernames[row] = strings.encode(username);
+        passwords[row] = code(password);
+        names[row] = code(name);
+        emails[row] = code(email);
+        phones[row] = code(phoneNumber);
+        addressTexts[row] = -1;
+        storeAddress(row, address);
+        rowById.put(idNumber, row);
+        rowByUsername.put(strings.encode(username.toLowerCase()), row);
+        return row;
+    }
+
+    private void grow() {
+        int capacity = idNumbers.length * 2;
+        idNumbers = Arrays.copyOf(idNumbers, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        passwords = Arrays.copyOf(passwords, capacity);
+        names = Arrays.copyOf(names, capacity);
+        emails = Arrays.copyOf(emails, capacity);
+        phones = Arrays.copyOf(phones, capacity);
+        addressIds = Arrays.copyOf(addressIds, capacity);
+        addressTexts = Arrays.copyOf(addressTexts, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        dineIns = Arrays.copyOf(dineIns, capacity);
+        monthsRemaining = Arrays.copyOf(monthsRemaining, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    // ==================== LOOKUP ====================
+
+    /**
+     * Customer by id (CUST###) or username, either case-insensitive; null if absent
+     */
+    public synchronized View find(String idOrUsername) {
+        int idNumber = Customer.parseIdNumber(idOrUsername);
+        if (idNumber >= 0) {
+            int row = rowById.get(idNumber);
+            if (row >= 0 && Customer.formatId(idNumber).equalsIgnoreCase(idOrUsername)) {
+                return new View(this, row);
+            }
+        }
+        int code = strings.lookup(idOrUsername.toLowerCase());
+        int row = code < 0 ? -1 : rowByUsername.get(code);
+        return row < 0 ? null : new View(this, row);
+    }
+
+    public synchronized View get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("No customer row " + row);
+        }
+        return new View(this, row);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Approximate bytes held by the columns, indexes and string arena
+     */
+    public synchronized long footprintBytes() {
+        return (4L * 10 + 8 * 2) * idNumbers.length + flags.length + strings.footprintBytes()
+               + rowById.footprintBytes() + rowByUsername.footprintBytes();
+    }
+
+    // ==================== COLUMN ACCESS ====================
+
+    private int code(String value) {
+        return value == null ? -1 : strings.encode(value);
+    }
+
+    private String text(int code) {
+        return code < 0 ? null : strings.decode(code);
+    }
+
+    /**
+     * Overwrite one text cell, compacting the dictionary once enough old values have piled up
+     */
+    private void set(int[] column, int row, String value) {
+        int previous = column[row];
+        column[row] = code(value);
+        if (previous >= 0 && previous != column[row]
+                && ++overwritten > Math.max(COMPACT_AFTER, strings.size() / 2)) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuild the dictionary from the strings the rows still use
+     */
+    private void compact() {
+        StringDictionary live = new StringDictionary();
+        int[] remap = new int[strings.size()];
+        Arrays.fill(remap, -1);
+        for (int[] column : new int[][] {usernames, passwords, names, emails, phones, addressTexts}) {
+            for (int row = 0; row < size; row++) {
+                int code = column[row];
+                if (code >= 0) {
+                    if (remap[code] < 0) {
+                        remap[code] = live.encode(strings.decode(code));
+                    }
+                    column[row] = remap[code];
+                }
+            }
+        }
+        IntIndex byUsername = new IntIndex();
+        for (int row = 0; row < size; row++) {
+            byUsername.put(live.encode(live.decode(usernames[row]).toLowerCase()), row);
+        }
+        strings = live;
+        rowByUsername = byUsername;
+        overwritten = 0;
+    }
+
+    /**
+     * Give a row another customer id, keeping the id index in step
+     */
+    private void renumber(int row, String id) {
+        int idNumber = Customer.parseIdNumber(id);
+        if (idNumber < 0) {
+            throw new IllegalArgumentException("Not a customer id: " + id);
+        }
+        int current = rowById.get(idNumber);
+        if (current >= 0 && current != row) {
+            throw new IllegalArgumentException("Customer id already taken: " + id);
+        }
+        rowById.remove(idNumbers[row]);
+        idNumbers[row] = idNumber;
+        rowById.put(idNumber, row);
+    }
+
+    private void storeAddress(int row, Address address) {
+        if (address == null) {
+            set(addressTexts, row, null);
+            return;
+        }
+        addressIds[row] = address.getAddressId();
+        set(addressTexts, row, address.getFullAddress());
+        latitudes[row] = address.getLatitude();
+        longitudes[row] = address.getLongitude();
+        setFlag(row, DEFAULT_ADDRESS, address.isDefault());
+    }
+
+    private Address loadAddress(int row) {
+        if (addressTexts[row] < 0) {
+            return null;
+        }
+        Address address = new Address(addressIds[row], text(addressTexts[row]),
+                                      (flags[row] & DEFAULT_ADDRESS) != 0);
+        address.setCoordinates(latitudes[row], longitudes[row]);
+        return address;
+    }
+
+    private synchronized void setFlag(int row, byte flag, boolean on) {
+        flags[row] = (byte) (on ? flags[row] | flag : flags[row] & ~flag);
+    }
+
+    /**
+     * A customer backed by one row of the store. Reads and writes go straight
+     * to the columns, so any number of views of a row stay consistent.
+     */
+    public static final class View extends Customer {
+        private static final long serialVersionUID = 1L;
+
+        private final CustomerStore store;
+        private final int row;
+
+        View(CustomerStore store, int row) {
+            this.store = store;
+            this.row = row;
+        }
+
+        public int getRow() { return row; }
+
+        @Override
+        public String getId() {
+            return getCustomerId();
+        }
+
+        @Override
+        public void setId(String id) {
+            synchronized (store) {
+                store.renumber(row, id);
+            }
+        }
+
+        @Override
+        public String getCustomerId() {
+            synchronized (store) {
+                return Customer.formatId(store.idNumbers[row]);
+            }
+        }
+
+        @Override
+        public String getUsername() {
+            synchronized (store) {
+                return store.text(store.usernames[row]);
+            }
+        }
+
+        @Override
+        public String getName() {
+            synchronized (store) {
+                return store.text(store.names[row]);
+            }
+        }
+
+        @Override
+        public void setName(String name) {
+            synchronized (store) {
+                store.set(store.names, row, name);
+            }
+        }
+
+        @Override
+        public String getEmail() {
+            synchronized (store) {
+                return store.text(store.emails[row]);
+            }
+        }
+
+        @Override
+        public void setEmail(String email) {
+            synchronized (store) {
+                store.set(store.emails, row, email);
+            }
+        }
+
+        @Override
+        public String getPhoneNumber() {
+            synchronized (store) {
+                return store.text(store.phones[row]);
+            }
+        }
+
+        @Override
+        public void setPhoneNumber(String phoneNumber) {
+            synchronized (store) {
+                store.set(store.phones, row, phoneNumber);
+            }
+        }
+
+        @Override
+        public String getPassword() {
+            synchronized (store) {
+                return store.text(store.passwords[row]);
+            }
+        }
+
+        @Override
+        public void setPassword(String password) {
+            synchronized (store) {
+                store.set(store.passwords, row, password);
+            }
+        }
+
+        @Override
+        public Address getAddress() {
+            synchronized (store) {
+                return store.loadAddress(row);
+            }
+        }
+
+        @Override
+        public void setAddress(Address address) {
+            synchronized (store) {
+                store.storeAddress(row, address);
+            }
+        }
+
+        @Override
+        public boolean isEliteCustomer() {
+            synchronized (store) {
+                return (store.flags[row] & ELITE) != 0;
+            }
+        }
+
+        @Override
+        public void setEliteCustomer(boolean eliteCustomer) {
+            store.setFlag(row, ELITE, eliteCustomer);
+        }
+
+        @Override
+        public boolean isSubscriptionActive() {
+            synchronized (store) {
+                return (store.flags[row] & SUBSCRIBED) != 0 && store.monthsRemaining[row] > 0;
+            }
+        }
+
+        @Override
+        public void setSubscriptionActive(boolean subscriptionActive) {
+            store.setFlag(row, SUBSCRIBED, subscriptionActive);
+        }
+
+        @Override
+        public int getMonthsRemaining() {
+            synchronized (store) {
+                return store.monthsRemaining[row];
+            }
+        }
+
+        @Override
+        public void setMonthsRemaining(int monthsRemaining) {
+            synchronized (store) {
+                store.monthsRemaining[row] = monthsRemaining;
+            }
+        }
+
+        @Override
+        public int getDineInCount() {
+            synchronized (store) {
+                return store.dineIns[row];
+            }
+        }
+
+        @Override
+        void setDineInCount(int dineInCount) {
+            synchronized (store) {
+                store.dineIns[row] = dineInCount;
+            }
+        }
+
+        /**
+         * Login compares against the arena bytes instead of decoding the password
+         */
+        @Override
+        boolean passwordMatches(String input) {
+            synchronized (store) {
+                int code = store.passwords[row];
+                return input != null && code >= 0 && store.strings.matches(code, input);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof View && ((View) other).store == store && ((View) other).row == row;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(store) * 31 + row;
+        }
+    }
+}
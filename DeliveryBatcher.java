@@ -0,0 +1,232 @@
+package restaurantsystem;
+
+import java.util.*;
+
+/**
+ * Delivery batching engine - groups ready ONLINE_DELIVERY orders into rider runs.
+ *
+ * Ready orders are kept in a geohash-style grid of square lat/lon cells one
+ * batching radius high, so the neighbours of an order are always in its own
+ * cell or the cells immediately around it. A run is dispatched once its oldest
+ * order has waited for the batching window; it then picks up the nearest waiting
+ * orders within the radius, up to the rider's capacity.
+ */
+public class DeliveryBatcher {
+    private static final double KM_PER_DEGREE = 111.32;
+
+    /**
+     * A ready order waiting for a rider
+     */
+    static final class PendingDelivery {
+        final Order order;
+        final double latitude;
+        final double longitude;
+        final long readyAtMillis;
+        final long cell;
+        boolean assigned;
+
+        PendingDelivery(Order order, double latitude, double longitude, long readyAtMillis, long cell) {
+            this.order = order;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.readyAtMillis = readyAtMillis;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * Orders handed to one rider, in drop-off order
+     */
+    public static final class RiderRun {
+        private final List<Order> orders;
+        private final double distanceKm;
+
+        RiderRun(List<Order> orders, double distanceKm) {
+            this.orders = Collections.unmodifiableList(orders);
+            this.distanceKm = distanceKm;
+        }
+
+        public List<Order> getOrders() { return orders; }
+        public double getDistanceKm() { return distanceKm; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("🛵 Run of " + orders.size() + " order(s), " +
+                    String.format("%.1f km between drops", distanceKm) + ":");
+            for (Order order : orders) {
+                sb.append("\n   - Order #").append(order.getOrderId()).append(" → ")
+                  .append(order.getDeliveryAddress() != null
+                          ? order.getDeliveryAddress().getFullAddress() : "?");
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Gazetteer gazetteer;
+    private final double radiusKm;
+    private final long windowMillis;
+    private final int riderCapacity;
+    private final double cellDegrees;
+
+    private final HashMap<Long, ArrayList<PendingDelivery>> grid = new HashMap<>();
+    private final ArrayDeque<PendingDelivery> byReadyTime = new ArrayDeque<>();
+    private final ArrayList<Order> unresolved = new ArrayList<>();
+
+    /**
+     * @param gazetteer     lookup table used to resolve delivery addresses, may be null
+     * @param radiusKm      maximum distance between an order and the run's first drop
+     * @param windowMillis  how long the oldest order may wait for companions
+     * @param riderCapacity maximum orders per run
+     */
+    public DeliveryBatcher(Gazetteer gazetteer, double radiusKm, long windowMillis, int riderCapacity) {
+        if (radiusKm <= 0 || windowMillis < 0 || riderCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid batching parameters");
+        }
+        this.gazetteer = gazetteer;
+        this.radiusKm = radiusKm;
+        this.windowMillis = windowMillis;
+        this.riderCapacity = riderCapacity;
+        this.cellDegrees = radiusKm / KM_PER_DEGREE;
+    }
+
+    public synchronized int getPendingCount() {
+        return byReadyTime.size() + unresolved.size();
+    }
+
+    /**
+     * Queue an order that is ready to leave the kitchen
+     */
+    public void addReady(Order order) {
+        addReady(order, System.currentTimeMillis());
+    }
+
+    public synchronized void addReady(Order order, long readyAtMillis) {
+        if (order == null || order.getOrderType() != Systemmode.ONLINE_DELIVERY) {
+            throw new IllegalArgumentException("Only online delivery orders can be batched");
+        }
+        Address address = order.getDeliveryAddress();
+        if (address == null || !(address.hasCoordinates() || (gazetteer != null && gazetteer.resolve(address)))) {
+            // Unknown location: the order is dispatched on its own
+            unresolved.add(order);
+            return;
+        }
+        long cell = cellOf(address.getLatitude(), address.getLongitude());
+        PendingDelivery pending = new PendingDelivery(order, address.getLatitude(),
+                address.getLongitude(), readyAtMillis, cell);
+        grid.computeIfAbsent(cell, k -> new ArrayList<>()).add(pending);
+        byReadyTime.addLast(pending);
+    }
+
+    /**
+     * Build the runs that are due at {@code nowMillis}
+     */
+    public synchronized List<RiderRun> buildBatches(long nowMillis) {
+        ArrayList<RiderRun> runs = new ArrayList<>();
+
+        for (Order order : unresolved) {
+            runs.add(new RiderRun(new ArrayList<>(List.of(order)), 0));
+        }
+        unresolved.clear();
+
+        ArrayList<PendingDelivery> candidates = new ArrayList<>();
+        while (!byReadyTime.isEmpty()) {
+            PendingDelivery seed = byReadyTime.peekFirst();
+            if (seed.assigned) {
+                byReadyTime.pollFirst();
+                continue;
+            }
+            if (seed.readyAtMillis + windowMillis > nowMillis) {
+                break;
+            }
+            byReadyTime.pollFirst();
+            runs.add(buildRun(seed, candidates));
+        }
+        return runs;
+    }
+
+    /**
+     * Dispatch everything still waiting, ignoring the window (e.g. at closing)
+     */
+    public List<RiderRun> flush() {
+        return buildBatches(Long.MAX_VALUE - windowMillis);
+    }
+
+    private RiderRun buildRun(PendingDelivery seed, ArrayList<PendingDelivery> candidates) {
+        candidates.clear();
+        long row = seed.cell >> 32;
+        long col = (int) seed.cell;
+        // Cells are square in degrees, so away from the equator they are narrower
+        // than the radius east-west and more columns have to be searched
+        long span = (long) Math.ceil(1 / Math.cos(Math.toRadians(seed.latitude)));
+        for (long dr = -1; dr <= 1; dr++) {
+            for (long dc = -span; dc <= span; dc++) {
+                ArrayList<PendingDelivery> bucket = grid.get(packCell(row + dr, col + dc));
+                if (bucket == null) {
+                    continue;
+                }
+                for (PendingDelivery p : bucket) {
+                    if (!p.assigned && p != seed
+                            && distanceKm(seed.latitude, seed.longitude, p.latitude, p.longitude) <= radiusKm) {
+                        candidates.add(p);
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(
+                p -> distanceKm(seed.latitude, seed.longitude, p.latitude, p.longitude)));
+
+        ArrayList<PendingDelivery> stops = new ArrayList<>();
+        stops.add(seed);
+        for (int i = 0; i < candidates.size() && stops.size() < riderCapacity; i++) {
+            stops.add(candidates.get(i));
+        }
+        for (PendingDelivery stop : stops) {
+            stop.assigned = true;
+            ArrayList<PendingDelivery> bucket = grid.get(stop.cell);
+            bucket.remove(stop);
+            if (bucket.isEmpty()) {
+                grid.remove(stop.cell);
+            }
+        }
+
+        // Nearest-neighbour drop-off order starting from the seed
+        ArrayList<Order> route = new ArrayList<>();
+        double travelled = 0;
+        PendingDelivery current = seed;
+        route.add(seed.order);
+        stops.remove(0);
+        while (!stops.isEmpty()) {
+            int nearest = 0;
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < stops.size(); i++) {
+                double d = distanceKm(current.latitude, current.longitude,
+                                      stops.get(i).latitude, stops.get(i).longitude);
+                if (d < best) {
+                    best = d;
+                    nearest = i;
+                }
+            }
+            current = stops.remove(nearest);
+            travelled += best;
+            route.add(current.order);
+        }
+        return new RiderRun(route, travelled);
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return packCell((long) Math.floor(latitude / cellDegrees), (long) Math.floor(longitude / cellDegrees));
+    }
+
+    private static long packCell(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Equirectangular approximation - accurate to well under 1% at city scale
+     */
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * 6371.0;
+    }
+}
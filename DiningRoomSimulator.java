@@ -0,0 +1,624 @@
+package restaurantsystem;
+
+import java.util.*;
+
+/**
+ * Dining Room Simulator - discrete-event model of the floor for comparing
+ * seating policies offline.
+ *
+ * Parties arrive on an hourly curve with sampled sizes, modes and dwell times,
+ * and are seated through the real Table.firstFit / Table.bestFit, FloorPlan,
+ * ReservationBook and Waitlist logic. Each run builds its own tables, wired
+ * to its own waitlist on the simulated clock, so nothing outside it sees the
+ * simulated seating. Every policy is run against the same
+ * arrival stream (same seed), and the report compares table utilisation, wait
+ * times and turned-away parties. Time is simulated, so a month runs in well
+ * under a second. Usage:
+ *
+ *   java restaurantsystem.DiningRoomSimulator days=30 peakRate=40 tables=2:6,4:10,6:3,8:1
+ *        sizes=1:10,2:35,3:15,4:20,5:8,6:7,8:3,10:2 dwell=DINE_IN:60,TAKEAWAY:10
+ *        policy=BEST_FIT hold=true merge=true
+ *
+ * Without policy/hold/merge every combination is simulated.
+ */
+public class DiningRoomSimulator {
+    /**
+     * Parties per hour of day, relative to the busiest hour
+     */
+    private static final double[] DEFAULT_DINING_CURVE = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0.05, 0.10, 0.15, 0.40,
+            0.90, 1.00, 0.60, 0.25, 0.20, 0.35, 0.70, 0.95, 0.90, 0.55, 0.20, 0};
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    /**
+     * How a walk-in picks among free tables
+     */
+    public enum SeatingPolicy {
+        FIRST_FIT,
+        BEST_FIT
+    }
+
+    // ==================== CONFIGURATION ====================
+
+    private int days = 30;
+    private double peakPartiesPerHour = 40;
+    private double[] dailyCurve = DEFAULT_DINING_CURVE;
+    private final TreeMap<Integer, Integer> tableMix = new TreeMap<>();
+    private final TreeMap<Integer, Double> partySizes = new TreeMap<>();
+    private final EnumMap<Systemmode, Double> modeMix = new EnumMap<>(Systemmode.class);
+    private final EnumMap<Systemmode, Double> dwellMinutes = new EnumMap<>(Systemmode.class);
+    private double reservedShare = 0.2;
+    private double patienceMinutes = 25;
+    private int columns = 5;
+    private long seed = 42;
+
+    public DiningRoomSimulator() {
+        tableMix.put(2, 6);
+        tableMix.put(4, 10);
+        tableMix.put(6, 3);
+        tableMix.put(8, 1);
+        partySizes.put(1, 10.0);
+        partySizes.put(2, 35.0);
+        partySizes.put(3, 15.0);
+        partySizes.put(4, 20.0);
+        partySizes.put(5, 8.0);
+        partySizes.put(6, 7.0);
+        partySizes.put(8, 3.0);
+        partySizes.put(10, 2.0);
+        // Online deliveries never use a table, so only these two modes are seated
+        modeMix.put(Systemmode.DINE_IN, 8.0);
+        modeMix.put(Systemmode.TAKEAWAY, 2.0);
+        dwellMinutes.put(Systemmode.DINE_IN, 60.0);
+        dwellMinutes.put(Systemmode.TAKEAWAY, 10.0);
+    }
+
+    public void setDays(int days) { this.days = positive(days, "days"); }
+    public void setPeakPartiesPerHour(double rate) { this.peakPartiesPerHour = rate; }
+    public void setReservedShare(double share) { this.reservedShare = share; }
+    public void setPatienceMinutes(double minutes) { this.patienceMinutes = minutes; }
+    public void setColumns(int columns) { this.columns = positive(columns, "columns"); }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public void setDailyCurve(double[] curve) {
+        if (curve.length != 24) {
+            throw new IllegalArgumentException("Daily curve needs 24 hourly weights");
+        }
+        this.dailyCurve = curve.clone();
+    }
+
+    public void setTableMix(Map<Integer, Integer> capacityCounts) {
+        tableMix.clear();
+        tableMix.putAll(capacityCounts);
+    }
+
+    public void setPartySizes(Map<Integer, Double> weights) {
+        partySizes.clear();
+        partySizes.putAll(weights);
+    }
+
+    public void setModeWeight(Systemmode mode, double weight) {
+        if (mode == Systemmode.ONLINE_DELIVERY) {
+            throw new IllegalArgumentException("Online deliveries are not seated");
+        }
+        modeMix.put(mode, weight);
+    }
+
+    public void setDwellMinutes(Systemmode mode, double minutes) {
+        dwellMinutes.put(mode, minutes);
+    }
+
+    private static int positive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be greater than 0");
+        }
+        return value;
+    }
+
+    // ==================== WORKLOAD ====================
+
+    /**
+     * One party in the simulated stream; the same parties are replayed for every policy
+     */
+    private static final class Party {
+        final int id;
+        final Systemmode mode;
+        final int size;
+        final long arrivalMillis;
+        final long dwellMillis;
+        final long patienceMillis;
+        final boolean wantsReservation;
+        ReservationBook.Reservation reservation;
+        long ticket;
+        List<Table> seatedAt;
+
+        Party(int id, Systemmode mode, int size, long arrivalMillis, long dwellMillis,
+              long patienceMillis, boolean wantsReservation) {
+            this.id = id;
+            this.mode = mode;
+            this.size = size;
+            this.arrivalMillis = arrivalMillis;
+            this.dwellMillis = dwellMillis;
+            this.patienceMillis = patienceMillis;
+            this.wantsReservation = wantsReservation;
+        }
+    }
+
+    private enum EventKind {
+        ARRIVAL,
+        DEPARTURE,
+        RENEGE
+    }
+
+    private static final class Event {
+        final long timeMillis;
+        final long sequence;
+        final EventKind kind;
+        final Party party;
+
+        Event(long timeMillis, long sequence, EventKind kind, Party party) {
+            this.timeMillis = timeMillis;
+            this.sequence = sequence;
+            this.kind = kind;
+            this.party = party;
+        }
+    }
+
+    /**
+     * The party stream for the whole run, independent of policy
+     */
+    private List<Party> generateParties() {
+        Random random = new Random(seed);
+        double[] curve = dailyCurve;
+        List<Party> parties = new ArrayList<>();
+        int id = 0;
+        for (int day = 0; day < days; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                double rate = peakPartiesPerHour * curve[hour];
+                if (rate <= 0) {
+                    continue;
+                }
+                // Poisson arrivals within the hour
+                long t = day * DAY + hour * HOUR + (long) (exponential(random, HOUR / rate));
+                while (t < day * DAY + (hour + 1) * HOUR) {
+                    Systemmode mode = pick(modeMix, random);
+                    int size = pick(partySizes, random);
+                    double meanDwell = dwellMinutes.getOrDefault(mode, 60.0) * MINUTE;
+                    // Log-normal dwell with the configured mean
+                    long dwell = (long) (meanDwell * Math.exp(0.35 * random.nextGaussian() - 0.35 * 0.35 / 2));
+                    long patience = (long) exponential(random, patienceMinutes * MINUTE);
+                    boolean reserved = mode == Systemmode.DINE_IN && random.nextDouble() < reservedShare;
+                    parties.add(new Party(id++, mode, size, t, Math.max(MINUTE, dwell), patience, reserved));
+                    t += (long) exponential(random, HOUR / rate);
+                }
+            }
+        }
+        return parties;
+    }
+
+    // ==================== SIMULATION ====================
+
+    /**
+     * Outcome of one policy over the whole run
+     */
+    public static final class Result {
+        final String label;
+        int arrived;
+        int seated;
+        int turnedAway;
+        int tooLarge;
+        int standing;   // takeaway parties that found no table and waited standing
+        int merges;
+        int reservationsBooked;
+        int reservationsHonoured;
+        long totalWaitMillis;
+        long maxWaitMillis;
+        double tableBusyMillis;
+        double seatBusyMillis;
+        double tableCapacityMillis;
+        double seatCapacityMillis;
+
+        Result(String label) {
+            this.label = label;
+        }
+
+        public double getTableUtilisation() { return tableBusyMillis / tableCapacityMillis; }
+        public double getSeatUtilisation() { return seatBusyMillis / seatCapacityMillis; }
+        public double getAverageWaitMinutes() { return seated == 0 ? 0 : totalWaitMillis / (double) seated / MINUTE; }
+        public int getStanding() { return standing; }
+        public int getTurnedAway() { return turnedAway + tooLarge; }
+    }
+
+    /**
+     * One simulated floor running one policy
+     */
+    private final class Run {
+        final SeatingPolicy policy;
+        final boolean holdForReservations;
+        final boolean mergeTables;
+        final ArrayList<Table> tables = new ArrayList<>();
+        final ReservationBook reservations;
+        final FloorPlan floorPlan;
+        final Waitlist waitlist = new Waitlist();
+        final HashMap<Long, Party> waitingByTicket = new HashMap<>();
+        final ArrayDeque<Table> calledTables = new ArrayDeque<>();
+        long[] seatedSince;
+        final PriorityQueue<Event> events = new PriorityQueue<>((e1, e2) -> {
+            int cmp = Long.compare(e1.timeMillis, e2.timeMillis);
+            return cmp != 0 ? cmp : Long.compare(e1.sequence, e2.sequence);
+        });
+        final Result result;
+        final int largestMerge;
+        long sequence;
+        long now;
+        int bookingCursor;
+
+        Run(SeatingPolicy policy, boolean holdForReservations, boolean mergeTables) {
+            this.policy = policy;
+            this.holdForReservations = holdForReservations;
+            this.mergeTables = mergeTables;
+            this.result = new Result(policy + (holdForReservations ? " +hold" : "") + (mergeTables ? " +merge" : ""));
+            // Mixed sizes around the room, the same layout for every policy
+            List<Integer> layout = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> mix : tableMix.entrySet()) {
+                layout.addAll(Collections.nCopies(mix.getValue(), mix.getKey()));
+            }
+            Collections.shuffle(layout, new Random(seed));
+            seatedSince = new long[layout.size()];
+            Table.SeatListener seating = new Table.SeatListener() {
+                @Override
+                public void seated(Table table) {
+                    waitlist.onSeated(table);
+                    seatedSince[table.getTableNumber() - 1] = now;
+                }
+
+                @Override
+                public void released(Table table, long seatedNanos) {
+                    // Seat time on the simulated clock, not the wall clock
+                    long seatMillis = now - seatedSince[table.getTableNumber() - 1];
+                    if (waitlist.onReleased(table, seatMillis, isHeld(table, Systemmode.DINE_IN)) != null) {
+                        calledTables.add(table);
+                    }
+                }
+            };
+            for (int i = 0; i < layout.size(); i++) {
+                Table table = new Table(i + 1, layout.get(i), Table.TableStatus.AVAILABLE);
+                table.setSeatListener(seating);
+                tables.add(table);
+            }
+            reservations = new ReservationBook(tables);
+            floorPlan = FloorPlan.grid(tables, columns);
+            int largestTable = tableMix.lastKey();
+            // Upper bound on what merging could ever seat: the biggest tables pushed together
+            int mergeable = 0;
+            List<Integer> capacities = new ArrayList<>();
+            for (Table table : tables) {
+                capacities.add(table.getCapacity());
+            }
+            capacities.sort(Collections.reverseOrder());
+            for (int i = 0; i < Math.min(FloorPlan.DEFAULT_MAX_MERGE, capacities.size()); i++) {
+                mergeable += capacities.get(i);
+            }
+            largestMerge = mergeTables ? mergeable : largestTable;
+        }
+
+        Result simulate(List<Party> parties) {
+            int day = -1;
+            for (Party party : parties) {
+                schedule(party.arrivalMillis, EventKind.ARRIVAL, party);
+            }
+            while (!events.isEmpty()) {
+                Event event = events.poll();
+                now = event.timeMillis;
+                if (now / DAY != day) {
+                    day = (int) (now / DAY);
+                    bookDay(parties, day);
+                }
+                switch (event.kind) {
+                    case ARRIVAL -> arrive(event.party);
+                    case DEPARTURE -> depart(event.party);
+                    case RENEGE -> renege(event.party);
+                }
+            }
+            long span = Math.max(1, now);
+            int seats = 0;
+            for (Table table : tables) {
+                seats += table.getCapacity();
+            }
+            result.tableCapacityMillis = (double) tables.size() * span;
+            result.seatCapacityMillis = (double) seats * span;
+            return result;
+        }
+
+        /**
+         * Bookings for the day are made when it starts, before any of its walk-ins arrive
+         */
+        private void bookDay(List<Party> parties, int day) {
+            long to = (day + 1) * DAY;
+            while (bookingCursor < parties.size() && parties.get(bookingCursor).arrivalMillis < to) {
+                Party party = parties.get(bookingCursor++);
+                if (!party.wantsReservation) {
+                    continue;
+                }
+                long expected = (long) (dwellMinutes.get(party.mode) * MINUTE);
+                party.reservation = reservations.book("Party " + party.id, party.size,
+                                                      party.arrivalMillis, party.arrivalMillis + expected);
+                if (party.reservation != null) {
+                    result.reservationsBooked++;
+                }
+            }
+        }
+
+        private void arrive(Party party) {
+            result.arrived++;
+            if (party.size > largestMerge) {
+                result.tooLarge++;
+                return;
+            }
+            List<Table> seating = null;
+            if (party.reservation != null) {
+                Table booked = tables.get(party.reservation.getTableNumber() - 1);
+                if (booked.isAvailable()) {
+                    seating = List.of(booked);
+                    result.reservationsHonoured++;
+                }
+                reservations.cancel(party.reservation.getReservationId());
+            }
+            if (seating == null) {
+                seating = findSeating(party);
+            }
+            if (seating != null) {
+                seat(party, seating);
+                return;
+            }
+            // Takeaway customers just stand and wait for their food
+            if (party.mode == Systemmode.TAKEAWAY) {
+                result.standing++;
+                return;
+            }
+            Waitlist.Party ticket = waitlist.join("Party " + party.id, party.size, now);
+            party.ticket = ticket.getTicket();
+            waitingByTicket.put(party.ticket, party);
+            schedule(now + party.patienceMillis, EventKind.RENEGE, party);
+        }
+
+        private List<Table> findSeating(Party party) {
+            ArrayList<Table> eligible = new ArrayList<>(tables.size());
+            for (Table table : tables) {
+                if (table.isAvailable() && isEligible(table, party)) {
+                    eligible.add(table);
+                }
+            }
+            Table single = policy == SeatingPolicy.BEST_FIT
+                    ? Table.bestFit(eligible, party.size)
+                    : Table.firstFit(eligible, party.size);
+            if (single != null) {
+                return List.of(single);
+            }
+            if (mergeTables) {
+                List<Table> merged = floorPlan.allocate(party.size, table -> isEligible(table, party));
+                if (merged != null && merged.size() > 1) {
+                    result.merges++;
+                }
+                return merged;
+            }
+            return null;
+        }
+
+        private boolean isEligible(Table table, Party party) {
+            return !isHeld(table, party.mode);
+        }
+
+        /**
+         * Is the table kept for a booking that starts before a party of this mode would leave?
+         * Waitlist parties are all dine-in, so released tables are checked with that stay.
+         */
+        private boolean isHeld(Table table, Systemmode mode) {
+            return holdForReservations
+                    && reservations.isHeld(table, now, (long) (dwellMinutes.get(mode) * MINUTE));
+        }
+
+        private void seat(Party party, List<Table> seating) {
+            party.seatedAt = seating;
+            int seats = 0;
+            for (Table table : seating) {
+                table.assignTable();
+                seats += table.getCapacity();
+            }
+            long wait = now - party.arrivalMillis;
+            result.seated++;
+            result.totalWaitMillis += wait;
+            result.maxWaitMillis = Math.max(result.maxWaitMillis, wait);
+            result.tableBusyMillis += (double) seating.size() * party.dwellMillis;
+            result.seatBusyMillis += (double) Math.min(party.size, seats) * party.dwellMillis;
+            schedule(now + party.dwellMillis, EventKind.DEPARTURE, party);
+        }
+
+        private void depart(Party party) {
+            for (Table table : party.seatedAt) {
+                table.releaseTable();
+            }
+            Table table;
+            while ((table = calledTables.poll()) != null) {
+                Waitlist.Party called = waitlist.claim(table);
+                if (called != null) {
+                    seat(waitingByTicket.remove(called.getTicket()), List.of(table));
+                }
+            }
+            if (mergeTables) {
+                seatWaitingLargeParties();
+            }
+        }
+
+        /**
+         * The waitlist only matches single tables, so retry merges for whoever is left
+         */
+        private void seatWaitingLargeParties() {
+            for (Waitlist.Party waiting : waitlist.getWaitingParties()) {
+                Party party = waitingByTicket.get(waiting.getTicket());
+                List<Table> merged = floorPlan.allocate(party.size, table -> isEligible(table, party));
+                if (merged != null && waitlist.leave(waiting.getTicket())) {
+                    waitingByTicket.remove(waiting.getTicket());
+                    if (merged.size() > 1) {
+                        result.merges++;
+                    }
+                    seat(party, merged);
+                }
+            }
+        }
+
+        private void renege(Party party) {
+            if (party.seatedAt == null && waitlist.leave(party.ticket)) {
+                waitingByTicket.remove(party.ticket);
+                result.turnedAway++;
+            }
+        }
+
+        private void schedule(long timeMillis, EventKind kind, Party party) {
+            events.add(new Event(timeMillis, sequence++, kind, party));
+        }
+    }
+
+    /**
+     * Simulate one policy
+     */
+    public Result simulate(SeatingPolicy policy, boolean holdForReservations, boolean mergeTables) {
+        EventLog.Level previousLevel = EventLog.getLevel();
+        EventLog.setLevel(EventLog.Level.OFF);
+        try {
+            return new Run(policy, holdForReservations, mergeTables).simulate(generateParties());
+        } finally {
+            EventLog.setLevel(previousLevel);
+        }
+    }
+
+    // ==================== REPORTING ====================
+
+    public String report(List<Result> results, long elapsedNanos) {
+        StringBuilder sb = new StringBuilder();
+        int tableCount = 0;
+        for (int count : tableMix.values()) {
+            tableCount += count;
+        }
+        sb.append("\n").append("=".repeat(123)).append("\n");
+        sb.append("                                              DINING ROOM SIMULATION\n");
+        sb.append("=".repeat(123)).append("\n");
+        sb.append(String.format("Days: %d | Tables: %d %s | Peak: %.0f parties/h | Reserved share: %.0f%% | %.2f s wall%n",
+                days, tableCount, tableMix, peakPartiesPerHour, reservedShare * 100, elapsedNanos / 1e9));
+        sb.append("-".repeat(123)).append("\n");
+        sb.append(String.format("%-24s | %8s | %8s | %8s | %8s | %9s | %9s | %9s | %9s | %7s | %8s%n",
+                "Policy", "Arrived", "Seated", "Standing", "Turned", "Table %", "Seat %", "Avg wait", "Max wait",
+                "Merges", "Resv ok"));
+        sb.append("-".repeat(123)).append("\n");
+        for (Result r : results) {
+            sb.append(String.format("%-24s | %8d | %8d | %8d | %8d | %8.1f%% | %8.1f%% | %7.1fm | %7.1fm | %7d | %4d/%-4d%n",
+                    r.label, r.arrived, r.seated, r.standing, r.getTurnedAway(),
+                    r.getTableUtilisation() * 100, r.getSeatUtilisation() * 100,
+                    r.getAverageWaitMinutes(), r.maxWaitMillis / (double) MINUTE,
+                    r.merges, r.reservationsHonoured, r.reservationsBooked));
+        }
+        sb.append("=".repeat(123)).append("\n");
+        sb.append("Standing = takeaway parties served without a table; Turned = gave up waiting or too large to seat;\n");
+        sb.append("Arrived = Seated + Standing + Turned (+ still waiting at the end); Resv ok = booked parties seated at their table\n");
+        return sb.toString();
+    }
+
+    // ==================== SAMPLING HELPERS ====================
+
+    private static double exponential(Random random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private static <K> K pick(Map<K, Double> weights, Random random) {
+        double total = 0;
+        for (double w : weights.values()) {
+            total += w;
+        }
+        double r = random.nextDouble() * total;
+        K last = null;
+        for (Map.Entry<K, Double> entry : weights.entrySet()) {
+            last = entry.getKey();
+            r -= entry.getValue();
+            if (r < 0) {
+                break;
+            }
+        }
+        return last;
+    }
+
+    // ==================== COMMAND LINE ====================
+
+    public static void main(String[] args) {
+        DiningRoomSimulator simulator = new DiningRoomSimulator();
+        List<SeatingPolicy> policies = List.of(SeatingPolicy.values());
+        List<Boolean> holds = List.of(false, true);
+        List<Boolean> merges = List.of(false, true);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.out.println("❌ Expected key=value, got: " + arg);
+                return;
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "days" -> simulator.setDays(Integer.parseInt(value));
+                case "peakRate" -> simulator.setPeakPartiesPerHour(Double.parseDouble(value));
+                case "reserved" -> simulator.setReservedShare(Double.parseDouble(value));
+                case "patience" -> simulator.setPatienceMinutes(Double.parseDouble(value));
+                case "columns" -> simulator.setColumns(Integer.parseInt(value));
+                case "seed" -> simulator.setSeed(Long.parseLong(value));
+                case "curve" -> simulator.setDailyCurve(Arrays.stream(value.split(","))
+                        .mapToDouble(Double::parseDouble).toArray());
+                case "tables" -> {
+                    TreeMap<Integer, Integer> mix = new TreeMap<>();
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        mix.put(Integer.parseInt(kv[0]), Integer.parseInt(kv[1]));
+                    }
+                    simulator.setTableMix(mix);
+                }
+                case "sizes" -> {
+                    TreeMap<Integer, Double> sizes = new TreeMap<>();
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        sizes.put(Integer.parseInt(kv[0]), Double.parseDouble(kv[1]));
+                    }
+                    simulator.setPartySizes(sizes);
+                }
+                case "mix" -> {
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        simulator.setModeWeight(Systemmode.valueOf(kv[0]), Double.parseDouble(kv[1]));
+                    }
+                }
+                case "dwell" -> {
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        simulator.setDwellMinutes(Systemmode.valueOf(kv[0]), Double.parseDouble(kv[1]));
+                    }
+                }
+                case "policy" -> policies = List.of(SeatingPolicy.valueOf(value));
+                case "hold" -> holds = List.of(Boolean.parseBoolean(value));
+                case "merge" -> merges = List.of(Boolean.parseBoolean(value));
+                default -> {
+                    System.out.println("❌ Unknown option: " + key);
+                    return;
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Result> results = new ArrayList<>();
+        for (SeatingPolicy policy : policies) {
+            for (boolean hold : holds) {
+                for (boolean merge : merges) {
+                    results.add(simulator.simulate(policy, hold, merge));
+                }
+            }
+        }
+        System.out.println(simulator.report(results, System.nanoTime() - start));
+    }
+}
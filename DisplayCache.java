@@ -0,0 +1,61 @@
+package restaurantsystem;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.function.Supplier;
+
+/**
+ * Display cache - one screen rendered into console bytes and reused until the
+ * data behind it changes.
+ *
+ * The owner passes a version that moves whenever the screen would look
+ * different (menu version, table status version); while it stays the same a
+ * view is a single write of the cached bytes.
+ */
+public final class DisplayCache {
+    /**
+     * Encoding of the console, so cached bytes print exactly like println would
+     */
+    static final Charset CONSOLE_CHARSET = consoleCharset();
+
+    private long renderedVersion = -1;
+    private byte[] rendered;
+
+    /**
+     * Cached bytes for the given version, rendering them first if the version moved
+     */
+    public synchronized byte[] get(long version, Supplier<String> render) {
+        if (rendered == null || renderedVersion != version) {
+            rendered = render.get().getBytes(CONSOLE_CHARSET);
+            renderedVersion = version;
+        }
+        return rendered;
+    }
+
+    public synchronized void invalidate() {
+        rendered = null;
+    }
+
+    /**
+     * Print a cached screen to System.out with one write
+     */
+    public static void print(byte[] screen) {
+        PrintStream out = System.out;
+        out.write(screen, 0, screen.length);
+        out.flush();
+    }
+
+    private static Charset consoleCharset() {
+        for (String property : new String[] {"stdout.encoding", "sun.stdout.encoding"}) {
+            String encoding = System.getProperty(property);
+            if (encoding != null) {
+                try {
+                    return Charset.forName(encoding);
+                } catch (IllegalArgumentException e) {
+                    // Try the next source, as System.out itself does
+                }
+            }
+        }
+        return Charset.defaultCharset();
+    }
+}
@@ -0,0 +1,420 @@
+package restaurantsystem;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event log - structured replacement for System.out.println on the hot paths.
+ *
+ * Callers publish typed events onto a lock-free queue and return immediately; a
+ * single background thread drains the queue, formats each batch into one reused
+ * buffer and writes it to the console or a file with one call. The level can be
+ * changed at runtime, and at OFF a call is a single volatile read. If the sink
+ * cannot keep up, events beyond MAX_QUEUED are dropped and the count is logged.
+ *
+ * Defaults come from -Drestaurant.log (OFF, ERROR, WARN, INFO, DEBUG; default
+ * INFO) and -Drestaurant.log.file (console when not set).
+ */
+public final class EventLog {
+    /**
+     * Log level enum, from quietest to noisiest
+     */
+    public enum Level {
+        OFF,
+        ERROR,
+        WARN,
+        INFO,
+        DEBUG
+    }
+
+    /**
+     * Formats one event into the writer's buffer
+     */
+    @FunctionalInterface
+    interface Formatter {
+        void format(StringBuilder sb, Event e);
+    }
+
+    /**
+     * Event type enum - the level and message shape of every event
+     */
+    public enum EventType {
+        ORDER_REJECTED(Level.WARN, (sb, e) -> sb.append("❌ ").append(e.text)),
+        ORDER_LINE_ADDED(Level.INFO, (sb, e) -> sb.append("✅ Added ").append(e.text).append(" x").append(e.n)),
+        ORDER_LINE_INCREASED(Level.INFO, (sb, e) -> sb.append("✅ Updated quantity for ").append(e.text)),
+        ORDER_LINE_UPDATED(Level.INFO, (sb, e) -> sb.append("✅ Updated ").append(e.text)
+                .append(" quantity to ").append(e.n)),
+        ORDER_LINE_REMOVED(Level.INFO, (sb, e) -> sb.append("✅ Removed ").append(e.text).append(" from order")),
+        ORDER_STATUS_CHANGED(Level.INFO, (sb, e) -> sb.append("📋 Order status updated to: ").append(e.text)),
+        ORDER_PROCESSING(Level.INFO, (sb, e) -> {
+            sb.append("\n=== PROCESSING ").append(e.n > 0 ? "DINE-IN" : "TAKEAWAY").append(" ORDER ===")
+              .append("\n👔 Cashier: ").append(e.text)
+              .append("\n👤 Customer: ").append(e.detail);
+            if (e.n > 0) {
+                sb.append("\n🪑 Table: #").append(e.n);
+            }
+        }),
+        ORDER_PROCESSED(Level.INFO, (sb, e) -> sb.append("✅ ").append(e.text).append(" order processed!")
+                .append("\n📋 Order ID: ").append(e.n)
+                .append("\n💰 Total: EGP ").append(e.x)),
+        DISCOUNT_APPLIED(Level.INFO, (sb, e) -> sb.append("✅ Discounts applied: EGP ").append(money(e.x))),
+        SURCHARGE_APPLIED(Level.INFO, (sb, e) -> sb.append("➕ Surcharge applied: EGP ").append(money(e.x))),
+        ELITE_EXPIRED(Level.INFO, (sb, e) -> {
+            sb.append("⚠️ Elite membership expired.");
+            if (e.x > 0) {
+                sb.append(" Renew to get ").append(percent(e.x)).append("% discount!");
+            }
+        }),
+        TABLE_ASSIGNED(Level.INFO, (sb, e) -> sb.append("✅ Table ").append(e.n).append(" assigned.")),
+        TABLE_ALREADY_OCCUPIED(Level.WARN, (sb, e) -> sb.append("❌ Table ").append(e.n)
+                .append(" is already occupied.")),
+        TABLE_RELEASED(Level.INFO, (sb, e) -> sb.append("✅ Table ").append(e.n).append(" is now available.")),
+        WAITLIST_CALLED(Level.INFO, (sb, e) -> sb.append("📣 Table ").append(e.n).append(" is ready for ")
+                .append(e.text).append(" (party of ").append(e.m).append(")")),
+        PAYMENT_VALIDATED(Level.INFO, (sb, e) -> sb.append("✅ Payment validated.")),
+        PAYMENT_INSUFFICIENT(Level.WARN, (sb, e) -> sb.append("❌ Insufficient payment! Required: EGP ")
+                .append(e.x).append(", Provided: EGP ").append(e.y)),
+        PAYMENT_COMPLETED(Level.INFO, (sb, e) -> sb.append("✅ Payment of EGP ").append(e.x)
+                .append(" via ").append(e.text).append(" completed!")),
+        PAYMENT_CHANGE(Level.INFO, (sb, e) -> sb.append("💰 Change: EGP ").append(money(e.x))),
+        PAYMENT_FAILED(Level.WARN, (sb, e) -> sb.append("❌ Payment failed!")),
+        PAYMENT_JOURNAL_FAILED(Level.ERROR, (sb, e) -> sb.append("❌ Could not write payment journal: ")
+                .append(e.text)),
+        MENU_ITEM_ADDED(Level.INFO, (sb, e) -> sb.append("✅ ").append(e.text).append(" added to menu!")),
+        MENU_ITEM_REMOVED(Level.INFO, (sb, e) -> sb.append("✅ ").append(e.text).append(" removed from menu.")),
+        MENU_REJECTED(Level.WARN, (sb, e) -> sb.append("❌ Error: ").append(e.text)),
+        DINE_IN_RECORDED(Level.INFO, (sb, e) -> sb.append("📈 Dine-in recorded! Total: ").append(e.n)),
+        ELITE_ELIGIBLE(Level.INFO, (sb, e) -> sb.append("🎉 You're eligible for Elite membership!")),
+        REPLICATION_LOST(Level.ERROR, (sb, e) -> sb.append("⚠️ Standby replication stopped: ").append(e.text)),
+        ORDERS_EXPORTED(Level.INFO, (sb, e) -> sb.append("📤 Exported ").append(e.n).append(" orders to ")
+                .append(e.text)),
+        EXPORT_FAILED(Level.ERROR, (sb, e) -> sb.append("⚠️ Order export failed: ").append(e.text)),
+        RECEIPT_ARCHIVE_FAILED(Level.ERROR, (sb, e) -> sb.append("⚠️ Could not archive receipt for order #")
+                .append(e.n).append(": ").append(e.text));
+
+        private final Level level;
+        private final Formatter formatter;
+
+        EventType(Level level, Formatter formatter) {
+            this.level = level;
+            this.formatter = formatter;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+    }
+
+    /**
+     * One published event; the slots used depend on the type. Only strings and
+     * numbers are carried, captured when the event is logged, so the writer never
+     * reads a domain object that may have changed since.
+     */
+    public static final class Event {
+        final EventType type;
+        final long timestampMillis;
+        final String text;
+        final String detail;
+        final long n;
+        final long m;
+        final double x;
+        final double y;
+
+        Event(EventType type, String text, String detail, long n, long m, double x, double y) {
+            this.type = type;
+            this.timestampMillis = System.currentTimeMillis();
+            this.text = text;
+            this.detail = detail;
+            this.n = n;
+            this.m = m;
+            this.x = x;
+            this.y = y;
+        }
+
+        public EventType getType() { return type; }
+        public long getTimestampMillis() { return timestampMillis; }
+    }
+
+    private static final int MAX_BATCH = 512;
+    /** Events waiting for the writer beyond this are dropped (and counted) */
+    private static final int MAX_QUEUED = 64 * 1024;
+
+    private static final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong published = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile int levelOrdinal;
+    private static volatile boolean writerIdle;
+    private static volatile Thread writer;
+    private static Writer fileSink;
+    private static PrintStream consoleSink = System.out;
+
+    static {
+        Level level = Level.INFO;
+        String configured = System.getProperty("restaurant.log");
+        if (configured != null) {
+            try {
+                level = Level.valueOf(configured.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("⚠️ Unknown log level '" + configured + "', using INFO");
+            }
+        }
+        String file = System.getProperty("restaurant.log.file");
+        if (file != null && !file.isBlank()) {
+            try {
+                logToFile(Paths.get(file));
+            } catch (IOException e) {
+                System.out.println("⚠️ Cannot open log file " + file + ", logging to console");
+            }
+        }
+        levelOrdinal = level.ordinal();
+    }
+
+    private EventLog() {
+    }
+
+    // ==================== CONFIGURATION ====================
+
+    public static Level getLevel() {
+        return Level.values()[levelOrdinal];
+    }
+
+    public static void setLevel(Level level) {
+        levelOrdinal = level.ordinal();
+    }
+
+    public static boolean isEnabled(EventType type) {
+        return type.level.ordinal() <= levelOrdinal && type.level != Level.OFF;
+    }
+
+    /**
+     * Append events to a file instead of the console
+     */
+    public static void logToFile(Path file) throws IOException {
+        flush();
+        Writer sink = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        Writer previous;
+        synchronized (EventLog.class) {
+            previous = fileSink;
+            fileSink = sink;
+        }
+        closeQuietly(previous);
+    }
+
+    /**
+     * Write events to the given console stream (System.out by default)
+     */
+    public static void logToConsole(PrintStream console) {
+        flush();
+        Writer previous;
+        synchronized (EventLog.class) {
+            previous = fileSink;
+            fileSink = null;
+            consoleSink = console;
+        }
+        closeQuietly(previous);
+    }
+
+    // ==================== PUBLISHING ====================
+
+    public static void log(EventType type) {
+        if (isEnabled(type)) {
+            publish(new Event(type, null, null, 0, 0, 0, 0));
+        }
+    }
+
+    public static void log(EventType type, String text) {
+        if (isEnabled(type)) {
+            publish(new Event(type, text, null, 0, 0, 0, 0));
+        }
+    }
+
+    public static void log(EventType type, long n) {
+        if (isEnabled(type)) {
+            publish(new Event(type, null, null, n, 0, 0, 0));
+        }
+    }
+
+    public static void log(EventType type, String text, long n) {
+        if (isEnabled(type)) {
+            publish(new Event(type, text, null, n, 0, 0, 0));
+        }
+    }
+
+    public static void log(EventType type, String text, long n, long m) {
+        if (isEnabled(type)) {
+            publish(new Event(type, text, null, n, m, 0, 0));
+        }
+    }
+
+    public static void log(EventType type, double x) {
+        if (isEnabled(type)) {
+            publish(new Event(type, null, null, 0, 0, x, 0));
+        }
+    }
+
+    public static void log(EventType type, String text, double x) {
+        if (isEnabled(type)) {
+            publish(new Event(type, text, null, 0, 0, x, 0));
+        }
+    }
+
+    public static void log(EventType type, double x, double y) {
+        if (isEnabled(type)) {
+            publish(new Event(type, null, null, 0, 0, x, y));
+        }
+    }
+
+    public static void log(EventType type, String text, long n, double x) {
+        if (isEnabled(type)) {
+            publish(new Event(type, text, null, n, 0, x, 0));
+        }
+    }
+
+    public static void log(EventType type, String text, String detail, long n) {
+        if (isEnabled(type)) {
+            publish(new Event(type, text, detail, n, 0, 0, 0));
+        }
+    }
+
+    private static void publish(Event event) {
+        Thread w = writer;
+        if (w == null) {
+            w = startWriter();
+        }
+        if (published.get() - written.get() >= MAX_QUEUED) {
+            // The writer is far behind (slow sink): shed load rather than grow without bound
+            dropped.incrementAndGet();
+            LockSupport.unpark(w);
+            return;
+        }
+        queue.offer(event);
+        published.incrementAndGet();
+        if (writerIdle) {
+            LockSupport.unpark(w);
+        }
+    }
+
+    /**
+     * Block until every event published so far has been written
+     */
+    public static void flush() {
+        long target = published.get();
+        Thread w = writer;
+        while (written.get() < target && w != null && w.isAlive()) {
+            LockSupport.unpark(w);
+            Thread.onSpinWait();
+        }
+    }
+
+    // ==================== BACKGROUND WRITER ====================
+
+    private static Thread startWriter() {
+        synchronized (queue) {
+            if (writer != null) {
+                return writer;
+            }
+            Thread t = new Thread(EventLog::drainLoop, "event-log-writer");
+            t.setDaemon(true);
+            t.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "event-log-flush"));
+            writer = t;
+            return t;
+        }
+    }
+
+    private static void drainLoop() {
+        StringBuilder batch = new StringBuilder(16 * 1024);
+        while (true) {
+            Event event = queue.poll();
+            if (event == null) {
+                writerIdle = true;
+                // Re-check after announcing idleness so a concurrent publish is not missed
+                if (queue.isEmpty()) {
+                    LockSupport.parkNanos(10_000_000L);
+                }
+                writerIdle = false;
+                continue;
+            }
+
+            int count = 0;
+            batch.setLength(0);
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                batch.append("⚠️ Event log fell behind, dropped ").append(lost).append(" events")
+                     .append(System.lineSeparator());
+            }
+            try {
+                synchronized (EventLog.class) {
+                    boolean toFile = fileSink != null;
+                    do {
+                        count++;
+                        if (toFile) {
+                            batch.append(Instant.ofEpochMilli(event.timestampMillis)).append(' ')
+                                 .append(event.type.level).append(' ').append(event.type).append(' ');
+                        }
+                        format(batch, event);
+                        batch.append(System.lineSeparator());
+                    } while (count < MAX_BATCH && (event = queue.poll()) != null);
+
+                    try {
+                        if (toFile) {
+                            fileSink.append(batch);
+                            fileSink.flush();
+                        } else {
+                            consoleSink.print(batch);
+                            consoleSink.flush();
+                        }
+                    } catch (IOException e) {
+                        consoleSink.println("⚠️ Log writer failed: " + e.getMessage());
+                    }
+                }
+            } finally {
+                // Counted even if something above failed, so flush() never waits on a lost batch
+                written.addAndGet(count);
+            }
+        }
+    }
+
+    /**
+     * Format one event; a broken formatter costs that line, not the writer thread
+     */
+    private static void format(StringBuilder batch, Event event) {
+        int mark = batch.length();
+        try {
+            event.type.formatter.format(batch, event);
+        } catch (RuntimeException e) {
+            batch.setLength(mark);
+            batch.append("⚠️ Could not format ").append(event.type).append(": ").append(e);
+        }
+    }
+
+    private static void closeQuietly(Writer w) {
+        if (w != null) {
+            try {
+                w.close();
+            } catch (IOException ignored) {
+                // Nothing more can be done with a broken sink
+            }
+        }
+    }
+
+    private static String money(double amount) {
+        return String.format("%.2f", amount);
+    }
+
+    private static String percent(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format("%.1f", value);
+    }
+}
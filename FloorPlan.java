@@ -0,0 +1,305 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Floor plan - which tables stand next to each other, and merging adjacent
+ * free tables for parties too large for any single table.
+ *
+ * The allocator enumerates connected sets of free tables (each set once, grown
+ * from its lowest-numbered table through exclusive neighbours) and keeps the
+ * set with the fewest wasted seats, then the fewest tables. A set stops growing
+ * as soon as it seats the party, since adding tables only adds waste; branches
+ * that cannot reach the party size within the table limit are cut, and the
+ * search ends early once a set reaches the least waste the free capacities
+ * allow (zero, unless e.g. every free table has an even number of seats).
+ */
+public class FloorPlan {
+    public static final int DEFAULT_MAX_MERGE = 4;
+
+    private final ArrayList<Table> tables = new ArrayList<>();
+    private final HashMap<Integer, Integer> indexByNumber = new HashMap<>();
+    private final ArrayList<int[]> neighbours = new ArrayList<>();
+    private final HashMap<Integer, List<Table>> mergedByTable = new HashMap<>();
+    private final int maxMerge;
+
+    public FloorPlan() {
+        this(DEFAULT_MAX_MERGE);
+    }
+
+    public FloorPlan(int maxMerge) {
+        if (maxMerge < 1) {
+            throw new IllegalArgumentException("maxMerge must be at least 1");
+        }
+        this.maxMerge = maxMerge;
+    }
+
+    /**
+     * Tables laid out row by row, each adjacent to its left/right and front/back neighbours
+     */
+    public static FloorPlan grid(List<Table> tables, int columns) {
+        FloorPlan plan = new FloorPlan();
+        for (Table table : tables) {
+            plan.addTable(table);
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            if ((i + 1) % columns != 0 && i + 1 < tables.size()) {
+                plan.connect(tables.get(i).getTableNumber(), tables.get(i + 1).getTableNumber());
+            }
+            if (i + columns < tables.size()) {
+                plan.connect(tables.get(i).getTableNumber(), tables.get(i + columns).getTableNumber());
+            }
+        }
+        return plan;
+    }
+
+    public synchronized void addTable(Table table) {
+        if (indexByNumber.putIfAbsent(table.getTableNumber(), tables.size()) == null) {
+            tables.add(table);
+            neighbours.add(new int[0]);
+        }
+    }
+
+    /**
+     * Mark two tables as adjacent (they can be pushed together)
+     */
+    public synchronized void connect(int tableNumber1, int tableNumber2) {
+        Integer a = indexByNumber.get(tableNumber1);
+        Integer b = indexByNumber.get(tableNumber2);
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("Unknown table");
+        }
+        if (a.equals(b) || contains(neighbours.get(a), b)) {
+            return;
+        }
+        neighbours.set(a, append(neighbours.get(a), b));
+        neighbours.set(b, append(neighbours.get(b), a));
+    }
+
+    public synchronized int size() {
+        return tables.size();
+    }
+
+    // ==================== ALLOCATION ====================
+
+    /**
+     * Cheapest connected set of free tables seating the party, or null
+     */
+    public List<Table> allocate(int partySize) {
+        return allocate(partySize, table -> true);
+    }
+
+    /**
+     * Cheapest connected set of free tables seating the party, using only
+     * tables the filter accepts (e.g. not held for a reservation), or null
+     */
+    public synchronized List<Table> allocate(int partySize, Predicate<Table> eligible) {
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("Party size must be positive");
+        }
+        Search search = new Search(partySize, eligible);
+        search.run();
+        if (search.bestSize == 0) {
+            return null;
+        }
+        List<Table> chosen = new ArrayList<>(search.bestSize);
+        for (int i = 0; i < search.bestSize; i++) {
+            chosen.add(tables.get(search.best[i]));
+        }
+        return chosen;
+    }
+
+    /**
+     * Allocate and assign tables for a party; merged tables are released together
+     */
+    public List<Table> seatParty(int partySize) {
+        return seatParty(partySize, table -> true);
+    }
+
+    /**
+     * Allocate and assign tables the filter accepts (e.g. not held for a
+     * reservation) for a party, or null
+     */
+    public synchronized List<Table> seatParty(int partySize, Predicate<Table> eligible) {
+        List<Table> chosen = allocate(partySize, eligible);
+        if (chosen == null) {
+            return null;
+        }
+        for (Table table : chosen) {
+            table.assignTable();
+        }
+        if (chosen.size() > 1) {
+            for (Table table : chosen) {
+                mergedByTable.put(table.getTableNumber(), chosen);
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Release a table, together with any tables merged with it
+     */
+    public synchronized void release(Table table) {
+        List<Table> merged = mergedByTable.get(table.getTableNumber());
+        if (merged == null) {
+            table.releaseTable();
+            return;
+        }
+        for (Table member : merged) {
+            mergedByTable.remove(member.getTableNumber());
+            member.releaseTable();
+        }
+    }
+
+    /**
+     * Tables merged with the given one (including it), or just the table itself
+     */
+    public synchronized List<Table> getMergedGroup(Table table) {
+        List<Table> merged = mergedByTable.get(table.getTableNumber());
+        return merged != null ? merged : List.of(table);
+    }
+
+    /**
+     * Branch-and-bound state for one allocation
+     */
+    private final class Search {
+        final int partySize;
+        final int n = tables.size();
+        final int[] capacity = new int[n];
+        final boolean[] free = new boolean[n];
+        final int[] cover = new int[n];      // members of the current set that are, or touch, a table
+        final int[] current = new int[maxMerge];
+        final int[][] extension = new int[maxMerge + 1][];
+        final int[] best = new int[maxMerge];
+        int depth;
+        int bestSize;
+        int bestWaste = Integer.MAX_VALUE;
+        int minWaste;
+        int maxCapacity;
+
+        Search(int partySize, Predicate<Table> eligible) {
+            this.partySize = partySize;
+            int divisor = 0;
+            for (int i = 0; i < n; i++) {
+                Table table = tables.get(i);
+                free[i] = table.isAvailable() && eligible.test(table);
+                capacity[i] = table.getCapacity();
+                if (free[i]) {
+                    maxCapacity = Math.max(maxCapacity, capacity[i]);
+                    divisor = gcd(divisor, capacity[i]);
+                }
+            }
+            // Any set seats a multiple of the capacities' gcd, which bounds the waste from below
+            minWaste = divisor == 0 ? 0 : (divisor - partySize % divisor) % divisor;
+            for (int d = 0; d <= maxMerge; d++) {
+                extension[d] = new int[n];
+            }
+        }
+
+        void run() {
+            // Single tables first, so merged sets only have to beat the best fit
+            for (int i = 0; i < n; i++) {
+                if (free[i] && capacity[i] >= partySize && capacity[i] - partySize < bestWaste) {
+                    bestWaste = capacity[i] - partySize;
+                    bestSize = 1;
+                    best[0] = i;
+                }
+            }
+            for (int root = 0; root < n && !done(); root++) {
+                if (!free[root]) {
+                    continue;
+                }
+                int extSize = 0;
+                for (int u : neighbours.get(root)) {
+                    if (u > root && free[u]) {
+                        extension[1][extSize++] = u;
+                    }
+                }
+                add(root);
+                grow(root, 1, capacity[root], extSize);
+                remove(root);
+            }
+        }
+
+        private void grow(int root, int size, int seats, int extSize) {
+            if (seats >= partySize) {
+                int waste = seats - partySize;
+                if (waste < bestWaste || (waste == bestWaste && size < bestSize)) {
+                    bestWaste = waste;
+                    bestSize = size;
+                    System.arraycopy(current, 0, best, 0, size);
+                }
+                return;
+            }
+            if (size == maxMerge || seats + (maxMerge - size) * maxCapacity < partySize) {
+                return;
+            }
+            if (bestWaste == minWaste && bestSize <= size + 1) {
+                return;
+            }
+
+            int[] ext = extension[size];
+            int[] next = extension[size + 1];
+            while (extSize > 0 && !done()) {
+                int w = ext[--extSize];
+                System.arraycopy(ext, 0, next, 0, extSize);
+                int nextSize = extSize;
+                // Exclusive neighbours of w: not in the set and not next to it yet
+                for (int u : neighbours.get(w)) {
+                    if (u > root && free[u] && cover[u] == 0) {
+                        next[nextSize++] = u;
+                    }
+                }
+                add(w);
+                grow(root, size + 1, seats + capacity[w], nextSize);
+                remove(w);
+            }
+        }
+
+        /**
+         * Nothing left to improve: least possible waste with one table, or with two once singles are ruled out
+         */
+        private boolean done() {
+            return bestWaste == minWaste && bestSize <= 2;
+        }
+
+        private void add(int v) {
+            current[depth++] = v;
+            cover[v]++;
+            for (int u : neighbours.get(v)) {
+                cover[u]++;
+            }
+        }
+
+        private void remove(int v) {
+            depth--;
+            cover[v]--;
+            for (int u : neighbours.get(v)) {
+                cover[u]--;
+            }
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return grown;
+    }
+}
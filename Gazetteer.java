@@ -0,0 +1,100 @@
+package restaurantsystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+/**
+ * Gazetteer class - offline lookup table from place names to coordinates.
+ *
+ * The file has one place per line: {@code name,latitude,longitude}. The name may
+ * itself contain commas; blank lines and lines starting with '#' are ignored.
+ */
+public class Gazetteer {
+    private final HashMap<String, double[]> places = new HashMap<>();
+
+    /**
+     * Load a gazetteer file
+     */
+    public static Gazetteer load(Path file) throws IOException {
+        Gazetteer gazetteer = new Gazetteer();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int lonComma = line.lastIndexOf(',');
+                int latComma = lonComma > 0 ? line.lastIndexOf(',', lonComma - 1) : -1;
+                if (latComma <= 0) {
+                    throw new IOException("Bad gazetteer line " + lineNumber + ": " + line);
+                }
+                try {
+                    double lat = Double.parseDouble(line.substring(latComma + 1, lonComma).trim());
+                    double lon = Double.parseDouble(line.substring(lonComma + 1).trim());
+                    gazetteer.addPlace(line.substring(0, latComma), lat, lon);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad coordinates on gazetteer line " + lineNumber + ": " + line);
+                }
+            }
+        }
+        return gazetteer;
+    }
+
+    public void addPlace(String name, double latitude, double longitude) {
+        places.put(key(name), new double[] {latitude, longitude});
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    /**
+     * Look up coordinates for a free-text address.
+     * The whole address is tried first, then it is shortened from the front one
+     * word at a time, so "12 Tahrir Street, Cairo" falls back to "Tahrir Street, Cairo".
+     */
+    public double[] lookup(String fullAddress) {
+        if (fullAddress == null) {
+            return null;
+        }
+        String key = key(fullAddress);
+        while (!key.isEmpty()) {
+            double[] coordinates = places.get(key);
+            if (coordinates != null) {
+                return coordinates;
+            }
+            int space = key.indexOf(' ');
+            if (space < 0) {
+                break;
+            }
+            key = key.substring(space + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Resolve an address in place; returns true if coordinates were found
+     */
+    public boolean resolve(Address address) {
+        if (address.hasCoordinates()) {
+            return true;
+        }
+        double[] coordinates = lookup(address.getFullAddress());
+        if (coordinates == null) {
+            return false;
+        }
+        address.setCoordinates(coordinates[0], coordinates[1]);
+        return true;
+    }
+
+    private static String key(String text) {
+        return AddressRegistry.normalize(text);
+    }
+}
@@ -0,0 +1,90 @@
+package restaurantsystem;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int -> int map (no boxing) for non-negative values; -1 means absent
+ */
+final class IntIndex {
+    private int[] keys = new int[2048];
+    private int[] rows = new int[2048];
+    private int size;
+
+    IntIndex() {
+        Arrays.fill(rows, -1);
+    }
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (rows[slot] < 0) {
+                return -1;
+            }
+            if (keys[slot] == key) {
+                return rows[slot];
+            }
+        }
+    }
+
+    void put(int key, int row) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (rows[slot] >= 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (rows[slot] < 0) {
+            size++;
+        }
+        keys[slot] = key;
+        rows[slot] = row;
+    }
+
+    void remove(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (rows[slot] >= 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (rows[slot] < 0) {
+            return;
+        }
+        // Shift the rest of the probe run back so no lookup stops at the hole
+        int hole = slot;
+        for (int next = (hole + 1) & mask; rows[next] >= 0; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                rows[hole] = rows[next];
+                hole = next;
+            }
+        }
+        rows[hole] = -1;
+        size--;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldRows = rows;
+        keys = new int[oldKeys.length * 2];
+        rows = new int[oldKeys.length * 2];
+        Arrays.fill(rows, -1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldRows[i] >= 0) {
+                put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+
+    long footprintBytes() {
+        return 8L * keys.length;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
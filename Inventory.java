@@ -0,0 +1,316 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Inventory class - ingredient stock and the recipes that consume it.
+ *
+ * Stock levels are CAS counters in one AtomicLongArray, each on its own cache
+ * line, so tills taking different ingredients never touch the same line and
+ * tills taking the same one retry instead of blocking. An order takes all its
+ * ingredients or none: counters are decremented in ingredient order and rolled
+ * back if any runs short. Whenever an ingredient can no longer cover one
+ * portion of a dish, the dish is marked unavailable ("86'd"), and it comes back
+ * once the ingredient is restocked or an order is cancelled.
+ */
+public class Inventory {
+    private static final int PAD = 8; // longs per 64-byte cache line
+
+    /**
+     * Ingredient quantities for one portion of a menu item
+     */
+    public static final class Recipe {
+        private final int[] ingredients;
+        private final long[] quantities;
+
+        Recipe(int[] ingredients, long[] quantities) {
+            this.ingredients = ingredients;
+            this.quantities = quantities;
+        }
+    }
+
+    private final HashMap<String, Integer> ingredientIds = new HashMap<>();
+    private final ArrayList<String> ingredientNames = new ArrayList<>();
+    private final ConcurrentHashMap<Integer, List<MenuItem>> usedBy = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MenuItem, Recipe> recipes = new ConcurrentHashMap<>();
+    private final Set<MenuItem> eightySixed = ConcurrentHashMap.newKeySet();
+    private volatile AtomicLongArray stock = new AtomicLongArray(0);
+    private volatile boolean restocked;
+
+    // ==================== SETUP ====================
+
+    /**
+     * Register an ingredient with its opening stock (in whatever unit its recipes
+     * use). Ingredients are set up before orders are taken.
+     */
+    public synchronized void addIngredient(String name, long openingStock) {
+        String key = name.trim().toLowerCase();
+        if (ingredientIds.containsKey(key)) {
+            restock(name, openingStock);
+            return;
+        }
+        int id = ingredientNames.size();
+        AtomicLongArray grown = new AtomicLongArray((id + 1) * PAD);
+        for (int i = 0; i < id; i++) {
+            grown.set(i * PAD, stock.get(i * PAD));
+        }
+        grown.set(id * PAD, openingStock);
+        ingredientIds.put(key, id);
+        ingredientNames.add(name.trim());
+        usedBy.put(id, List.of());
+        stock = grown;
+    }
+
+    /**
+     * Set the ingredients one portion of an item uses
+     */
+    public synchronized void setRecipe(MenuItem item, Map<String, Long> portion) {
+        int[] ids = new int[portion.size()];
+        long[] quantities = new long[portion.size()];
+        int n = 0;
+        for (Map.Entry<String, Long> entry : portion.entrySet()) {
+            Integer id = ingredientIds.get(entry.getKey().trim().toLowerCase());
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown ingredient: " + entry.getKey());
+            }
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive: " + entry.getKey());
+            }
+            ids[n] = id;
+            quantities[n++] = entry.getValue();
+        }
+        sortByIngredient(ids, quantities);
+
+        Recipe previous = recipes.put(item, new Recipe(ids, quantities));
+        if (previous != null) {
+            for (int id : previous.ingredients) {
+                List<MenuItem> users = new ArrayList<>(usedBy.get(id));
+                users.remove(item);
+                usedBy.put(id, List.copyOf(users));
+            }
+        }
+        // Copy-on-write, so the order path reads the lists without locking
+        for (int id : ids) {
+            List<MenuItem> users = new ArrayList<>(usedBy.get(id));
+            users.add(item);
+            usedBy.put(id, List.copyOf(users));
+        }
+        refresh(item);
+    }
+
+    // ==================== STOCK ====================
+
+    /**
+     * Take the ingredients for every line of an order, all or nothing.
+     * Returns false (taking nothing) if any ingredient is short.
+     */
+    public boolean reserve(Order order) {
+        if (order.isStockReserved()) {
+            return true;
+        }
+        if (!take(order.getItems(), -1)) {
+            return false;
+        }
+        order.setStockReserved(true);
+        return true;
+    }
+
+    /**
+     * Give back what a reserved order took (cancelled or failed orders)
+     */
+    public void restore(Order order) {
+        if (!order.isStockReserved()) {
+            return;
+        }
+        order.setStockReserved(false);
+        take(order.getItems(), 1);
+    }
+
+    /**
+     * Take the ingredients for extra portions of one item (add-ons to an open tab)
+     */
+    public boolean reserve(MenuItem item, int quantity) {
+        return take(Map.of(item, quantity), -1);
+    }
+
+    /**
+     * Give back the ingredients for portions taken off an order
+     */
+    public void restore(MenuItem item, int quantity) {
+        take(Map.of(item, quantity), 1);
+    }
+
+    public synchronized void restock(String name, long quantity) {
+        Integer id = ingredientIds.get(name.trim().toLowerCase());
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown ingredient: " + name);
+        }
+        stock.addAndGet(id * PAD, quantity);
+        restocked = true;
+        refreshUsers(id);
+    }
+
+    /**
+     * Stock has been added since the opening levels were set
+     */
+    public boolean isRestocked() {
+        return restocked;
+    }
+
+    public long getStock(String name) {
+        Integer id;
+        synchronized (this) {
+            id = ingredientIds.get(name.trim().toLowerCase());
+        }
+        return id == null ? 0 : stock.get(id * PAD);
+    }
+
+    /**
+     * Items currently off the menu because an ingredient ran short
+     */
+    public Set<MenuItem> getEightySixed() {
+        return Collections.unmodifiableSet(eightySixed);
+    }
+
+    public synchronized String getStockReport() {
+        StringBuilder sb = new StringBuilder();
+        for (int id = 0; id < ingredientNames.size(); id++) {
+            sb.append(String.format("  %-20s %8d%n", ingredientNames.get(id), stock.get(id * PAD)));
+        }
+        if (!eightySixed.isEmpty()) {
+            sb.append("  86'd: ");
+            for (MenuItem item : eightySixed) {
+                sb.append(item.getName()).append(' ');
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Apply sign * (portion * quantity) for every line. Decrements are
+     * all-or-nothing; increments always succeed.
+     */
+    private boolean take(Map<MenuItem, Integer> lines, int sign) {
+        // Sum per ingredient first so each counter is touched once
+        HashMap<Integer, Long> needed = new HashMap<>();
+        for (Map.Entry<MenuItem, Integer> line : lines.entrySet()) {
+            Recipe recipe = recipes.get(line.getKey());
+            if (recipe == null) {
+                continue;
+            }
+            for (int i = 0; i < recipe.ingredients.length; i++) {
+                needed.merge(recipe.ingredients[i], recipe.quantities[i] * line.getValue(), Long::sum);
+            }
+        }
+        if (needed.isEmpty()) {
+            return true;
+        }
+
+        int[] ids = new int[needed.size()];
+        long[] amounts = new long[needed.size()];
+        int n = 0;
+        for (Map.Entry<Integer, Long> entry : needed.entrySet()) {
+            ids[n] = entry.getKey();
+            amounts[n++] = entry.getValue();
+        }
+        sortByIngredient(ids, amounts);
+
+        AtomicLongArray counters = stock;
+        if (sign > 0) {
+            for (int i = 0; i < n; i++) {
+                counters.addAndGet(ids[i] * PAD, amounts[i]);
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (!tryDecrement(counters, ids[i] * PAD, amounts[i])) {
+                    for (int j = 0; j < i; j++) {
+                        counters.addAndGet(ids[j] * PAD, amounts[j]);
+                    }
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            refreshUsers(ids[i]);
+        }
+        return true;
+    }
+
+    private static boolean tryDecrement(AtomicLongArray counters, int slot, long amount) {
+        while (true) {
+            long current = counters.get(slot);
+            if (current < amount) {
+                return false;
+            }
+            if (counters.compareAndSet(slot, current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    // ==================== AVAILABILITY ====================
+
+    private void refreshUsers(int ingredientId) {
+        for (MenuItem item : usedBy.get(ingredientId)) {
+            refresh(item);
+        }
+    }
+
+    /**
+     * 86 an item when any ingredient is short of one portion; bring back only
+     * items this class took off, never ones switched off by hand
+     */
+    private void refresh(MenuItem item) {
+        Recipe recipe = recipes.get(item);
+        if (recipe == null) {
+            return;
+        }
+        // Usually nothing changes, so check without the lock first
+        if (canMake(recipe) ? !eightySixed.contains(item) : !item.isAvailable()) {
+            return;
+        }
+        synchronized (item) {
+            boolean canMake = canMake(recipe);
+            if (!canMake && item.isAvailable()) {
+                eightySixed.add(item);
+                item.setAvailable(false);
+            } else if (canMake && eightySixed.remove(item)) {
+                item.setAvailable(true);
+            }
+        }
+    }
+
+    private boolean canMake(Recipe recipe) {
+        AtomicLongArray counters = stock;
+        for (int i = 0; i < recipe.ingredients.length; i++) {
+            if (counters.get(recipe.ingredients[i] * PAD) < recipe.quantities[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void sortByIngredient(int[] ids, long[] values) {
+        // Recipes and orders are short: insertion sort keeps the arrays paired
+        for (int i = 1; i < ids.length; i++) {
+            int id = ids[i];
+            long value = values[i];
+            int j = i - 1;
+            while (j >= 0 && ids[j] > id) {
+                ids[j + 1] = ids[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            values[j + 1] = value;
+        }
+    }
+}
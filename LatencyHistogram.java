@@ -0,0 +1,144 @@
+package restaurantsystem;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with HdrHistogram-style log-linear buckets.
+ *
+ * Values (nanoseconds) are kept to about 3% precision from 1 ns to about 39
+ * hours, so the same histogram serves request latencies and table seating
+ * times (a dinner of several hours). Each recording thread owns a stripe of counters that only it writes,
+ * so terminals never contend and recording allocates nothing once a thread has
+ * its stripe. Readers merge the stripes when a snapshot is taken.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 41;   // 2^47 ns
+    static final int BUCKETS = (MAX_SHIFT + 2) * SUB_COUNT;
+    private static final long MAX_VALUE = (2L * SUB_COUNT << MAX_SHIFT) - 1;
+
+    /**
+     * Counters written by a single thread
+     */
+    private static final class Stripe {
+        final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        final AtomicLongArray totals = new AtomicLongArray(3); // count, sum, max
+    }
+
+    /**
+     * Merged, immutable view of a histogram
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public long getSumNanos() { return sum; }
+        public long getMaxNanos() { return max; }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Value at the given quantile (0..1), reported as the bucket's upper bound
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+    private final String name;
+    private final CopyOnWriteArrayList<Stripe> stripes = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Stripe> local = ThreadLocal.withInitial(() -> {
+        Stripe stripe = new Stripe();
+        stripes.add(stripe);
+        return stripe;
+    });
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Record one latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        Stripe stripe = local.get();
+        int index = indexOf(value);
+        // Single writer per stripe: ordered stores are enough, no CAS needed
+        stripe.counts.lazySet(index, stripe.counts.get(index) + 1);
+        stripe.totals.lazySet(0, stripe.totals.get(0) + 1);
+        stripe.totals.lazySet(1, stripe.totals.get(1) + value);
+        if (value > stripe.totals.get(2)) {
+            stripe.totals.lazySet(2, value);
+        }
+    }
+
+    /**
+     * Record the time elapsed since a System.nanoTime() reading
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] += stripe.counts.get(i);
+            }
+            count += stripe.totals.get(0);
+            sum += stripe.totals.get(1);
+            max = Math.max(max, stripe.totals.get(2));
+        }
+        return new Snapshot(merged, count, sum, max);
+    }
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((value >>> shift) - SUB_COUNT);
+    }
+
+    static long upperBound(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long sub = index % SUB_COUNT + SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
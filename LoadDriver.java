@@ -0,0 +1,523 @@
+package restaurantsystem;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load Driver - headless workload generator for capacity planning.
+ *
+ * Simulates N cashier terminals and a population of M customers against the real
+ * Cashier, Customer, Menu, Table and Payment logic, bypassing every Scanner
+ * prompt. Arrivals are open-loop: a dispatcher releases them on a daily curve and
+ * latency is measured from each arrival's scheduled time, so queueing behind a
+ * slow operation is counted. Usage:
+ *
+ *   java restaurantsystem.LoadDriver cashiers=4 customers=5000 seconds=60 peakRate=200
+ *        mix=TAKEAWAY:5,DINE_IN:3,ONLINE_DELIVERY:2 pay=CASH:4,CREDIT_CARD:3,DEBIT_CARD:2,MOBILE_WALLET:1
+ */
+public class LoadDriver {
+    /**
+     * Orders per hour of day, relative to the peak hour (lunch and dinner rushes)
+     */
+    private static final double[] DEFAULT_DAILY_CURVE = {
+            0.05, 0.02, 0.01, 0.01, 0.01, 0.02, 0.05, 0.15, 0.25, 0.20, 0.25, 0.45,
+            0.85, 1.00, 0.70, 0.35, 0.30, 0.45, 0.75, 0.95, 0.90, 0.60, 0.30, 0.12};
+
+    private static final String[] OPERATIONS = {
+            "order.TAKEAWAY", "order.DINE_IN", "order.ONLINE_DELIVERY",
+            "table.select", "table.release", "payment.accept", "endToEnd"};
+    private static final int OP_TABLE_SELECT = 3;
+    private static final int OP_TABLE_RELEASE = 4;
+    private static final int OP_PAYMENT = 5;
+    private static final int OP_END_TO_END = 6;
+
+    // ==================== CONFIGURATION ====================
+
+    private int cashiers = 4;
+    private int customers = 1000;
+    private int onlineWorkers = 2;
+    private int durationSeconds = 30;
+    private int dayLengthSeconds;
+    private double peakRatePerSecond = 100;
+    private double[] dailyCurve = DEFAULT_DAILY_CURVE;
+    private int menuSize = 40;
+    private int tableCount = 40;
+    private double itemSkew = 1.0;
+    private int maxLinesPerOrder = 5;
+    private int maxPartySize = 6;
+    private int dineInMillis = 200;
+    private long seed = 42;
+    private final EnumMap<Systemmode, Double> modeMix = new EnumMap<>(Systemmode.class);
+    private final EnumMap<Payment.PaymentMethod, Double> paymentMix = new EnumMap<>(Payment.PaymentMethod.class);
+
+    public LoadDriver() {
+        modeMix.put(Systemmode.TAKEAWAY, 5.0);
+        modeMix.put(Systemmode.DINE_IN, 3.0);
+        modeMix.put(Systemmode.ONLINE_DELIVERY, 2.0);
+        paymentMix.put(Payment.PaymentMethod.CASH, 4.0);
+        paymentMix.put(Payment.PaymentMethod.CREDIT_CARD, 3.0);
+        paymentMix.put(Payment.PaymentMethod.DEBIT_CARD, 2.0);
+        paymentMix.put(Payment.PaymentMethod.MOBILE_WALLET, 1.0);
+    }
+
+    public void setCashiers(int cashiers) { this.cashiers = positive(cashiers, "cashiers"); }
+    public void setCustomers(int customers) { this.customers = positive(customers, "customers"); }
+    public void setOnlineWorkers(int onlineWorkers) { this.onlineWorkers = positive(onlineWorkers, "onlineWorkers"); }
+    public void setDurationSeconds(int seconds) { this.durationSeconds = positive(seconds, "seconds"); }
+    public void setDayLengthSeconds(int seconds) { this.dayLengthSeconds = positive(seconds, "dayLength"); }
+    public void setPeakRatePerSecond(double rate) { this.peakRatePerSecond = rate; }
+    public void setMenuSize(int menuSize) { this.menuSize = positive(menuSize, "menuSize"); }
+    public void setTableCount(int tableCount) { this.tableCount = positive(tableCount, "tables"); }
+    public void setItemSkew(double itemSkew) { this.itemSkew = itemSkew; }
+    public void setMaxLinesPerOrder(int lines) { this.maxLinesPerOrder = positive(lines, "lines"); }
+    public void setMaxPartySize(int partySize) { this.maxPartySize = positive(partySize, "maxPartySize"); }
+    public void setDineInMillis(int millis) { this.dineInMillis = millis; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public void setDailyCurve(double[] curve) {
+        if (curve.length != 24) {
+            throw new IllegalArgumentException("Daily curve needs 24 hourly weights");
+        }
+        this.dailyCurve = curve.clone();
+    }
+
+    public void setModeWeight(Systemmode mode, double weight) {
+        modeMix.put(mode, weight);
+    }
+
+    public void setPaymentWeight(Payment.PaymentMethod method, double weight) {
+        paymentMix.put(method, weight);
+    }
+
+    private static int positive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be greater than 0");
+        }
+        return value;
+    }
+
+    // ==================== WORKLOAD ====================
+
+    /**
+     * One scheduled customer visit
+     */
+    private static final class Arrival {
+        final Systemmode mode;
+        final Customer customer;
+        final Map<MenuItem, Integer> items;
+        final Payment.PaymentMethod method;
+        final int partySize;
+        final long scheduledNanos;
+
+        Arrival(Systemmode mode, Customer customer, Map<MenuItem, Integer> items,
+                Payment.PaymentMethod method, int partySize, long scheduledNanos) {
+            this.mode = mode;
+            this.customer = customer;
+            this.items = items;
+            this.method = method;
+            this.partySize = partySize;
+            this.scheduledNanos = scheduledNanos;
+        }
+    }
+
+    /**
+     * Latency and allocation samples recorded by one worker thread
+     */
+    private static final class Recorder {
+        final long[][] samples = new long[OPERATIONS.length][];
+        final int[] counts = new int[OPERATIONS.length];
+        final long[] allocated = new long[OPERATIONS.length];
+
+        Recorder() {
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = new long[1024];
+            }
+        }
+
+        void record(int op, long nanos, long bytes) {
+            if (counts[op] == samples[op].length) {
+                samples[op] = Arrays.copyOf(samples[op], counts[op] * 2);
+            }
+            samples[op][counts[op]++] = nanos;
+            allocated[op] += bytes;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Menu menu;
+    private ArrayList<Table> tables;
+    private ArrayList<Customer> population;
+    private final AtomicLong noTable = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong failedPayments = new AtomicLong();
+    private final AtomicLong outOfStock = new AtomicLong();
+    private final ConcurrentLinkedQueue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Recorder> releaseRecorder = ThreadLocal.withInitial(() -> {
+        Recorder recorder = new Recorder();
+        recorders.add(recorder);
+        return recorder;
+    });
+
+    /**
+     * Run the workload and return the report
+     */
+    public String run() throws InterruptedException {
+        EventLog.Level previousLevel = EventLog.getLevel();
+        EventLog.setLevel(EventLog.Level.OFF);
+        try {
+            setUp();
+            return execute();
+        } finally {
+            EventLog.setLevel(previousLevel);
+        }
+    }
+
+    private void setUp() {
+        Random random = new Random(seed);
+        String[] categories = {"Main", "Appetizer", "Beverage", "Dessert", "Side"};
+        menu = new Menu();
+        for (int i = 0; i < menuSize; i++) {
+            menu.addItem(new MenuItem("Item " + i, "Load test item " + i, 15 + random.nextInt(150),
+                                      categories[i % categories.length], true));
+        }
+        tables = new ArrayList<>();
+        int[] capacities = {2, 4, 4, 6, 8};
+        for (int i = 1; i <= tableCount; i++) {
+            tables.add(new Table(i, capacities[i % capacities.length], Table.TableStatus.AVAILABLE));
+        }
+        population = new ArrayList<>(customers);
+        AddressRegistry addresses = RestaurantSystem.getAddressRegistry();
+        for (int i = 0; i < customers; i++) {
+            Address address = addresses.intern((i % 500) + " Load Test Street, Cairo", true);
+            population.add(new Customer("load" + i, "pw", i % 10 == 0, address,
+                                        "Load Customer " + i, "load" + i + "@mail.com", "01" + i));
+        }
+    }
+
+    private String execute() throws InterruptedException {
+        LinkedBlockingQueue<Arrival> walkIns = new LinkedBlockingQueue<>();
+        LinkedBlockingQueue<Arrival> online = new LinkedBlockingQueue<>();
+        ScheduledExecutorService releases = Executors.newSingleThreadScheduledExecutor();
+        ArrayList<Thread> workers = new ArrayList<>();
+        Arrival poison = new Arrival(null, null, null, null, 0, 0);
+
+        for (int i = 0; i < cashiers; i++) {
+            Cashier cashier = new Cashier("Load Cashier " + i, "cashier" + i + "@load", "0", "pw", 0, "Load");
+            workers.add(new Thread(() -> work(walkIns, poison, cashier, releases), "cashier-" + i));
+        }
+        for (int i = 0; i < onlineWorkers; i++) {
+            workers.add(new Thread(() -> work(online, poison, null, releases), "online-" + i));
+        }
+        workers.forEach(Thread::start);
+
+        long start = System.nanoTime();
+        long end = start + durationSeconds * 1_000_000_000L;
+        long released = dispatch(start, end, walkIns, online);
+        long elapsed = System.nanoTime() - start;
+
+        for (int i = 0; i < cashiers; i++) {
+            walkIns.put(poison);
+        }
+        for (int i = 0; i < onlineWorkers; i++) {
+            online.put(poison);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long drained = System.nanoTime() - start;
+        releases.shutdownNow();
+        releases.awaitTermination(1, TimeUnit.SECONDS);
+
+        return report(released, elapsed, drained);
+    }
+
+    /**
+     * Release arrivals on the daily curve until the end of the run
+     */
+    private long dispatch(long start, long end, BlockingQueue<Arrival> walkIns, BlockingQueue<Arrival> online) {
+        Random random = new Random(seed + 1);
+        double[] zipf = zipfCumulative(menuSize, itemSkew);
+        ArrayList<MenuItem> items = menu.getMenuItems();
+        long count = 0;
+        long next = start;
+
+        while (next < end) {
+            int dayLength = dayLengthSeconds > 0 ? dayLengthSeconds : durationSeconds;
+            double hour = ((next - start) / 1e9 / dayLength * 24) % 24;
+            double rate = Math.max(peakRatePerSecond * dailyCurve[(int) hour], 0.01);
+            next += (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+            if (next >= end) {
+                break;
+            }
+
+            Systemmode mode = pick(modeMix, random);
+            Map<MenuItem, Integer> lines = new HashMap<>();
+            int lineCount = 1 + random.nextInt(maxLinesPerOrder);
+            for (int i = 0; i < lineCount; i++) {
+                MenuItem item = items.get(sample(zipf, random));
+                lines.merge(item, 1 + random.nextInt(3), Integer::sum);
+            }
+            Arrival arrival = new Arrival(mode, population.get(random.nextInt(population.size())), lines,
+                    pick(paymentMix, random), 1 + random.nextInt(maxPartySize), next);
+
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            (mode == Systemmode.ONLINE_DELIVERY ? online : walkIns).add(arrival);
+            count++;
+        }
+        return count;
+    }
+
+    private void work(BlockingQueue<Arrival> queue, Arrival poison, Cashier cashier,
+                      ScheduledExecutorService releases) {
+        Recorder recorder = new Recorder();
+        recorders.add(recorder);
+        long threadId = Thread.currentThread().getId();
+        try {
+            while (true) {
+                Arrival arrival = queue.take();
+                if (arrival == poison) {
+                    return;
+                }
+                serve(arrival, cashier, recorder, threadId, releases);
+                recorder.record(OP_END_TO_END, System.nanoTime() - arrival.scheduledNanos, 0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(Arrival arrival, Cashier cashier, Recorder recorder, long threadId,
+                       ScheduledExecutorService releases) {
+        Order order;
+        long t0 = System.nanoTime();
+        long started = t0;
+        long a0 = THREADS.getThreadAllocatedBytes(threadId);
+
+        switch (arrival.mode) {
+            case TAKEAWAY -> order = cashier.processTakeawayOrder(arrival.customer, arrival.items);
+            case DINE_IN -> {
+                Table table;
+                synchronized (tables) {
+                    table = Table.bestFit(tables, arrival.partySize);
+                    if (table != null) {
+                        table.assignTable();
+                    }
+                }
+                long t1 = System.nanoTime();
+                long a1 = THREADS.getThreadAllocatedBytes(threadId);
+                recorder.record(OP_TABLE_SELECT, t1 - t0, a1 - a0);
+                if (table == null) {
+                    noTable.incrementAndGet();
+                    return;
+                }
+                t0 = t1;
+                a0 = a1;
+                order = cashier.processWalkInOrder(arrival.customer, arrival.items, table);
+                releases.schedule(() -> release(table), dineInMillis, TimeUnit.MILLISECONDS);
+            }
+            default -> {
+                Systemmanager manager = RestaurantSystem.getSystemManager();
+                Systemmanager.Admission admission = manager.admit(Systemmode.ONLINE_DELIVERY);
+                if (!admission.isAccepted()) {
+                    shed.incrementAndGet();
+                    return;
+                }
+                order = arrival.customer.createOnlineOrder(arrival.items, arrival.customer.getAddress());
+                if (order == null) {
+                    manager.withdraw(admission);
+                }
+            }
+        }
+        long t1 = System.nanoTime();
+        long a1 = THREADS.getThreadAllocatedBytes(threadId);
+        recorder.record(orderOperation(arrival.mode), t1 - t0, a1 - a0);
+        if (order == null) {
+            outOfStock.incrementAndGet();
+            return;
+        }
+
+        boolean paid;
+        if (cashier != null) {
+            paid = cashier.acceptPayment(order, order.getTotal(), arrival.method, started);
+        } else {
+            Payment payment = new Payment(order.getTotal(), arrival.method, order.getOrderId());
+            paid = payment.processPayment(order.getTotal());
+            if (paid) {
+                order.setPayment(payment);
+                order.updateStatus(Status.COMPLETE);
+                RestaurantSystem.getDeliveryBatcher().addReady(order);
+            } else {
+                order.updateStatus(Status.FAILED);
+            }
+        }
+        recorder.record(OP_PAYMENT, System.nanoTime() - t1, THREADS.getThreadAllocatedBytes(threadId) - a1);
+        if (!paid) {
+            failedPayments.incrementAndGet();
+        }
+    }
+
+    private static int orderOperation(Systemmode mode) {
+        return switch (mode) {
+            case TAKEAWAY -> 0;
+            case DINE_IN -> 1;
+            case ONLINE_DELIVERY -> 2;
+        };
+    }
+
+    private void release(Table table) {
+        Recorder recorder = releaseRecorder.get();
+        long threadId = Thread.currentThread().getId();
+        long t0 = System.nanoTime();
+        long a0 = THREADS.getThreadAllocatedBytes(threadId);
+        synchronized (tables) {
+            table.releaseTable();
+        }
+        recorder.record(OP_TABLE_RELEASE, System.nanoTime() - t0, THREADS.getThreadAllocatedBytes(threadId) - a0);
+    }
+
+    // ==================== REPORTING ====================
+
+    private String report(long arrivals, long elapsedNanos, long drainedNanos) {
+        StringBuilder sb = new StringBuilder();
+        double seconds = elapsedNanos / 1e9;
+        sb.append("\n").append("=".repeat(100)).append("\n");
+        sb.append("                                        LOAD TEST REPORT\n");
+        sb.append("=".repeat(100)).append("\n");
+        sb.append(String.format("Cashiers: %d | Online workers: %d | Customers: %d | Tables: %d | Menu: %d items%n",
+                cashiers, onlineWorkers, customers, tableCount, menuSize));
+        sb.append(String.format("Arrivals: %d in %.1f s (%.1f/s offered), drained after %.1f s%n",
+                arrivals, seconds, arrivals / seconds, drainedNanos / 1e9));
+        sb.append(String.format("No table: %d | Shed online: %d | Failed payments: %d | Out of stock: %d%n",
+                noTable.get(), shed.get(), failedPayments.get(), outOfStock.get()));
+        sb.append("-".repeat(100)).append("\n");
+        sb.append(String.format("%-22s | %9s | %10s | %10s | %10s | %10s | %10s | %10s%n",
+                "Operation", "Count", "Ops/s", "p50 µs", "p99 µs", "p99.9 µs", "max µs", "Alloc B/op"));
+        sb.append("-".repeat(100)).append("\n");
+
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            int total = 0;
+            long bytes = 0;
+            for (Recorder r : recorders) {
+                total += r.counts[op];
+                bytes += r.allocated[op];
+            }
+            if (total == 0) {
+                continue;
+            }
+            long[] merged = new long[total];
+            int pos = 0;
+            for (Recorder r : recorders) {
+                System.arraycopy(r.samples[op], 0, merged, pos, r.counts[op]);
+                pos += r.counts[op];
+            }
+            Arrays.sort(merged);
+            sb.append(String.format("%-22s | %9d | %10.1f | %10.1f | %10.1f | %10.1f | %10.1f | %10s%n",
+                    OPERATIONS[op], total, total / (drainedNanos / 1e9),
+                    percentile(merged, 0.50) / 1e3, percentile(merged, 0.99) / 1e3,
+                    percentile(merged, 0.999) / 1e3, merged[total - 1] / 1e3,
+                    op == OP_END_TO_END ? "-" : String.valueOf(bytes / total)));
+        }
+        sb.append("=".repeat(100)).append("\n");
+        sb.append(RestaurantSystem.getShiftMetrics().snapshot());
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    // ==================== SAMPLING HELPERS ====================
+
+    private static <K> K pick(Map<K, Double> weights, Random random) {
+        double total = 0;
+        for (double w : weights.values()) {
+            total += w;
+        }
+        double r = random.nextDouble() * total;
+        K last = null;
+        for (Map.Entry<K, Double> entry : weights.entrySet()) {
+            last = entry.getKey();
+            r -= entry.getValue();
+            if (r < 0) {
+                break;
+            }
+        }
+        return last;
+    }
+
+    private static double[] zipfCumulative(int n, double skew) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    // ==================== COMMAND LINE ====================
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadDriver driver = new LoadDriver();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.out.println("❌ Expected key=value, got: " + arg);
+                return;
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "cashiers" -> driver.setCashiers(Integer.parseInt(value));
+                case "customers" -> driver.setCustomers(Integer.parseInt(value));
+                case "onlineWorkers" -> driver.setOnlineWorkers(Integer.parseInt(value));
+                case "seconds" -> driver.setDurationSeconds(Integer.parseInt(value));
+                case "dayLength" -> driver.setDayLengthSeconds(Integer.parseInt(value));
+                case "peakRate" -> driver.setPeakRatePerSecond(Double.parseDouble(value));
+                case "menuSize" -> driver.setMenuSize(Integer.parseInt(value));
+                case "tables" -> driver.setTableCount(Integer.parseInt(value));
+                case "skew" -> driver.setItemSkew(Double.parseDouble(value));
+                case "lines" -> driver.setMaxLinesPerOrder(Integer.parseInt(value));
+                case "maxPartySize" -> driver.setMaxPartySize(Integer.parseInt(value));
+                case "dineInMillis" -> driver.setDineInMillis(Integer.parseInt(value));
+                case "seed" -> driver.setSeed(Long.parseLong(value));
+                case "curve" -> driver.setDailyCurve(Arrays.stream(value.split(","))
+                        .mapToDouble(Double::parseDouble).toArray());
+                case "mix" -> {
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        driver.setModeWeight(Systemmode.valueOf(kv[0]), Double.parseDouble(kv[1]));
+                    }
+                }
+                case "pay" -> {
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        driver.setPaymentWeight(Payment.PaymentMethod.valueOf(kv[0]), Double.parseDouble(kv[1]));
+                    }
+                }
+                default -> {
+                    System.out.println("❌ Unknown option: " + key);
+                    return;
+                }
+            }
+        }
+        System.out.println(driver.run());
+    }
+}
@@ -3,8 +3,19 @@ package restaurantsystem;
 import java.util.*;
 
 public class Menu {
+    /**
+     * How many recent changes the feed keeps; older clients reload in full
+     */
+    public static final int FEED_CAPACITY = 4096;
+
     private Date lastUpdate;
     private ArrayList<MenuItem> items;
+    private final MenuChange[] feed = new MenuChange[FEED_CAPACITY];
+    private volatile long version;
+    private final DisplayCache menuScreen = new DisplayCache();
+    private final DisplayCache selectionScreen = new DisplayCache();
+    private ArrayList<MenuItem> selectionItems;
+    private long selectionVersion = -1;
 
     public Menu() {
         this.lastUpdate = new Date();
@@ -15,6 +26,13 @@ public class Menu {
         return lastUpdate;
     }
 
+    /**
+     * Version of the latest change (0 for a menu that never changed)
+     */
+    public long getVersion() {
+        return version;
+    }
+
     public ArrayList<MenuItem> getMenuItems() {
         return items;
     }
@@ -25,23 +43,47 @@ public class Menu {
 
     public boolean addItem(MenuItem item) {
         if (item == null) {
-            System.out.println("❌ Error: Cannot add null item");
+            EventLog.log(EventLog.EventType.MENU_REJECTED, "Cannot add null item");
             return false;
         }
 
         for (MenuItem existing : items) {
             if (existing.getName().equalsIgnoreCase(item.getName())) {
-                System.out.println("❌ Error: '" + item.getName() + "' already exists!");
+                EventLog.log(EventLog.EventType.MENU_REJECTED, "'" + item.getName() + "' already exists!");
                 return false;
             }
         }
 
         items.add(item);
-        updateLastUpdate();
-        System.out.println("✅ " + item.getName() + " added to menu!");
+        item.setMenu(this);
+        recordChange(MenuChange.Type.ADDED, item);
+        EventLog.log(EventLog.EventType.MENU_ITEM_ADDED, item.getName());
         return true;
     }
 
+    /**
+     * Add a batch of items in one pass (bulk import). Items whose name is
+     * already on the menu, or earlier in the batch, are skipped and returned.
+     */
+    public List<MenuItem> addItems(Collection<MenuItem> batch) {
+        HashSet<MenuItem> present = new HashSet<>(items);
+        List<MenuItem> rejected = new ArrayList<>();
+        items.ensureCapacity(items.size() + batch.size());
+        for (MenuItem item : batch) {
+            if (item == null || !present.add(item)) {
+                rejected.add(item);
+                continue;
+            }
+            items.add(item);
+            item.setMenu(this);
+            recordChange(MenuChange.Type.ADDED, item);
+        }
+        if (batch.size() > rejected.size()) {
+            EventLog.log(EventLog.EventType.MENU_ITEM_ADDED, (batch.size() - rejected.size()) + " items");
+        }
+        return rejected;
+    }
+
     public boolean removeItem(String itemName) {
         if (itemName == null || itemName.trim().isEmpty()) {
             System.out.println("❌ Error: Item name cannot be empty");
@@ -50,9 +92,10 @@ public class Menu {
 
         for (int i = 0; i < items.size(); i++) {
             if (items.get(i).getName().equalsIgnoreCase(itemName)) {
-                items.remove(i);
-                updateLastUpdate();
-                System.out.println("✅ " + itemName + " removed from menu.");
+                MenuItem removed = items.remove(i);
+                removed.setMenu(null);
+                recordChange(MenuChange.Type.REMOVED, removed);
+                EventLog.log(EventLog.EventType.MENU_ITEM_REMOVED, itemName);
                 return true;
             }
         }
@@ -68,6 +111,7 @@ public class Menu {
             return results;
         }
 
+        long start = System.nanoTime();
         String lowerKeyword = keyword.toLowerCase();
         for (MenuItem item : items) {
             if (item.getName().toLowerCase().contains(lowerKeyword) ||
@@ -75,6 +119,7 @@ public class Menu {
                 results.add(item);
             }
         }
+        Metrics.MENU_SEARCH.recordSince(start);
 
         return results;
     }
@@ -100,24 +145,34 @@ public class Menu {
     }
 
     public void displayMenu() {
-        System.out.println("\n" + "=".repeat(90));
-        System.out.println("                              🍽️  RESTAURANT MENU  🍽️");
-        System.out.println("=".repeat(90));
-        
+        DisplayCache.print(menuScreen.get(version, this::renderMenu));
+    }
+
+    /**
+     * Full menu screen; rendered once per menu version
+     */
+    private synchronized String renderMenu() {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder(128 + items.size() * 100);
+        sb.append(nl).append("=".repeat(90)).append(nl);
+        sb.append("                              🍽️  RESTAURANT MENU  🍽️").append(nl);
+        sb.append("=".repeat(90)).append(nl);
+
         if (items.isEmpty()) {
-            System.out.println("No items in menu!");
-            return;
+            sb.append("No items in menu!").append(nl);
+            return sb.toString();
         }
 
-        System.out.printf("%-20s | %-30s | %-10s | %-15s | %s%n", 
-                         "Name", "Description", "Price", "Category", "Status");
-        System.out.println("-".repeat(90));
+        sb.append(String.format("%-20s | %-30s | %-10s | %-15s | %s%n",
+                                "Name", "Description", "Price", "Category", "Status"));
+        sb.append("-".repeat(90)).append(nl);
 
         for (MenuItem item : items) {
-            System.out.println(item.getInfo());
+            sb.append(item.getInfo()).append(nl);
         }
-        
-        System.out.println("=".repeat(90));
+
+        sb.append("=".repeat(90)).append(nl);
+        return sb.toString();
     }
 
     /**
@@ -126,29 +181,28 @@ public class Menu {
     public Map<MenuItem, Integer> selectMenuItems(Scanner scanner) {
         Map<MenuItem, Integer> selectedItems = new HashMap<>();
 
-        System.out.println("\n" + "=".repeat(90));
-        System.out.println("                              SELECT ITEMS FROM MENU");
-        System.out.println("=".repeat(90));
-
-        ArrayList<MenuItem> availableItems = getAllAvailableItems();
+        // The numbered list and the items it numbers are cached together per version
+        ArrayList<MenuItem> availableItems;
+        byte[] screen;
+        synchronized (this) {
+            long current = version;
+            if (selectionItems == null || selectionVersion != current) {
+                selectionItems = getAllAvailableItems();
+                selectionVersion = current;
+            }
+            availableItems = selectionItems;
+            screen = selectionScreen.get(current, () -> renderSelection(availableItems));
+        }
+        DisplayCache.print(screen);
 
         if (availableItems.isEmpty()) {
-            System.out.println("❌ No items available!");
             return selectedItems;
         }
 
-        for (int i = 0; i < availableItems.size(); i++) {
-            MenuItem item = availableItems.get(i);
-            System.out.println((i + 1) + ". " + item.getInfo());
-        }
-
-        System.out.println("\n" + "=".repeat(90));
-        System.out.println("Select items (enter 0 to finish):");
-
         while (true) {
             System.out.print("\nItem number: ");
             try {
-                int itemNum = scanner.nextInt();
+                int itemNum = Prompt.readInt(scanner);
                 
                 if (itemNum == 0) break;
 
@@ -158,7 +212,7 @@ public class Menu {
                 }
 
                 System.out.print("Quantity: ");
-                int qty = scanner.nextInt();
+                int qty = Prompt.readInt(scanner);
 
                 if (qty <= 0) {
                     System.out.println("❌ Quantity must be > 0!");
@@ -172,14 +226,74 @@ public class Menu {
                 System.out.println("✅ Added: " + selectedItem.getName() + " x" + qty);
             } catch (InputMismatchException e) {
                 System.out.println("❌ Invalid input!");
-                scanner.nextLine();
+                Prompt.readLine(scanner);
             }
         }
 
-        scanner.nextLine();
+        Prompt.readLine(scanner);
         return selectedItems;
     }
 
+    private static String renderSelection(ArrayList<MenuItem> availableItems) {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder(256 + availableItems.size() * 100);
+        sb.append(nl).append("=".repeat(90)).append(nl);
+        sb.append("                              SELECT ITEMS FROM MENU").append(nl);
+        sb.append("=".repeat(90)).append(nl);
+
+        if (availableItems.isEmpty()) {
+            sb.append("❌ No items available!").append(nl);
+            return sb.toString();
+        }
+
+        for (int i = 0; i < availableItems.size(); i++) {
+            sb.append(i + 1).append(". ").append(availableItems.get(i).getInfo()).append(nl);
+        }
+
+        sb.append(nl).append("=".repeat(90)).append(nl);
+        sb.append("Select items (enter 0 to finish):").append(nl);
+        return sb.toString();
+    }
+
+    // ==================== CHANGE FEED ====================
+
+    /**
+     * Append a change to the feed; MenuItem calls this when a listed item changes
+     */
+    synchronized void recordChange(MenuChange.Type type, MenuItem item) {
+        long next = version + 1;
+        feed[(int) (next % FEED_CAPACITY)] = new MenuChange(next, type, item);
+        version = next;
+        updateLastUpdate();
+    }
+
+    /**
+     * Changes after the given version, oldest first. Returns null when the
+     * client is too far behind for the feed, in which case it should reload
+     * from getSnapshot().
+     */
+    public synchronized List<MenuChange> changesSince(long sinceVersion) {
+        if (sinceVersion > version || sinceVersion < version - FEED_CAPACITY) {
+            return null;
+        }
+        List<MenuChange> changes = new ArrayList<>((int) (version - sinceVersion));
+        for (long v = sinceVersion + 1; v <= version; v++) {
+            changes.add(feed[(int) (v % FEED_CAPACITY)]);
+        }
+        return changes;
+    }
+
+    /**
+     * Every current item as an ADDED change stamped with the current version
+     */
+    public synchronized List<MenuChange> getSnapshot() {
+        List<MenuChange> snapshot = new ArrayList<>(items.size());
+        for (MenuItem item : items) {
+            snapshot.add(new MenuChange(version, MenuChange.Type.ADDED, item));
+        }
+        return snapshot;
+    }
+
     public MenuItem getItemByName(String name) {
         for (MenuItem item : items) {
             if (item.getName().equalsIgnoreCase(name)) {
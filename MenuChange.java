@@ -0,0 +1,59 @@
+package restaurantsystem;
+
+/**
+ * MenuChange class - one versioned entry in a Menu's change feed.
+ *
+ * Each change carries the item's full state after the change, so a client can
+ * apply it as an upsert (or a delete for REMOVED) without knowing what the
+ * item looked like before.
+ */
+public final class MenuChange {
+    /**
+     * Change type enum
+     */
+    public enum Type {
+        ADDED,
+        REMOVED,
+        PRICE_CHANGED,
+        AVAILABILITY_CHANGED,
+        DETAILS_CHANGED
+    }
+
+    private final long version;
+    private final Type type;
+    private final String name;
+    private final String description;
+    private final double price;
+    private final String category;
+    private final boolean available;
+
+    MenuChange(long version, Type type, MenuItem item) {
+        this.version = version;
+        this.type = type;
+        this.name = item.getName();
+        this.description = item.getDescription();
+        this.price = item.getPrice();
+        this.category = item.getCategory();
+        this.available = item.isAvailable();
+    }
+
+    public long getVersion() { return version; }
+    public Type getType() { return type; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public double getPrice() { return price; }
+    public String getCategory() { return category; }
+    public boolean isAvailable() { return available; }
+
+    /**
+     * A detached copy of the item as of this change
+     */
+    public MenuItem toMenuItem() {
+        return new MenuItem(name, description, price, category, available);
+    }
+
+    @Override
+    public String toString() {
+        return "v" + version + " " + type + " " + name;
+    }
+}
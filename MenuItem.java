@@ -12,7 +12,8 @@ public class MenuItem implements Serializable {
     private String description;
     private double price;
     private String category;
-    private boolean isAvailable;
+    private volatile boolean isAvailable;   // also switched by Inventory from other threads
+    private transient Menu menu;           // menu this item is listed on, for its change feed
 
     public MenuItem(String name, String description, double price, String category, boolean isAvailable) {
         this.name = name;
@@ -28,7 +29,15 @@ public class MenuItem implements Serializable {
     }
 
     public void setName(String name) {
+        Menu listedOn = menu;
+        if (listedOn != null) {
+            // Replicas key items by name, so a rename is a removal plus an addition
+            listedOn.recordChange(MenuChange.Type.REMOVED, this);
+        }
         this.name = name;
+        if (listedOn != null) {
+            listedOn.recordChange(MenuChange.Type.ADDED, this);
+        }
     }
 
     public String getDescription() {
@@ -37,6 +46,7 @@ public class MenuItem implements Serializable {
 
     public void setDescription(String description) {
         this.description = description;
+        detailsChanged();
     }
 
     public double getPrice() {
@@ -44,7 +54,14 @@ public class MenuItem implements Serializable {
     }
 
     public void setPrice(double price) {
+        if (this.price == price) {
+            return;
+        }
         this.price = price;
+        Menu listedOn = menu;
+        if (listedOn != null) {
+            listedOn.recordChange(MenuChange.Type.PRICE_CHANGED, this);
+        }
     }
 
     public String getCategory() {
@@ -53,6 +70,7 @@ public class MenuItem implements Serializable {
 
     public void setCategory(String category) {
         this.category = category;
+        detailsChanged();
     }
 
     public boolean isAvailable() {
@@ -60,7 +78,25 @@ public class MenuItem implements Serializable {
     }
 
     public void setAvailable(boolean available) {
+        if (isAvailable == available) {
+            return;
+        }
         isAvailable = available;
+        Menu listedOn = menu;
+        if (listedOn != null) {
+            listedOn.recordChange(MenuChange.Type.AVAILABILITY_CHANGED, this);
+        }
+    }
+
+    void setMenu(Menu menu) {
+        this.menu = menu;
+    }
+
+    private void detailsChanged() {
+        Menu listedOn = menu;
+        if (listedOn != null) {
+            listedOn.recordChange(MenuChange.Type.DETAILS_CHANGED, this);
+        }
     }
 
     /**
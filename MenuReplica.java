@@ -0,0 +1,95 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Menu replica - a terminal's or kiosk's local copy of the menu, kept current
+ * by applying the source menu's change feed instead of reloading everything.
+ *
+ * The replica holds detached MenuItem copies, so reading it never touches the
+ * shared menu. A replica that has fallen further behind than the feed keeps
+ * reloads from a snapshot.
+ */
+public class MenuReplica {
+    private final LinkedHashMap<String, MenuItem> items = new LinkedHashMap<>();
+    private long version = -1;
+    private long fullReloads;
+    private long changesApplied;
+
+    /**
+     * Bring the replica up to date; returns the number of changes applied
+     */
+    public synchronized int sync(Menu source) {
+        List<MenuChange> changes = version < 0 ? null : source.changesSince(version);
+        if (changes == null) {
+            reload(source.getSnapshot(), source.getVersion());
+            return items.size();
+        }
+        apply(changes);
+        return changes.size();
+    }
+
+    /**
+     * Apply changes received from elsewhere (e.g. over the network), oldest first.
+     * Changes at or below the current version are skipped, so re-delivery is harmless.
+     */
+    public synchronized void apply(List<MenuChange> changes) {
+        for (MenuChange change : changes) {
+            if (change.getVersion() <= version) {
+                continue;
+            }
+            String key = change.getName().toLowerCase();
+            if (change.getType() == MenuChange.Type.REMOVED) {
+                items.remove(key);
+            } else {
+                items.put(key, change.toMenuItem());
+            }
+            version = change.getVersion();
+            changesApplied++;
+        }
+    }
+
+    /**
+     * Replace the whole copy with a snapshot taken at the given version
+     */
+    public synchronized void reload(List<MenuChange> snapshot, long snapshotVersion) {
+        items.clear();
+        for (MenuChange change : snapshot) {
+            items.put(change.getName().toLowerCase(), change.toMenuItem());
+        }
+        version = snapshotVersion;
+        fullReloads++;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized ArrayList<MenuItem> getItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    public synchronized ArrayList<MenuItem> getAvailableItems() {
+        ArrayList<MenuItem> available = new ArrayList<>();
+        for (MenuItem item : items.values()) {
+            if (item.isAvailable()) {
+                available.add(item);
+            }
+        }
+        return available;
+    }
+
+    public synchronized MenuItem getItem(String name) {
+        return items.get(name.toLowerCase());
+    }
+
+    public synchronized long getFullReloads() {
+        return fullReloads;
+    }
+
+    public synchronized long getChangesApplied() {
+        return changesApplied;
+    }
+}
@@ -0,0 +1,166 @@
+package restaurantsystem;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Operational metrics - latency histograms and counters for the hot paths,
+ * exposed over JMX and a local HTTP endpoint in Prometheus text format.
+ *
+ * Recording is allocation-free and uncontended: histograms are striped per
+ * thread and counters are LongAdders.
+ */
+public final class Metrics {
+    public static final LatencyHistogram LOGIN = new LatencyHistogram("login");
+    public static final LatencyHistogram ORDER_PLACEMENT = new LatencyHistogram("order_placement");
+    public static final LatencyHistogram ACCEPT_PAYMENT = new LatencyHistogram("accept_payment");
+    public static final LatencyHistogram TABLE_SEATED = new LatencyHistogram("table_seated");
+    public static final LatencyHistogram MENU_SEARCH = new LatencyHistogram("menu_search");
+
+    public static final LongAdder FAILED_PAYMENTS = new LongAdder();
+    public static final LongAdder NO_AVAILABLE_TABLES = new LongAdder();
+
+    private static final LatencyHistogram[] HISTOGRAMS = {
+            LOGIN, ORDER_PLACEMENT, ACCEPT_PAYMENT, TABLE_SEATED, MENU_SEARCH};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static HttpServer httpServer;
+
+    private Metrics() {
+    }
+
+    /**
+     * JMX view of the metrics (restaurantsystem:type=Metrics)
+     */
+    public interface MetricsMXBean {
+        long getFailedPayments();
+
+        long getNoAvailableTables();
+
+        /**
+         * Count, mean and quantiles in microseconds, keyed "histogram.statistic"
+         */
+        Map<String, Double> getLatencies();
+
+        String getPrometheusText();
+    }
+
+    private static final class MetricsBean implements MetricsMXBean {
+        @Override
+        public long getFailedPayments() {
+            return FAILED_PAYMENTS.sum();
+        }
+
+        @Override
+        public long getNoAvailableTables() {
+            return NO_AVAILABLE_TABLES.sum();
+        }
+
+        @Override
+        public Map<String, Double> getLatencies() {
+            Map<String, Double> latencies = new LinkedHashMap<>();
+            for (LatencyHistogram histogram : HISTOGRAMS) {
+                LatencyHistogram.Snapshot s = histogram.snapshot();
+                latencies.put(histogram.getName() + ".count", (double) s.getCount());
+                latencies.put(histogram.getName() + ".mean_us", s.getMeanNanos() / 1e3);
+                for (double q : QUANTILES) {
+                    latencies.put(histogram.getName() + ".p" + trim(q * 100) + "_us",
+                                  s.getValueAtQuantile(q) / 1e3);
+                }
+                latencies.put(histogram.getName() + ".max_us", s.getMaxNanos() / 1e3);
+            }
+            return latencies;
+        }
+
+        @Override
+        public String getPrometheusText() {
+            return renderPrometheus();
+        }
+    }
+
+    // ==================== EXPOSITION ====================
+
+    /**
+     * Register the metrics MXBean on the platform MBean server (idempotent)
+     */
+    public static synchronized void registerJmx() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("restaurantsystem:type=Metrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsBean(), name);
+            }
+        } catch (JMException e) {
+            System.out.println("⚠️ Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serve GET /metrics on the loopback interface
+     */
+    public static synchronized void startHttpEndpoint(int port) throws IOException {
+        if (httpServer != null) {
+            return;
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = renderPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        httpServer = server;
+    }
+
+    public static synchronized void stopHttpEndpoint() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+    }
+
+    /**
+     * Prometheus text exposition format (latencies as summaries in seconds)
+     */
+    public static String renderPrometheus() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            String metric = "restaurant_" + histogram.getName() + "_seconds";
+            LatencyHistogram.Snapshot s = histogram.snapshot();
+            sb.append("# TYPE ").append(metric).append(" summary\n");
+            for (double q : QUANTILES) {
+                sb.append(metric).append("{quantile=\"").append(q).append("\"} ")
+                  .append(s.getValueAtQuantile(q) / 1e9).append('\n');
+            }
+            sb.append(metric).append("_sum ").append(s.getSumNanos() / 1e9).append('\n');
+            sb.append(metric).append("_count ").append(s.getCount()).append('\n');
+        }
+        counter(sb, "restaurant_failed_payments_total", FAILED_PAYMENTS.sum());
+        counter(sb, "restaurant_no_available_tables_total", NO_AVAILABLE_TABLES.sum());
+        return sb.toString();
+    }
+
+    private static void counter(StringBuilder sb, String metric, long value) {
+        sb.append("# TYPE ").append(metric).append(" counter\n");
+        sb.append(metric).append(' ').append(value).append('\n');
+    }
+
+    private static String trim(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
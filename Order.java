@@ -6,16 +6,34 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
- * Order class represents a customer order
+ * Order class represents a customer order.
+ *
+ * Amendments (line added, quantity changed, line removed, status changed) are
+ * applied as deltas: the subtotal is adjusted by the changed line alone, and
+ * the delta is published to the order's subscribers and to its branch's
+ * (e.g. the kitchen), so a long dine-in tab costs the same per add-on as a
+ * fresh order. An order that has been priced (applyPricing) is re-priced
+ * with the same rules on each change, as combos and thresholds depend on
+ * every line, so its discount and total always match its lines.
+ *
+ * Ids, change sequences and branch-wide subscribers belong to the order's
+ * branch: the id is drawn from the branch the creating thread works in
+ * (RestaurantSystem.getBranch), the rest once Branch.addOrder takes it.
  */
 public class Order implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private static int orderCounter = 1;
-    
     private int orderId;
     private LocalDateTime orderDate;
     private Map<MenuItem, Integer> items;
+    private Map<MenuItem, Long> unitPriceCents;
+    private long subtotalCents;
+    private long revision;
+    private transient OrderListener[] listeners;     // null until someone subscribes
+    private volatile long changeSequence;            // branch change log sequence at the last change
+    private transient Branch branch;                 // set by Branch.addOrder
+    private transient PricingEngine pricing;         // rules the discount was priced with, if any
+    private boolean pricedAsElite;
     private double subtotal;
     private double discountAmount;
     private double total;
@@ -25,12 +43,14 @@ public class Order implements Serializable {
     private Table table;
     private Systemmode orderType;
     private String customerId;
+    private boolean stockReserved;
 
     public Order(String customerId, Map<MenuItem, Integer> items, 
                  Systemmode orderType, Table table) {
-        this.orderId = orderCounter++;
+        this.orderId = RestaurantSystem.getBranch().nextOrderId();
         this.orderDate = LocalDateTime.now();
         this.items = new HashMap<>(items);
+        this.unitPriceCents = new HashMap<>();
         this.customerId = customerId;
         this.orderType = orderType;
         this.table = table;
@@ -55,6 +75,19 @@ public class Order implements Serializable {
         return subtotal;
     }
 
+    /**
+     * What a line costs at the unit price locked in when it was added (the
+     * price the subtotal is made of), in cents
+     */
+    public synchronized long getLineTotalCents(MenuItem item) {
+        Integer quantity = items.get(item);
+        if (quantity == null) {
+            return 0;
+        }
+        Long unit = unitPriceCents.get(item);
+        return (unit != null ? unit : toCents(item.getPrice())) * quantity;
+    }
+
     public double getDiscountAmount() {
         return discountAmount;
     }
@@ -67,8 +100,11 @@ public class Order implements Serializable {
         return status;
     }
 
+    /**
+     * Same as updateStatus (stock is given back on CANCELLED or FAILED)
+     */
     public void setStatus(Status status) {
-        this.status = status;
+        updateStatus(status);
     }
 
     public Payment getPayment() {
@@ -77,6 +113,15 @@ public class Order implements Serializable {
 
     public void setPayment(Payment payment) {
         this.payment = payment;
+        touch();
+    }
+
+    public boolean isStockReserved() {
+        return stockReserved;
+    }
+
+    public void setStockReserved(boolean stockReserved) {
+        this.stockReserved = stockReserved;
     }
 
     public Address getDeliveryAddress() {
@@ -106,109 +151,293 @@ public class Order implements Serializable {
     /**
      * Add item to order
      */
-    public void addItem(MenuItem item, int quantity) {
+    public synchronized void addItem(MenuItem item, int quantity) {
         if (item == null) {
-            System.out.println("❌ Cannot add null item!");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Cannot add null item!");
             return;
         }
         if (quantity <= 0) {
-            System.out.println("❌ Quantity must be greater than 0!");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Quantity must be greater than 0!");
             return;
         }
 
-        if (items.containsKey(item)) {
-            items.put(item, items.get(item) + quantity);
-            System.out.println("✅ Updated quantity for " + item.getName());
-        } else {
-            items.put(item, quantity);
-            System.out.println("✅ Added " + item.getName() + " x" + quantity);
+        Integer current = items.get(item);
+        if (current == null) {
+            if (changeLine(item, 0, quantity)) {
+                EventLog.log(EventLog.EventType.ORDER_LINE_ADDED, item.getName(), quantity);
+            }
+        } else if (changeLine(item, current, current + quantity)) {
+            EventLog.log(EventLog.EventType.ORDER_LINE_INCREASED, item.getName());
         }
-        calculateSubtotal();
     }
 
     /**
      * Remove item from order
      */
-    public void removeItem(MenuItem item) {
+    public synchronized void removeItem(MenuItem item) {
         if (item == null) {
-            System.out.println("❌ Cannot remove null item!");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Cannot remove null item!");
             return;
         }
-        if (items.remove(item) != null) {
-            System.out.println("✅ Removed " + item.getName() + " from order");
-            calculateSubtotal();
+        Integer current = items.get(item);
+        if (current != null) {
+            changeLine(item, current, 0);
+            EventLog.log(EventLog.EventType.ORDER_LINE_REMOVED, item.getName());
         } else {
-            System.out.println("❌ Item not found in order");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Item not found in order");
         }
     }
 
     /**
      * Update quantity of an item
      */
-    public void updateQuantity(MenuItem item, int newQuantity) {
+    public synchronized void updateQuantity(MenuItem item, int newQuantity) {
         if (item == null) {
-            System.out.println("❌ Cannot update null item!");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Cannot update null item!");
             return;
         }
         if (newQuantity <= 0) {
-            System.out.println("❌ Quantity must be greater than 0!");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Quantity must be greater than 0!");
             return;
         }
 
-        if (items.containsKey(item)) {
-            items.put(item, newQuantity);
-            System.out.println("✅ Updated " + item.getName() + " quantity to " + newQuantity);
-            calculateSubtotal();
+        Integer current = items.get(item);
+        if (current != null) {
+            if (changeLine(item, current, newQuantity)) {
+                EventLog.log(EventLog.EventType.ORDER_LINE_UPDATED, item.getName(), newQuantity);
+            }
         } else {
-            System.out.println("❌ Item not found in order.");
+            EventLog.log(EventLog.EventType.ORDER_REJECTED, "Item not found in order.");
         }
     }
 
     /**
-     * Calculate subtotal (before discount)
+     * Apply one line change: stock, subtotal, then the delta. Each line keeps the
+     * unit price it was first ordered at, so later changes to it add or take off
+     * exactly what it contributed. Returns false if the extra portions are out of stock.
      */
-    public void calculateSubtotal() {
-        subtotal = 0;
+    private boolean changeLine(MenuItem item, int previous, int quantity) {
+        int change = quantity - previous;
+        if (change == 0) {
+            return true;
+        }
+        // An order already holding its ingredients takes or returns the difference
+        if (stockReserved) {
+            Inventory inventory = inventory();
+            if (change > 0 && !inventory.reserve(item, change)) {
+                EventLog.log(EventLog.EventType.ORDER_REJECTED, "Out of stock: " + item.getName());
+                return false;
+            }
+            if (change < 0) {
+                inventory.restore(item, -change);
+            }
+        }
+
+        long unit = previous == 0 ? toCents(item.getPrice()) : unitPriceCents.get(item);
+        OrderDelta.Type type;
+        if (quantity == 0) {
+            items.remove(item);
+            unitPriceCents.remove(item);
+            type = OrderDelta.Type.LINE_REMOVED;
+        } else {
+            items.put(item, quantity);
+            unitPriceCents.put(item, unit);
+            type = previous == 0 ? OrderDelta.Type.LINE_ADDED : OrderDelta.Type.QUANTITY_CHANGED;
+        }
+        subtotalCents += unit * change;
+        subtotal = subtotalCents / 100.0;
+        if (pricing != null) {
+            discountAmount = discountFor(pricing.price(this, pricedAsElite));
+        }
+        total = subtotal - discountAmount;
+        publish(type, item, previous, quantity, unit);
+        return true;
+    }
+
+    /**
+     * Recalculate the subtotal (before discount) from scratch, repricing every
+     * line at the item's current price
+     */
+    public synchronized void calculateSubtotal() {
+        long cents = 0;
+        unitPriceCents.clear();
         for (Map.Entry<MenuItem, Integer> entry : items.entrySet()) {
-            subtotal += entry.getKey().getPrice() * entry.getValue();
+            long unit = toCents(entry.getKey().getPrice());
+            unitPriceCents.put(entry.getKey(), unit);
+            cents += unit * entry.getValue();
         }
+        subtotalCents = cents;
+        subtotal = cents / 100.0;
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
     }
 
     /**
-     * Apply elite discount if applicable
+     * Apply the pricing and promotion rules; the difference from the
+     * subtotal is recorded as the discount (negative for surcharges). Later
+     * line changes are priced with the same rules, and each one moves the
+     * discount and the total along with the subtotal.
      */
-    public void applyEliteDiscount(boolean isElite, boolean isActive) {
-        if (isElite && isActive) {
-            discountAmount = subtotal * 0.10;
-            System.out.println("✅ Elite discount (10%) applied: EGP " + 
-                             String.format("%.2f", discountAmount));
-        } else {
-            discountAmount = 0;
-            if (isElite && !isActive) {
-                System.out.println("⚠️ Elite membership expired. Renew to get 10% discount!");
-            }
+    public synchronized void applyPricing(PricingEngine engine, boolean isElite, boolean isActive) {
+        pricing = engine;
+        pricedAsElite = isElite && isActive;
+        discountAmount = discountFor(engine.price(this, pricedAsElite));
+        if (discountAmount > 0) {
+            EventLog.log(EventLog.EventType.DISCOUNT_APPLIED, discountAmount);
+        } else if (discountAmount < 0) {
+            EventLog.log(EventLog.EventType.SURCHARGE_APPLIED, -discountAmount);
+        }
+        if (isElite && !isActive) {
+            EventLog.log(EventLog.EventType.ELITE_EXPIRED, engine.getElitePercentOff());
         }
     }
 
+    private double discountFor(double priced) {
+        return Math.round((subtotal - priced) * 100) / 100.0;
+    }
+
+    /**
+     * Put back the discount priced on another node (journal takeover)
+     */
+    void restoreDiscount(double discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
     /**
      * Calculate total (after discount)
      */
-    public void calculateTotal() {
+    public synchronized void calculateTotal() {
         total = subtotal - discountAmount;
     }
 
     /**
      * Update order status
      */
-    public void updateStatus(Status newStatus) {
+    public synchronized void updateStatus(Status newStatus) {
+        Status previous = status;
         status = newStatus;
-        System.out.println("📋 Order status updated to: " + status);
+        // An order that will not be served gives its ingredients back
+        if (newStatus == Status.CANCELLED || newStatus == Status.FAILED) {
+            inventory().restore(this);
+        }
+        EventLog.log(EventLog.EventType.ORDER_STATUS_CHANGED, String.valueOf(status));
+        if (previous != newStatus) {
+            publish(OrderDelta.Type.STATUS_CHANGED, null, 0, 0, 0);
+        }
+    }
+
+    // ==================== DELTA SUBSCRIPTIONS ====================
+
+    /**
+     * Receive this order's deltas from now on
+     */
+    public synchronized void subscribe(OrderListener listener) {
+        if (listeners == null) {
+            listeners = new OrderListener[] {listener};
+            return;
+        }
+        OrderListener[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+        grown[listeners.length] = listener;
+        listeners = grown;
+    }
+
+    public synchronized void unsubscribe(OrderListener listener) {
+        if (listeners == null) {
+            return;
+        }
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    listeners = null;
+                    return;
+                }
+                OrderListener[] shrunk = new OrderListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, shrunk, 0, i);
+                System.arraycopy(listeners, i + 1, shrunk, i, shrunk.length - i);
+                listeners = shrunk;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Current revision: the number of deltas this order has produced
+     */
+    public synchronized long getRevision() {
+        return revision;
+    }
+
+    // ==================== CHANGE TRACKING ====================
+
+    /**
+     * Position of this order's latest change in its branch's change log (0
+     * until the branch takes it)
+     */
+    public long getChangeSequence() {
+        return changeSequence;
+    }
+
+    void setChangeSequence(long changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * The branch that took this order (null before Branch.addOrder)
+     */
+    public Branch getBranch() {
+        return branch;
+    }
+
+    /**
+     * Start tracking this order in its branch's change log and publishing its
+     * deltas to the branch's subscribers (Branch.addOrder)
+     */
+    void attachTo(Branch branch) {
+        this.branch = branch;
+        touch();
+    }
+
+    /**
+     * The stock this order's ingredients are held in: its branch's, or before
+     * the branch has taken it, that of the branch it is being built in
+     */
+    private Inventory inventory() {
+        Branch owner = branch;
+        return owner != null ? owner.getInventory() : RestaurantSystem.getInventory();
+    }
+
+    private void touch() {
+        Branch owner = branch;
+        if (owner != null) {
+            owner.getOrderChanges().changed(this);
+        }
+    }
+
+    private void publish(OrderDelta.Type type, MenuItem item, int previous, int quantity, long unitCents) {
+        revision++;
+        touch();
+        List<OrderListener> branchListeners = branch != null ? branch.getOrderListeners() : List.of();
+        if (listeners == null && branchListeners.isEmpty()) {
+            return;
+        }
+        OrderDelta delta = new OrderDelta(orderId, revision, type, item, previous, quantity,
+                                          unitCents, status, subtotalCents);
+        if (listeners != null) {
+            for (OrderListener listener : listeners) {
+                listener.onOrderDelta(delta);
+            }
+        }
+        for (OrderListener listener : branchListeners) {
+            listener.onOrderDelta(delta);
+        }
     }
 
     /**
      * Get order summary
      */
-    public String getOrderSummary() {
+    public synchronized String getOrderSummary() {
         StringBuilder sb = new StringBuilder();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         
@@ -225,7 +454,7 @@ public class Order implements Serializable {
         for (Map.Entry<MenuItem, Integer> entry : items.entrySet()) {
             MenuItem item = entry.getKey();
             int qty = entry.getValue();
-            double itemTotal = item.getPrice() * qty;
+            double itemTotal = getLineTotalCents(item) / 100.0;
             sb.append(String.format("  - %-25s x%-3d = EGP %7.2f\n", 
                                    item.getName(), qty, itemTotal));
         }
@@ -248,20 +477,6 @@ public class Order implements Serializable {
         return sb.toString();
     }
 
-    /**
-     * Get order counter for resetting
-     */
-    public static int getOrderCounter() {
-        return orderCounter;
-    }
-
-    /**
-     * Set order counter (used when loading from file)
-     */
-    public static void setOrderCounter(int counter) {
-        orderCounter = counter;
-    }
-
     @Override
     public String toString() {
         return "Order #" + orderId + " [" + orderType + ", Status: " + status + 
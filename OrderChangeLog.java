@@ -0,0 +1,69 @@
+package restaurantsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Order change log - a branch's orders indexed by the sequence number of
+ * their latest change, so "what changed since N" is a range read instead of a
+ * walk over every order the branch ever took.
+ *
+ * Each order appears once, under its newest sequence. Sequences are taken
+ * from the log's own clock and indexed under the log's lock, so once cutoff()
+ * returns S every change numbered up to S is already visible in changedBetween.
+ */
+public class OrderChangeLog {
+    private final ConcurrentSkipListMap<Long, Order> bySequence = new ConcurrentSkipListMap<>();
+    private long clock;   // guarded by this
+
+    /**
+     * Re-stamp an order after a change and move it to the head of the log
+     */
+    void changed(Order order) {
+        synchronized (this) {
+            long previous = order.getChangeSequence();
+            long sequence = ++clock;
+            order.setChangeSequence(sequence);
+            if (previous != 0) {
+                bySequence.remove(previous, order);
+            }
+            bySequence.put(sequence, order);
+        }
+    }
+
+    /**
+     * Highest sequence that is completely indexed right now
+     */
+    public synchronized long cutoff() {
+        return clock;
+    }
+
+    /**
+     * Move the clock to at least floor (a watermark persisted by an earlier
+     * process); returns true if it was behind
+     */
+    public synchronized boolean advance(long floor) {
+        if (clock >= floor) {
+            return false;
+        }
+        clock = floor;
+        return true;
+    }
+
+    /**
+     * Orders whose latest change is in (after, upTo], oldest change first.
+     * An order changed again meanwhile moves past upTo and is left for the
+     * next read.
+     */
+    public List<Order> changedBetween(long after, long upTo) {
+        if (after >= upTo) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(bySequence.subMap(after, false, upTo, true).values());
+    }
+
+    public int size() {
+        return bySequence.size();
+    }
+}
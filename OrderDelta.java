@@ -0,0 +1,82 @@
+package restaurantsystem;
+
+/**
+ * OrderDelta class - one amendment to an order, as published to its subscribers.
+ *
+ * A delta describes only the line (or status) that changed plus the order's
+ * running subtotal afterwards, so a kitchen screen or customer display can
+ * apply it without re-reading the order. Revisions count up from 1 per order;
+ * a subscriber that sees a gap has missed a delta.
+ */
+public final class OrderDelta {
+    /**
+     * Delta type enum
+     */
+    public enum Type {
+        LINE_ADDED,
+        QUANTITY_CHANGED,
+        LINE_REMOVED,
+        STATUS_CHANGED
+    }
+
+    private final int orderId;
+    private final long revision;
+    private final Type type;
+    private final MenuItem item;
+    private final int previousQuantity;
+    private final int quantity;
+    private final long unitPriceCents;
+    private final Status status;
+    private final long subtotalCents;
+
+    OrderDelta(int orderId, long revision, Type type, MenuItem item, int previousQuantity,
+               int quantity, long unitPriceCents, Status status, long subtotalCents) {
+        this.orderId = orderId;
+        this.revision = revision;
+        this.type = type;
+        this.item = item;
+        this.previousQuantity = previousQuantity;
+        this.quantity = quantity;
+        this.unitPriceCents = unitPriceCents;
+        this.status = status;
+        this.subtotalCents = subtotalCents;
+    }
+
+    public int getOrderId() { return orderId; }
+    public long getRevision() { return revision; }
+    public Type getType() { return type; }
+
+    /**
+     * The line's item (null for STATUS_CHANGED)
+     */
+    public MenuItem getItem() { return item; }
+
+    public int getPreviousQuantity() { return previousQuantity; }
+
+    /**
+     * Quantity after the change (0 for LINE_REMOVED)
+     */
+    public int getQuantity() { return quantity; }
+
+    /**
+     * Portions added (positive) or taken off (negative) by this delta
+     */
+    public int getQuantityChange() { return quantity - previousQuantity; }
+
+    public double getUnitPrice() { return unitPriceCents / 100.0; }
+    public Status getStatus() { return status; }
+
+    /**
+     * Order subtotal after this delta
+     */
+    public double getSubtotal() { return subtotalCents / 100.0; }
+
+    @Override
+    public String toString() {
+        String change = type == Type.STATUS_CHANGED
+            ? String.valueOf(status)
+            : item.getName() + " " + previousQuantity + "->" + quantity;
+        return "Order #" + orderId + " r" + revision + " " + type + " " + change
+               + String.format(" (subtotal EGP %.2f)", getSubtotal());
+    }
+}
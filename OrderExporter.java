@@ -0,0 +1,493 @@
+package restaurantsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order exporter - feeds accounting an append-only file of finished orders
+ * and their payments, one run every few minutes.
+ *
+ * Each run writes the orders that finished or changed since the previous
+ * run (read from the branch's OrderChangeLog up to a cut-off), as CSV rows or
+ * JSON lines; an order that changes again is written again with its new
+ * change_seq, so the latest row per order_id is its current state. Pending
+ * orders are left out until they complete, fail or are cancelled.
+ *
+ * The watermark (last change sequence exported), the length of the file
+ * that holds exactly those rows and the highest order id written are saved
+ * together in a small state file,
+ * replaced atomically after the data is forced to disk. A run that dies
+ * half-way leaves the old state behind; the next run cuts the file back to
+ * the saved length and exports the same range again, so nothing is lost or
+ * written twice. Change sequences and order ids restart with the process,
+ * so opening an exporter moves the clock past the saved watermark and the
+ * order counter past the highest id in the file (a new order never reuses
+ * an old one's id), and the first run in a new process takes every change
+ * the process has seen.
+ *
+ * Rows are encoded straight into one reused buffer; no strings are built
+ * per order.
+ */
+public class OrderExporter {
+    public enum Format { CSV, JSON }
+
+    private static final byte[] CSV_HEADER = ("change_seq,order_id,branch,order_date,type,status,customer_id,"
+            + "table,items,item_count,subtotal,discount,total,payment_method,paid,payment_status,cashier_id\n")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Branch branch;
+    private final Format format;
+    private final Path dataFile;
+    private final Path stateFile;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private FileChannel channel;
+    private boolean newProcess;
+    private ScheduledExecutorService scheduler;
+
+    public OrderExporter(Branch branch, Path directory, Format format) throws IOException {
+        this.branch = branch;
+        this.format = format;
+        Files.createDirectories(directory);
+        String base = "orders-" + branch.getId().toLowerCase();
+        this.dataFile = directory.resolve(base + (format == Format.CSV ? ".csv" : ".jsonl"));
+        this.stateFile = directory.resolve(base + ".state");
+        // The change clock and order ids restart with the process; move them
+        // past the saved state so later changes sort after it and new orders
+        // get ids of their own
+        long[] state = readState();
+        this.newProcess = branch.getOrderChanges().advance(state[0]);
+        branch.advanceOrderCounter((int) state[2] + 1);
+    }
+
+    // ==================== RUNS ====================
+
+    /**
+     * Export everything that finished or changed since the last run; returns
+     * the number of orders written
+     */
+    public synchronized int exportChanges() throws IOException {
+        long[] state = readState();
+        long watermark = state[0];
+        long committedBytes = state[1];
+        long highestOrderId = state[2];
+        if (newProcess) {
+            // Every order this process knows changed after the last run, even
+            // those stamped before the clock was moved past the watermark
+            watermark = 0;
+        }
+
+        if (channel == null) {
+            channel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        long size = channel.size();
+        if (size < committedBytes) {
+            throw new IOException(dataFile + " is shorter than its export state (" + size + " < "
+                                  + committedBytes + " bytes); restore it or delete " + stateFile);
+        }
+        if (size > committedBytes) {
+            channel.truncate(committedBytes);   // rows of a run that never committed
+        }
+        channel.position(committedBytes);
+        buffer.clear();
+        if (committedBytes == 0 && format == Format.CSV) {
+            buffer.put(CSV_HEADER);
+        }
+
+        OrderChangeLog log = branch.getOrderChanges();
+        long cutoff = log.cutoff();
+        List<Order> changed = log.changedBetween(watermark, cutoff);
+        int written = 0;
+        for (Order order : changed) {
+            synchronized (order) {
+                if (order.getStatus() == Status.PENDING && order.getPayment() == null) {
+                    continue;
+                }
+                if (format == Format.CSV) {
+                    writeCsv(order);
+                } else {
+                    writeJson(order);
+                }
+            }
+            highestOrderId = Math.max(highestOrderId, order.getOrderId());
+            written++;
+        }
+        drain();
+        channel.force(false);
+        writeState(cutoff, channel.position(), highestOrderId);
+        newProcess = false;
+        return written;
+    }
+
+    /**
+     * Run exportChanges every periodMinutes on a background thread (the
+     * first run straight away); failures are logged and retried next period
+     */
+    public synchronized ScheduledFuture<?> schedule(long periodMinutes) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "order-export-" + branch.getId());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return scheduler.scheduleAtFixedRate(() -> {
+            try {
+                int written = exportChanges();
+                EventLog.log(EventLog.EventType.ORDERS_EXPORTED, dataFile.getFileName().toString(), written);
+            } catch (IOException | RuntimeException e) {
+                EventLog.log(EventLog.EventType.EXPORT_FAILED, e.getMessage());
+            }
+        }, 0, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stop the scheduled runs and close the file
+     */
+    public synchronized void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public Path getDataFile() { return dataFile; }
+    public Path getStateFile() { return stateFile; }
+
+    /**
+     * Last change sequence exported (0 before the first run)
+     */
+    public synchronized long getWatermark() throws IOException {
+        return readState()[0];
+    }
+
+    // ==================== STATE ====================
+
+    /**
+     * {watermark, committed bytes, highest order id}; files saved before the
+     * order id was kept have no third field
+     */
+    private long[] readState() throws IOException {
+        if (!Files.exists(stateFile)) {
+            return new long[] {0, 0, 0};
+        }
+        String[] parts = Files.readString(stateFile, StandardCharsets.UTF_8).trim().split("\\s+");
+        try {
+            return new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                               parts.length > 2 ? Long.parseLong(parts[2]) : 0};
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt export state in " + stateFile);
+        }
+    }
+
+    private void writeState(long watermark, long committedBytes, long highestOrderId) throws IOException {
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap((watermark + " " + committedBytes + " " + highestOrderId + "\n").getBytes(StandardCharsets.US_ASCII)));
+            out.force(false);
+        }
+        Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ==================== ROWS ====================
+
+    private void writeCsv(Order order) throws IOException {
+        Payment payment = order.getPayment();
+        putLong(order.getChangeSequence());
+        put(',');
+        putLong(order.getOrderId());
+        put(',');
+        putCsv(branch.getId());
+        put(',');
+        putDate(order.getOrderDate());
+        put(',');
+        putAscii(order.getOrderType().name());
+        put(',');
+        putAscii(order.getStatus().name());
+        put(',');
+        putCsv(order.getCustomerId());
+        put(',');
+        if (order.getTable() != null) {
+            putLong(order.getTable().getTableNumber());
+        }
+        put(',');
+        // Lines as "Burger x2|Cola x1", quoted only if a name needs it
+        boolean quote = false;
+        for (MenuItem item : order.getItems().keySet()) {
+            quote |= needsQuotes(item.getName()) || item.getName().indexOf('|') >= 0;
+        }
+        if (quote) {
+            put('"');
+        }
+        int count = 0;
+        boolean first = true;
+        for (Map.Entry<MenuItem, Integer> line : order.getItems().entrySet()) {
+            if (!first) {
+                put('|');
+            }
+            first = false;
+            putText(line.getKey().getName(), quote ? '"' : 0);
+            putAscii(" x");
+            putLong(line.getValue());
+            count += line.getValue();
+        }
+        if (quote) {
+            put('"');
+        }
+        put(',');
+        putLong(count);
+        put(',');
+        putMoney(order.getSubtotal());
+        put(',');
+        putMoney(order.getDiscountAmount());
+        put(',');
+        putMoney(order.getTotal());
+        put(',');
+        if (payment != null) {
+            putAscii(payment.getPaymentMethod().name());
+            put(',');
+            putMoney(payment.getAmount());
+            put(',');
+            putAscii(payment.getStatus().name());
+            put(',');
+            putCsv(payment.getCashierId());
+        } else {
+            putAscii(",,,");
+        }
+        put('\n');
+    }
+
+    private void writeJson(Order order) throws IOException {
+        Payment payment = order.getPayment();
+        putAscii("{\"changeSeq\":");
+        putLong(order.getChangeSequence());
+        putAscii(",\"orderId\":");
+        putLong(order.getOrderId());
+        putAscii(",\"branch\":");
+        putJson(branch.getId());
+        putAscii(",\"orderDate\":\"");
+        putDate(order.getOrderDate());
+        putAscii("\",\"type\":\"");
+        putAscii(order.getOrderType().name());
+        putAscii("\",\"status\":\"");
+        putAscii(order.getStatus().name());
+        putAscii("\",\"customerId\":");
+        putJson(order.getCustomerId());
+        putAscii(",\"table\":");
+        if (order.getTable() != null) {
+            putLong(order.getTable().getTableNumber());
+        } else {
+            putAscii("null");
+        }
+        putAscii(",\"items\":[");
+        int count = 0;
+        boolean first = true;
+        for (Map.Entry<MenuItem, Integer> line : order.getItems().entrySet()) {
+            putAscii(first ? "{\"name\":" : ",{\"name\":");
+            first = false;
+            putJson(line.getKey().getName());
+            putAscii(",\"quantity\":");
+            putLong(line.getValue());
+            put('}');
+            count += line.getValue();
+        }
+        putAscii("],\"itemCount\":");
+        putLong(count);
+        putAscii(",\"subtotal\":");
+        putMoney(order.getSubtotal());
+        putAscii(",\"discount\":");
+        putMoney(order.getDiscountAmount());
+        putAscii(",\"total\":");
+        putMoney(order.getTotal());
+        if (payment != null) {
+            putAscii(",\"payment\":{\"method\":\"");
+            putAscii(payment.getPaymentMethod().name());
+            putAscii("\",\"paid\":");
+            putMoney(payment.getAmount());
+            putAscii(",\"status\":\"");
+            putAscii(payment.getStatus().name());
+            putAscii("\",\"cashierId\":");
+            putJson(payment.getCashierId());
+            put('}');
+        } else {
+            putAscii(",\"payment\":null");
+        }
+        putAscii("}\n");
+    }
+
+    // ==================== ENCODING ====================
+
+    private void put(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) c);
+    }
+
+    private void putAscii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            put(s.charAt(i));
+        }
+    }
+
+    private void putLong(long value) throws IOException {
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        if (value >= 10) {
+            putLong(value / 10);
+        }
+        put((char) ('0' + value % 10));
+    }
+
+    /**
+     * Two decimals, rounded to the cent
+     */
+    private void putMoney(double amount) throws IOException {
+        long cents = Math.round(amount * 100);
+        if (cents < 0) {
+            put('-');
+            cents = -cents;
+        }
+        putLong(cents / 100);
+        put('.');
+        put((char) ('0' + cents / 10 % 10));
+        put((char) ('0' + cents % 10));
+    }
+
+    /**
+     * ISO-8601 local date-time to the second: 2024-05-01T19:42:07
+     */
+    private void putDate(LocalDateTime date) throws IOException {
+        putPadded(date.getYear(), 4);
+        put('-');
+        putPadded(date.getMonthValue(), 2);
+        put('-');
+        putPadded(date.getDayOfMonth(), 2);
+        put('T');
+        putPadded(date.getHour(), 2);
+        put(':');
+        putPadded(date.getMinute(), 2);
+        put(':');
+        putPadded(date.getSecond(), 2);
+    }
+
+    private void putPadded(int value, int digits) throws IOException {
+        for (int divisor = (int) Math.pow(10, digits - 1); divisor > 0; divisor /= 10) {
+            put((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private void putCsv(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (needsQuotes(value)) {
+            put('"');
+            putText(value, '"');
+            put('"');
+        } else {
+            putText(value, (char) 0);
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putJson(String value) throws IOException {
+        if (value == null) {
+            putAscii("null");
+            return;
+        }
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+                put(c);
+            } else if (c < 0x20) {
+                putAscii("\\u00");
+                put(Character.forDigit(c >> 4, 16));
+                put(Character.forDigit(c & 15, 16));
+            } else {
+                putChar(value, i);
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                    i++;
+                }
+            }
+        }
+        put('"');
+    }
+
+    /**
+     * UTF-8 text, doubling the given quote character (0 for none)
+     */
+    private void putText(String value, char quote) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (quote != 0 && c == quote) {
+                put(c);
+            }
+            putChar(value, i);
+            if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                i++;
+            }
+        }
+    }
+
+    private void putChar(String value, int index) throws IOException {
+        int cp = value.codePointAt(index);
+        if (cp < 0x80) {
+            put((char) cp);
+            return;
+        }
+        if (buffer.remaining() < 4) {
+            drain();
+        }
+        if (cp < 0x800) {
+            buffer.put((byte) (0xC0 | cp >> 6));
+        } else {
+            if (cp < 0x10000) {
+                buffer.put((byte) (0xE0 | cp >> 12));
+            } else {
+                buffer.put((byte) (0xF0 | cp >> 18));
+                buffer.put((byte) (0x80 | cp >> 12 & 0x3F));
+            }
+            buffer.put((byte) (0x80 | cp >> 6 & 0x3F));
+        }
+        buffer.put((byte) (0x80 | cp & 0x3F));
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package restaurantsystem;
+
+/**
+ * OrderListener interface - receives the deltas of the orders it subscribes to.
+ *
+ * Listeners run on the thread that amended the order, after the change has
+ * been applied, so they should hand off anything slow.
+ */
+@FunctionalInterface
+public interface OrderListener {
+    void onOrderDelta(OrderDelta delta);
+}
@@ -17,6 +17,7 @@ public class Payment {
     private PaymentMethod paymentMethod;
     private Status status;
     private int orderId;
+    private String cashierId;
 
     public Payment(double amount, PaymentMethod paymentMethod, int orderId) {
         this.amount = amount;
@@ -54,10 +55,18 @@ public class Payment {
         return orderId;
     }
 
+    public String getCashierId() {
+        return cashierId;
+    }
+
+    public void setCashierId(String cashierId) {
+        this.cashierId = cashierId;
+    }
+
     // ==================== STATIC METHODS ====================
     
     /**
-     * Process payment for order (static helper)
+     * Process payment for order (static helper); a declined payment fails the order
      */
     public static void processPayment(Order order, Scanner scanner) {
         System.out.println("\n--- PAYMENT ---");
@@ -71,10 +80,10 @@ public class Payment {
 
         int choice;
         try {
-            choice = scanner.nextInt();
-            scanner.nextLine();
+            choice = Prompt.readInt(scanner);
+            Prompt.readLine(scanner);
         } catch (InputMismatchException e) {
-            scanner.nextLine();
+            Prompt.readLine(scanner);
             choice = 1;
         }
 
@@ -90,10 +99,10 @@ public class Payment {
         System.out.print("\nEnter payment amount: EGP ");
         double amount;
         try {
-            amount = scanner.nextDouble();
-            scanner.nextLine();
+            amount = Prompt.readDouble(scanner);
+            Prompt.readLine(scanner);
         } catch (InputMismatchException e) {
-            scanner.nextLine();
+            Prompt.readLine(scanner);
             amount = order.getTotal();
         }
 
@@ -102,6 +111,9 @@ public class Payment {
         
         if (payment.getStatus() == Status.COMPLETE) {
             order.setPayment(payment);
+            order.updateStatus(Status.COMPLETE);
+        } else {
+            order.updateStatus(Status.FAILED);   // gives its stock back
         }
     }
     
@@ -109,28 +121,31 @@ public class Payment {
 
     public boolean validatePayment(double orderTotal) {
         if (this.amount < orderTotal) {
-            System.out.println("❌ Insufficient payment! Required: EGP " + orderTotal + 
-                             ", Provided: EGP " + amount);
+            EventLog.log(EventLog.EventType.PAYMENT_INSUFFICIENT, orderTotal, amount);
             return false;
         }
-        System.out.println("✅ Payment validated.");
+        EventLog.log(EventLog.EventType.PAYMENT_VALIDATED);
         return true;
     }
 
     public boolean processPayment(double orderTotal) {
         if (validatePayment(orderTotal)) {
             this.status = Status.COMPLETE;
-            System.out.println("✅ Payment of EGP " + amount + " via " + paymentMethod + 
-                             " completed!");
+            EventLog.log(EventLog.EventType.PAYMENT_COMPLETED, String.valueOf(paymentMethod), amount);
             
             if (amount > orderTotal) {
-                double change = amount - orderTotal;
-                System.out.println("💰 Change: EGP " + String.format("%.2f", change));
+                EventLog.log(EventLog.EventType.PAYMENT_CHANGE, amount - orderTotal);
+            }
+            RestaurantSystem.getLedger().recordPayment(this, orderTotal);
+            OrderJournal journal = RestaurantSystem.getBranch().getJournal();
+            if (journal != null) {
+                journal.paymentAccepted(this);
             }
             return true;
         } else {
             this.status = Status.FAILED;
-            System.out.println("❌ Payment failed!");
+            Metrics.FAILED_PAYMENTS.increment();
+            EventLog.log(EventLog.EventType.PAYMENT_FAILED);
             return false;
         }
     }
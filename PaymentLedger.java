@@ -0,0 +1,320 @@
+package restaurantsystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Append-only, double-entry payment ledger.
+ *
+ * Every successful payment posts one balanced journal: the tender account of the
+ * payment method is debited with the amount tendered, SALES is credited with the
+ * order total and CHANGE is credited with the change handed back. Entries are
+ * collected in a pending batch and appended sequentially to the journal file, when
+ * one is configured. Each flushed batch is also folded into running totals per
+ * cashier, so closing a shift reads those totals instead of re-walking the journal,
+ * and the entries it settles are dropped from memory (the file keeps them).
+ */
+public class PaymentLedger {
+    /**
+     * Ledger account enum
+     */
+    public enum Account {
+        TENDER,
+        SALES,
+        CHANGE
+    }
+
+    /**
+     * One immutable line of a journal
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final LocalDateTime timestamp;
+        private final int orderId;
+        private final String cashierId;
+        private final Payment.PaymentMethod method;
+        private final Account account;
+        private final double debit;
+        private final double credit;
+
+        Entry(long sequence, LocalDateTime timestamp, int orderId, String cashierId,
+              Payment.PaymentMethod method, Account account, double debit, double credit) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.orderId = orderId;
+            this.cashierId = cashierId;
+            this.method = method;
+            this.account = account;
+            this.debit = debit;
+            this.credit = credit;
+        }
+
+        public long getSequence() { return sequence; }
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public int getOrderId() { return orderId; }
+        public String getCashierId() { return cashierId; }
+        public Payment.PaymentMethod getMethod() { return method; }
+        public Account getAccount() { return account; }
+        public double getDebit() { return debit; }
+        public double getCredit() { return credit; }
+
+        String toCsv() {
+            return sequence + "," + timestamp + "," + orderId + "," +
+                   (cashierId != null ? cashierId : "") + "," + method + "," + account + "," +
+                   String.format("%.2f", debit) + "," + String.format("%.2f", credit);
+        }
+    }
+
+    /**
+     * Settlement totals for one payment method or one cashier
+     */
+    public static final class Settlement {
+        private final String key;
+        private int paymentCount;
+        private double tendered;
+        private double change;
+        private double sales;
+
+        Settlement(String key) {
+            this.key = key;
+        }
+
+        void add(Settlement other) {
+            paymentCount += other.paymentCount;
+            tendered += other.tendered;
+            change += other.change;
+            sales += other.sales;
+        }
+
+        public String getKey() { return key; }
+        public int getPaymentCount() { return paymentCount; }
+        public double getTendered() { return tendered; }
+        public double getChange() { return change; }
+        public double getSales() { return sales; }
+
+        @Override
+        public String toString() {
+            return String.format("%-15s | %4d payments | Tendered: EGP %9.2f | Change: EGP %8.2f | Net: EGP %9.2f",
+                                 key, paymentCount, tendered, change, sales);
+        }
+    }
+
+    /**
+     * Result of closing a shift: settlement per method and per cashier
+     */
+    public static final class ShiftReport {
+        private final LocalDateTime closedAt;
+        private final long fromSequence;
+        private final long toSequence;
+        private final Map<Payment.PaymentMethod, Settlement> byMethod;
+        private final Map<String, Settlement> byCashier;
+
+        ShiftReport(LocalDateTime closedAt, long fromSequence, long toSequence,
+                    Map<Payment.PaymentMethod, Settlement> byMethod,
+                    Map<String, Settlement> byCashier) {
+            this.closedAt = closedAt;
+            this.fromSequence = fromSequence;
+            this.toSequence = toSequence;
+            this.byMethod = byMethod;
+            this.byCashier = byCashier;
+        }
+
+        public LocalDateTime getClosedAt() { return closedAt; }
+        public Map<Payment.PaymentMethod, Settlement> getByMethod() { return byMethod; }
+        public Map<String, Settlement> getByCashier() { return byCashier; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("\n").append("=".repeat(90)).append("\n");
+            sb.append("                              SHIFT SETTLEMENT\n");
+            sb.append("=".repeat(90)).append("\n");
+            sb.append("Closed: ").append(closedAt).append(" | Journal entries ");
+            if (fromSequence > toSequence) {
+                sb.append("none");
+            } else {
+                sb.append(fromSequence).append(" - ").append(toSequence);
+            }
+            sb.append("\n");
+            sb.append("-".repeat(90)).append("\n");
+            sb.append("By payment method:\n");
+            for (Settlement s : byMethod.values()) {
+                sb.append("  ").append(s).append("\n");
+            }
+            sb.append("-".repeat(90)).append("\n");
+            sb.append("By cashier:\n");
+            for (Settlement s : byCashier.values()) {
+                sb.append("  ").append(s).append("\n");
+            }
+            sb.append("=".repeat(90)).append("\n");
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Flushed entries of one cashier (or ONLINE) not yet settled, with their running totals
+     */
+    private static final class OpenShift {
+        final ArrayList<Entry> entries = new ArrayList<>();
+        final Map<Payment.PaymentMethod, Settlement> byMethod = new EnumMap<>(Payment.PaymentMethod.class);
+        final Settlement total;
+
+        OpenShift(String cashierKey) {
+            this.total = new Settlement(cashierKey);
+        }
+
+        void add(Entry entry) {
+            entries.add(entry);
+            post(byMethod.computeIfAbsent(entry.getMethod(), m -> new Settlement(m.name())), entry);
+            post(total, entry);
+        }
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final String ONLINE = "ONLINE";
+
+    private final ArrayList<Entry> pending = new ArrayList<>();
+    private final TreeMap<String, OpenShift> open = new TreeMap<>();
+    private final ArrayList<ShiftReport> settlements = new ArrayList<>();
+    private final int batchSize;
+    private final Path journalFile;
+    private long nextSequence = 1;
+
+    public PaymentLedger() {
+        this(DEFAULT_BATCH_SIZE, null);
+    }
+
+    /**
+     * @param batchSize   number of entries buffered before they are appended to the journal
+     * @param journalFile optional CSV file the journal is appended to, or null for memory only
+     */
+    public PaymentLedger(int batchSize, Path journalFile) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.batchSize = batchSize;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Post a completed payment as one balanced journal
+     */
+    public synchronized void recordPayment(Payment payment, double orderTotal) {
+        LocalDateTime now = LocalDateTime.now();
+        double tendered = payment.getAmount();
+        double change = Math.max(0, tendered - orderTotal);
+
+        pending.add(new Entry(nextSequence++, now, payment.getOrderId(), payment.getCashierId(),
+                              payment.getPaymentMethod(), Account.TENDER, tendered, 0));
+        pending.add(new Entry(nextSequence++, now, payment.getOrderId(), payment.getCashierId(),
+                              payment.getPaymentMethod(), Account.SALES, 0, tendered - change));
+        if (change > 0) {
+            pending.add(new Entry(nextSequence++, now, payment.getOrderId(), payment.getCashierId(),
+                                  payment.getPaymentMethod(), Account.CHANGE, 0, change));
+        }
+
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Append the pending batch to the journal file and fold it into the open totals
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (journalFile != null) {
+            try (BufferedWriter writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Entry entry : pending) {
+                    writer.write(entry.toCsv());
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                // Keep the batch pending so the next flush retries it
+                EventLog.log(EventLog.EventType.PAYMENT_JOURNAL_FAILED, e.getMessage());
+                return;
+            }
+        }
+        for (Entry entry : pending) {
+            String cashierKey = entry.getCashierId() != null ? entry.getCashierId() : ONLINE;
+            open.computeIfAbsent(cashierKey, OpenShift::new).add(entry);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Close the branch's shift: settle every entry posted since the last
+     * close, except those already settled by their cashier
+     */
+    public synchronized ShiftReport closeShift() {
+        flush();
+        List<OpenShift> shifts = new ArrayList<>(open.values());
+        open.clear();
+        return settle(shifts);
+    }
+
+    /**
+     * Close one cashier's shift: settle only that cashier's entries posted
+     * since they (or the branch) last closed
+     */
+    public synchronized ShiftReport closeShift(String cashierId) {
+        flush();
+        OpenShift shift = open.remove(Objects.requireNonNull(cashierId));
+        return settle(shift == null ? List.of() : List.of(shift));
+    }
+
+    private ShiftReport settle(List<OpenShift> shifts) {
+        Map<Payment.PaymentMethod, Settlement> byMethod = new EnumMap<>(Payment.PaymentMethod.class);
+        Map<String, Settlement> byCashier = new TreeMap<>();
+        long fromSequence = nextSequence;
+        long toSequence = 0;
+        for (OpenShift shift : shifts) {
+            for (Map.Entry<Payment.PaymentMethod, Settlement> method : shift.byMethod.entrySet()) {
+                byMethod.computeIfAbsent(method.getKey(), m -> new Settlement(m.name())).add(method.getValue());
+            }
+            byCashier.put(shift.total.getKey(), shift.total);
+            fromSequence = Math.min(fromSequence, shift.entries.get(0).getSequence());
+            toSequence = Math.max(toSequence, shift.entries.get(shift.entries.size() - 1).getSequence());
+        }
+
+        ShiftReport report = new ShiftReport(LocalDateTime.now(), fromSequence, toSequence, byMethod, byCashier);
+        settlements.add(report);
+        return report;
+    }
+
+    private static void post(Settlement settlement, Entry entry) {
+        switch (entry.getAccount()) {
+            case TENDER -> {
+                settlement.paymentCount++;
+                settlement.tendered += entry.getDebit();
+            }
+            case SALES -> settlement.sales += entry.getCredit();
+            case CHANGE -> settlement.change += entry.getCredit();
+        }
+    }
+
+    /**
+     * Flushed entries not yet settled, in posting order (settled ones are only in the journal file)
+     */
+    public synchronized List<Entry> getJournal() {
+        List<Entry> entries = new ArrayList<>();
+        for (OpenShift shift : open.values()) {
+            entries.addAll(shift.entries);
+        }
+        entries.sort(Comparator.comparingLong(Entry::getSequence));
+        return Collections.unmodifiableList(entries);
+    }
+
+    public synchronized List<ShiftReport> getSettlements() {
+        return Collections.unmodifiableList(new ArrayList<>(settlements));
+    }
+}
@@ -66,9 +66,8 @@ public abstract class Person implements Serializable {
      * Login method to authenticate user
      */
     public boolean login(String inputId, String inputPassword) {
-        if (this.id != null && this.id.equalsIgnoreCase(inputId) && 
-            this.password != null && this.password.equals(inputPassword)) {
-            System.out.println("✅ Login successful! Welcome, " + name);
+        if (authenticate(inputId, inputPassword)) {
+            welcome();
             return true;
         } else {
             System.out.println("❌ Invalid ID or password.");
@@ -76,13 +75,30 @@ public abstract class Person implements Serializable {
         }
     }
 
+    /**
+     * Check the credentials without printing anything
+     */
+    public boolean authenticate(String inputId, String inputPassword) {
+        String id = getId();
+        String password = getPassword();
+        return id != null && id.equalsIgnoreCase(inputId) &&
+               password != null && password.equals(inputPassword);
+    }
+
+    /**
+     * Greeting shown after a successful login
+     */
+    void welcome() {
+        System.out.println("✅ Login successful! Welcome, " + getName());
+    }
+
     /**
      * Update personal information
      */
     public void updateInfo(String newName, String newEmail, String newPhone) {
-        this.name = newName;
-        this.email = newEmail;
-        this.phoneNumber = newPhone;
+        setName(newName);
+        setEmail(newEmail);
+        setPhoneNumber(newPhone);
         System.out.println("✅ Information updated successfully!");
     }
 
@@ -90,10 +106,10 @@ public abstract class Person implements Serializable {
      * Get details of the person
      */
     public String getDetails() {
-        return "ID: " + id +
-               "\nName: " + name +
-               "\nEmail: " + email +
-               "\nPhone: " + phoneNumber;
+        return "ID: " + getId() +
+               "\nName: " + getName() +
+               "\nEmail: " + getEmail() +
+               "\nPhone: " + getPhoneNumber();
     }
 
     @Override
@@ -0,0 +1,296 @@
+package restaurantsystem;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Pricing engine - compiles the active PricingRules into lookup tables once per
+ * rule change and prices an order's lines against them.
+ *
+ * Evaluation reads only the immutable compiled snapshot and a per-thread scratch
+ * area, so pricing an order allocates nothing and never blocks rule edits.
+ */
+public class PricingEngine {
+    private static final PricingRule.PriceOverride[] NO_OVERRIDES = new PricingRule.PriceOverride[0];
+    private static final PricingRule.CategoryDiscount[] NO_DISCOUNTS = new PricingRule.CategoryDiscount[0];
+    private static final PricingRule.BuyXGetY[] NO_DEALS = new PricingRule.BuyXGetY[0];
+
+    private final ArrayList<PricingRule> rules = new ArrayList<>();
+    private volatile Compiled compiled = new Compiled(Collections.emptyList());
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Engine with the rule set the restaurant has always had: 10% for active elite members
+     */
+    public static PricingEngine withDefaultRules() {
+        PricingEngine engine = new PricingEngine();
+        engine.addRule(PricingRule.eliteDiscount("Elite 10%", 100, 10));
+        return engine;
+    }
+
+    // ==================== RULE MANAGEMENT ====================
+
+    public synchronized void addRule(PricingRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule cannot be null");
+        }
+        if (findRule(rule.getName()) != null) {
+            throw new IllegalArgumentException("Rule '" + rule.getName() + "' already exists");
+        }
+        rules.add(rule);
+        recompile();
+    }
+
+    public synchronized boolean removeRule(String name) {
+        PricingRule rule = findRule(name);
+        if (rule == null) {
+            return false;
+        }
+        rules.remove(rule);
+        recompile();
+        return true;
+    }
+
+    public synchronized boolean setRuleActive(String name, boolean active) {
+        PricingRule rule = findRule(name);
+        if (rule == null) {
+            return false;
+        }
+        rule.setActive(active);
+        recompile();
+        return true;
+    }
+
+    public synchronized List<PricingRule> getRules() {
+        return Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    /**
+     * What the active elite rules take off an order, in percent (0 if there are none)
+     */
+    public double getElitePercentOff() {
+        return Math.round((1 - compiled.eliteFactor) * 10_000) / 100.0;
+    }
+
+    private PricingRule findRule(String name) {
+        for (PricingRule rule : rules) {
+            if (rule.getName().equalsIgnoreCase(name)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private void recompile() {
+        ArrayList<PricingRule> active = new ArrayList<>();
+        for (PricingRule rule : rules) {
+            if (rule.isActive()) {
+                active.add(rule);
+            }
+        }
+        // Stable sort: equal priorities keep insertion order
+        active.sort(Comparator.comparingInt(PricingRule::getPriority));
+        compiled = new Compiled(active);
+    }
+
+    // ==================== EVALUATION ====================
+
+    /**
+     * Price the lines of an order and return the payable total (before rounding)
+     */
+    public double price(Order order, boolean eliteActive) {
+        LocalTime time = order.getOrderDate().toLocalTime();
+        return price(order.getItems(), order.getOrderType(), time.getHour() * 60 + time.getMinute(),
+                     eliteActive);
+    }
+
+    public double price(Map<MenuItem, Integer> lines, Systemmode mode, int minuteOfDay,
+                        boolean eliteActive) {
+        Compiled c = compiled;
+        Scratch s = scratch.get();
+        s.reset(c.slotCount);
+
+        double total = 0;
+        for (Map.Entry<MenuItem, Integer> line : lines.entrySet()) {
+            MenuItem item = line.getKey();
+            int qty = line.getValue();
+            double unit = item.getPrice();
+
+            // Stage 1: first matching override wins, item rules before category rules
+            boolean overridden = false;
+            for (PricingRule.PriceOverride rule : c.overridesByItem.getOrDefault(item.getName(), NO_OVERRIDES)) {
+                if (rule.appliesAt(minuteOfDay)) {
+                    unit = rule.apply(unit);
+                    overridden = true;
+                    break;
+                }
+            }
+            if (!overridden) {
+                for (PricingRule.PriceOverride rule :
+                        c.overridesByCategory.getOrDefault(item.getCategory(), NO_OVERRIDES)) {
+                    if (rule.appliesAt(minuteOfDay)) {
+                        unit = rule.apply(unit);
+                        break;
+                    }
+                }
+            }
+
+            // Stage 2: category discounts stack multiplicatively
+            for (PricingRule.CategoryDiscount rule :
+                    c.discountsByCategory.getOrDefault(item.getCategory(), NO_DISCOUNTS)) {
+                unit *= rule.factor;
+            }
+
+            // Stage 3a: buy-X-get-Y, first matching deal only
+            int payable = qty;
+            int bundled = 0;
+            PricingRule.BuyXGetY[] deals = c.dealsByItem.getOrDefault(item.getName(), NO_DEALS);
+            if (deals.length > 0) {
+                PricingRule.BuyXGetY deal = deals[0];
+                int groups = qty / (deal.buyQty + deal.freeQty);
+                payable -= groups * deal.freeQty;
+                bundled = groups * (deal.buyQty + deal.freeQty);
+            }
+            total += unit * payable;
+
+            Integer slot = c.comboSlots.get(item.getName());
+            if (slot != null) {
+                s.remaining[slot] += qty - bundled;
+                s.unitPrice[slot] = unit;
+            }
+        }
+
+        // Stage 3b: combos consume the units left over after deals, in rule order
+        for (int i = 0; i < c.combos.length; i++) {
+            int[] components = c.comboComponents[i];
+            int[] multiplicity = c.comboMultiplicity[i];
+            int count = Integer.MAX_VALUE;
+            double separate = 0;
+            for (int j = 0; j < components.length; j++) {
+                count = Math.min(count, s.remaining[components[j]] / multiplicity[j]);
+                separate += s.unitPrice[components[j]] * multiplicity[j];
+            }
+            double saving = separate - c.combos[i].bundlePrice;
+            if (count > 0 && saving > 0) {
+                total -= saving * count;
+                for (int j = 0; j < components.length; j++) {
+                    s.remaining[components[j]] -= count * multiplicity[j];
+                }
+            }
+        }
+
+        // Stage 4: order-level adjustments
+        for (PricingRule rule : c.orderRules) {
+            if (rule instanceof PricingRule.ModeAdjustment adjustment) {
+                if (adjustment.mode == mode) {
+                    total *= adjustment.factor;
+                }
+            } else if (rule instanceof PricingRule.EliteDiscount elite) {
+                if (eliteActive) {
+                    total *= elite.factor;
+                }
+            }
+        }
+
+        return Math.max(0, total);
+    }
+
+    /**
+     * Immutable decision tables built from the active rules
+     */
+    private static final class Compiled {
+        final Map<String, PricingRule.PriceOverride[]> overridesByItem = caseInsensitiveMap();
+        final Map<String, PricingRule.PriceOverride[]> overridesByCategory = caseInsensitiveMap();
+        final Map<String, PricingRule.CategoryDiscount[]> discountsByCategory = caseInsensitiveMap();
+        final Map<String, PricingRule.BuyXGetY[]> dealsByItem = caseInsensitiveMap();
+        final Map<String, Integer> comboSlots = caseInsensitiveMap();
+        final PricingRule.Combo[] combos;
+        final int[][] comboComponents;
+        final int[][] comboMultiplicity;
+        final PricingRule[] orderRules;
+        final double eliteFactor;   // all active elite discounts together
+        final int slotCount;
+
+        Compiled(List<PricingRule> sorted) {
+            Map<String, List<PricingRule.PriceOverride>> itemOverrides = caseInsensitiveMap();
+            Map<String, List<PricingRule.PriceOverride>> categoryOverrides = caseInsensitiveMap();
+            Map<String, List<PricingRule.CategoryDiscount>> discounts = caseInsensitiveMap();
+            Map<String, List<PricingRule.BuyXGetY>> deals = caseInsensitiveMap();
+            ArrayList<PricingRule.Combo> comboList = new ArrayList<>();
+            ArrayList<PricingRule> orderList = new ArrayList<>();
+
+            for (PricingRule rule : sorted) {
+                if (rule instanceof PricingRule.PriceOverride override) {
+                    (override.byCategory ? categoryOverrides : itemOverrides)
+                            .computeIfAbsent(override.target, k -> new ArrayList<>()).add(override);
+                } else if (rule instanceof PricingRule.CategoryDiscount discount) {
+                    discounts.computeIfAbsent(discount.category, k -> new ArrayList<>()).add(discount);
+                } else if (rule instanceof PricingRule.BuyXGetY deal) {
+                    deals.computeIfAbsent(deal.itemName, k -> new ArrayList<>()).add(deal);
+                } else if (rule instanceof PricingRule.Combo combo) {
+                    comboList.add(combo);
+                } else {
+                    orderList.add(rule);
+                }
+            }
+
+            itemOverrides.forEach((k, v) -> overridesByItem.put(k, v.toArray(NO_OVERRIDES)));
+            categoryOverrides.forEach((k, v) -> overridesByCategory.put(k, v.toArray(NO_OVERRIDES)));
+            discounts.forEach((k, v) -> discountsByCategory.put(k, v.toArray(NO_DISCOUNTS)));
+            deals.forEach((k, v) -> dealsByItem.put(k, v.toArray(NO_DEALS)));
+
+            combos = comboList.toArray(new PricingRule.Combo[0]);
+            comboComponents = new int[combos.length][];
+            comboMultiplicity = new int[combos.length][];
+            for (int i = 0; i < combos.length; i++) {
+                // An item listed twice is one component needed twice
+                Map<String, Integer> needed = caseInsensitiveMap();
+                for (String itemName : combos[i].itemNames) {
+                    needed.merge(itemName, 1, Integer::sum);
+                }
+                comboComponents[i] = new int[needed.size()];
+                comboMultiplicity[i] = new int[needed.size()];
+                int j = 0;
+                for (Map.Entry<String, Integer> component : needed.entrySet()) {
+                    Integer slot = comboSlots.get(component.getKey());
+                    if (slot == null) {
+                        slot = comboSlots.size();
+                        comboSlots.put(component.getKey(), slot);
+                    }
+                    comboComponents[i][j] = slot;
+                    comboMultiplicity[i][j++] = component.getValue();
+                }
+            }
+            slotCount = comboSlots.size();
+            orderRules = orderList.toArray(new PricingRule[0]);
+            double factor = 1;
+            for (PricingRule rule : orderRules) {
+                if (rule instanceof PricingRule.EliteDiscount elite) {
+                    factor *= elite.factor;
+                }
+            }
+            eliteFactor = factor;
+        }
+
+        private static <V> Map<String, V> caseInsensitiveMap() {
+            return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        }
+    }
+
+    /**
+     * Per-thread working arrays for combo matching, grown only when the rule set grows
+     */
+    private static final class Scratch {
+        int[] remaining = new int[0];
+        double[] unitPrice = new double[0];
+
+        void reset(int slots) {
+            if (remaining.length < slots) {
+                remaining = new int[slots];
+                unitPrice = new double[slots];
+            } else {
+                Arrays.fill(remaining, 0, slots, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package restaurantsystem;
+
+import java.time.LocalTime;
+
+/**
+ * PricingRule class - base of every rule understood by the PricingEngine.
+ *
+ * Rules are applied in stages (price overrides, line discounts, bundles, order
+ * adjustments). Inside a stage they run by ascending priority, ties broken by the
+ * order in which they were added to the engine, so stacking is deterministic.
+ */
+public abstract class PricingRule {
+    /**
+     * Evaluation stage enum, in the order stages are applied
+     */
+    public enum Stage {
+        PRICE,
+        LINE_DISCOUNT,
+        BUNDLE,
+        ORDER
+    }
+
+    private final String name;
+    private final int priority;
+    private boolean active = true;
+
+    protected PricingRule(String name, int priority) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rule name cannot be empty");
+        }
+        this.name = name;
+        this.priority = priority;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public abstract Stage getStage();
+
+    // ==================== FACTORY METHODS ====================
+
+    /**
+     * Fixed price for one item during a daypart (e.g. breakfast burger price)
+     */
+    public static PricingRule daypartPrice(String name, int priority, String itemName,
+                                           LocalTime from, LocalTime to, double price) {
+        return new PriceOverride(name, priority, itemName, false, from, to, price, 0);
+    }
+
+    /**
+     * Percentage off a whole category during a time window
+     */
+    public static PricingRule happyHour(String name, int priority, String category,
+                                        LocalTime from, LocalTime to, double percentOff) {
+        return new PriceOverride(name, priority, category, true, from, to, -1, percentOff);
+    }
+
+    /**
+     * Percentage off every item of a category, all day
+     */
+    public static PricingRule categoryDiscount(String name, int priority, String category,
+                                               double percentOff) {
+        return new CategoryDiscount(name, priority, category, percentOff);
+    }
+
+    /**
+     * Buy {@code buyQty} of an item and get {@code freeQty} more of it free
+     */
+    public static PricingRule buyXGetY(String name, int priority, String itemName,
+                                       int buyQty, int freeQty) {
+        return new BuyXGetY(name, priority, itemName, buyQty, freeQty);
+    }
+
+    /**
+     * The listed items sold together at a bundle price (list an item twice
+     * to need two of it)
+     */
+    public static PricingRule combo(String name, int priority, double bundlePrice, String... itemNames) {
+        return new Combo(name, priority, itemNames, bundlePrice);
+    }
+
+    /**
+     * Surcharge (positive) or discount (negative) percentage for one order type
+     */
+    public static PricingRule modeAdjustment(String name, int priority, Systemmode mode,
+                                             double percent) {
+        return new ModeAdjustment(name, priority, mode, percent);
+    }
+
+    /**
+     * Percentage off the order for customers with an active elite subscription
+     */
+    public static PricingRule eliteDiscount(String name, int priority, double percentOff) {
+        return new EliteDiscount(name, priority, percentOff);
+    }
+
+    private static void checkPercent(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Percentage must be between 0 and 100");
+        }
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // ==================== RULE TYPES ====================
+
+    static final class PriceOverride extends PricingRule {
+        final String target;
+        final boolean byCategory;
+        final int fromMinute;
+        final int toMinute;
+        final double fixedPrice;
+        final double factor;
+
+        PriceOverride(String name, int priority, String target, boolean byCategory,
+                      LocalTime from, LocalTime to, double fixedPrice, double percentOff) {
+            super(name, priority);
+            checkPercent(percentOff);
+            this.target = target;
+            this.byCategory = byCategory;
+            this.fromMinute = minuteOfDay(from);
+            this.toMinute = minuteOfDay(to);
+            this.fixedPrice = fixedPrice;
+            this.factor = 1 - percentOff / 100.0;
+        }
+
+        /**
+         * Windows that wrap midnight (e.g. 22:00-02:00) are supported
+         */
+        boolean appliesAt(int minute) {
+            if (fromMinute <= toMinute) {
+                return minute >= fromMinute && minute < toMinute;
+            }
+            return minute >= fromMinute || minute < toMinute;
+        }
+
+        double apply(double basePrice) {
+            return fixedPrice >= 0 ? fixedPrice : basePrice * factor;
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.PRICE;
+        }
+    }
+
+    static final class CategoryDiscount extends PricingRule {
+        final String category;
+        final double factor;
+
+        CategoryDiscount(String name, int priority, String category, double percentOff) {
+            super(name, priority);
+            checkPercent(percentOff);
+            this.category = category;
+            this.factor = 1 - percentOff / 100.0;
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.LINE_DISCOUNT;
+        }
+    }
+
+    static final class BuyXGetY extends PricingRule {
+        final String itemName;
+        final int buyQty;
+        final int freeQty;
+
+        BuyXGetY(String name, int priority, String itemName, int buyQty, int freeQty) {
+            super(name, priority);
+            if (buyQty <= 0 || freeQty <= 0) {
+                throw new IllegalArgumentException("Quantities must be greater than 0");
+            }
+            this.itemName = itemName;
+            this.buyQty = buyQty;
+            this.freeQty = freeQty;
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.BUNDLE;
+        }
+    }
+
+    static final class Combo extends PricingRule {
+        final String[] itemNames;
+        final double bundlePrice;
+
+        Combo(String name, int priority, String[] itemNames, double bundlePrice) {
+            super(name, priority);
+            if (itemNames == null || itemNames.length < 2) {
+                throw new IllegalArgumentException("A combo needs at least two items");
+            }
+            this.itemNames = itemNames.clone();
+            this.bundlePrice = bundlePrice;
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.BUNDLE;
+        }
+    }
+
+    static final class ModeAdjustment extends PricingRule {
+        final Systemmode mode;
+        final double factor;
+
+        ModeAdjustment(String name, int priority, Systemmode mode, double percent) {
+            super(name, priority);
+            if (percent < -100) {
+                throw new IllegalArgumentException("Discount cannot exceed 100%");
+            }
+            this.mode = mode;
+            this.factor = 1 + percent / 100.0;
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.ORDER;
+        }
+    }
+
+    static final class EliteDiscount extends PricingRule {
+        final double factor;
+
+        EliteDiscount(String name, int priority, double percentOff) {
+            super(name, priority);
+            checkPercent(percentOff);
+            this.factor = 1 - percentOff / 100.0;
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.ORDER;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + getStage() + ", Priority: " + priority +
+               ", " + (active ? "Active" : "Inactive") + "]";
+    }
+}
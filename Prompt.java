@@ -0,0 +1,33 @@
+package restaurantsystem;
+
+import java.util.Scanner;
+
+/**
+ * Prompt - every console read goes through here.
+ *
+ * EventLog prints from a background thread, so before the user is asked to
+ * type, whatever has been logged so far is written out; otherwise the events
+ * of the last action could land after (or in the middle of) the next prompt.
+ */
+final class Prompt {
+    private Prompt() {
+    }
+
+    static String readLine(Scanner scanner) {
+        EventLog.flush();
+        return scanner.nextLine();
+    }
+
+    /**
+     * Next int on the line (the caller consumes the rest of the line, as with Scanner)
+     */
+    static int readInt(Scanner scanner) {
+        EventLog.flush();
+        return scanner.nextInt();
+    }
+
+    static double readDouble(Scanner scanner) {
+        EventLog.flush();
+        return scanner.nextDouble();
+    }
+}
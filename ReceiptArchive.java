@@ -0,0 +1,873 @@
+package restaurantsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Receipt archive - keeps the text of every paid order (Order.getOrderSummary
+ * followed by Payment.getReceipt) for as long as the law requires, at a few
+ * dozen bytes per receipt.
+ *
+ * Receipts are nearly all template: only the order's fields differ. A record
+ * therefore stores just those fields (varints, cents, item names as codes into
+ * a names file shared by all segments) and get() re-renders the text through
+ * the frozen TEMPLATE_V1 layout below. Before a record is written it is
+ * rendered back and compared with the live text; anything the template cannot
+ * reproduce exactly (an odd rounding, a changed layout, a locale) is stored
+ * instead as the text itself, deflated against a preset receipt dictionary.
+ * So get() always returns the exact text that was printed. When the live
+ * layout changes, add a TEMPLATE_V2 rather than editing V1: old records must
+ * keep rendering as they were.
+ *
+ * Records are appended to segment files of up to segmentBytes. The open
+ * segment is indexed in memory; a full segment gets a sorted orderId -> offset
+ * file that is memory-mapped, so a lookup is a binary search plus one read.
+ * A segment left without its index by a crash is scanned, cut back to its last
+ * whole record and indexed when the archive is next opened.
+ *
+ * Records are keyed by order id, and order ids restart with the process, so
+ * attaching an archive to its branch (Branch.setReceiptArchive) moves the
+ * branch's order counter past the highest id it holds; a new order can then
+ * never supersede an old receipt.
+ */
+public class ReceiptArchive {
+    private static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final byte[] MAGIC = "RCPTSEG1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_BYTES = 16;
+    private static final int FIRST_READ = 512;
+
+    private static final byte TEMPLATE_V1 = 1;
+    private static final byte DEFLATED = 2;
+
+    // Frozen with TEMPLATE_V1: records hold positions in these, not ordinals
+    private static final String[] TYPES = {"ONLINE_DELIVERY", "TAKEAWAY", "DINE_IN"};
+    private static final String[] STATUSES = {"PENDING", "COMPLETE", "FAILED", "CANCELLED"};
+    private static final String[] METHODS = {"CASH", "DEBIT_CARD", "CREDIT_CARD", "MOBILE_WALLET"};
+
+    private static final byte[] DICTIONARY = sampleReceipt().getBytes(StandardCharsets.UTF_8);
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    // Item names: code -> name, readable without the lock
+    private final HashMap<String, Integer> nameCodes = new HashMap<>();
+    private volatile String[] names = new String[256];
+    private volatile int nameCount;
+    private final FileChannel namesFile;
+
+    private volatile Segment[] sealed = new Segment[0];
+    private Segment active;
+    private IntIndex activeIndex = new IntIndex();
+    private long[] activeEntries = new long[1024];   // orderId << 32 | offset, in append order
+    private int activeCount;
+
+    private final Record out = new Record(1024);
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private int deflatedCount;
+
+    public ReceiptArchive(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public ReceiptArchive(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must fit an int offset: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        namesFile = FileChannel.open(directory.resolve("names.dat"), StandardOpenOption.CREATE,
+                                     StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadNames();
+        loadSegments();
+    }
+
+    // ==================== ARCHIVING ====================
+
+    /**
+     * Archive the receipt of an order as it stands now; archiving an order
+     * again (after a refund, say) supersedes the earlier copy
+     */
+    public void archive(Order order) throws IOException {
+        synchronized (order) {
+            Payment payment = order.getPayment();
+            String text = order.getOrderSummary() + (payment != null ? payment.getReceipt() : "");
+            synchronized (this) {
+                if (active == null) {
+                    active = Segment.create(segmentPath(nextSegmentNumber()), LocalDateTime.now());
+                }
+                boolean deflated = encode(order, payment, text);
+                if (active.size + out.length + 5 > segmentBytes && activeCount > 0) {
+                    sealActive();
+                    active = Segment.create(segmentPath(nextSegmentNumber()), LocalDateTime.now());
+                    deflated = encode(order, payment, text);   // dates are relative to the segment
+                }
+                append(order.getOrderId());
+                if (deflated) {
+                    deflatedCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Encode into out: the template if it gives back exactly this text, else
+     * the text deflated (returns true)
+     */
+    private boolean encode(Order order, Payment payment, String text) throws IOException {
+        if (encodeTemplate(order, payment, active.baseSecond)
+                && text.equals(render(out.bytes, 0, out.length, active.baseSecond))) {
+            return false;
+        }
+        encodeDeflated(order.getOrderId(), text);
+        return true;
+    }
+
+    private void append(int orderId) throws IOException {
+        int offset = (int) active.size;
+        ByteBuffer frame = ByteBuffer.allocate(5 + out.length);
+        Record.putVarint(frame, out.length);
+        frame.put(out.bytes, 0, out.length).flip();
+        while (frame.hasRemaining()) {
+            active.size += active.channel.write(frame, active.size);
+        }
+        activeIndex.put(orderId, offset);
+        if (activeCount == activeEntries.length) {
+            activeEntries = Arrays.copyOf(activeEntries, activeCount * 2);
+        }
+        activeEntries[activeCount++] = (long) orderId << 32 | offset;
+    }
+
+    /**
+     * Index and sync the open segment; later receipts go to a new one
+     */
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            sealActive();
+            active = null;
+        }
+        for (Segment segment : sealed) {
+            segment.channel.close();
+        }
+        sealed = new Segment[0];
+        namesFile.close();
+        deflater.end();
+    }
+
+    private void sealActive() throws IOException {
+        active.channel.force(false);
+        active.writeIndex(indexPath(active.path), Arrays.copyOf(activeEntries, activeCount));
+        Segment[] grown = Arrays.copyOf(sealed, sealed.length + 1);
+        grown[sealed.length] = active;
+        sealed = grown;
+        activeIndex = new IntIndex();
+        activeCount = 0;
+    }
+
+    // ==================== LOOKUP ====================
+
+    /**
+     * The receipt text archived for an order (latest copy), or null
+     */
+    public String get(int orderId) throws IOException {
+        synchronized (this) {
+            if (active != null) {
+                int offset = activeIndex.get(orderId);
+                if (offset >= 0) {
+                    return read(active, offset);
+                }
+            }
+        }
+        Segment[] segments = sealed;
+        for (int i = segments.length - 1; i >= 0; i--) {
+            long offset = segments[i].find(orderId);
+            if (offset >= 0) {
+                return read(segments[i], offset);
+            }
+        }
+        return null;
+    }
+
+    private String read(Segment segment, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FIRST_READ);
+        readFully(segment.channel, buffer, offset, Math.min(FIRST_READ, segment.channel.size() - offset));
+        buffer.flip();
+        int length = Record.getVarint(buffer);
+        int start = buffer.position();
+        if (start + length > buffer.limit()) {
+            ByteBuffer whole = ByteBuffer.allocate(start + length);
+            whole.put(buffer.rewind());
+            readFully(segment.channel, whole, offset + whole.position(), whole.remaining());
+            buffer = whole;
+        }
+        return render(buffer.array(), start, length, segment.baseSecond);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, long bytes)
+            throws IOException {
+        long end = position + bytes;
+        while (position < end) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Receipt record runs past the end of its segment");
+            }
+            position += read;
+        }
+    }
+
+    // ==================== STATISTICS ====================
+
+    /**
+     * Receipts stored, counting superseded copies
+     */
+    public synchronized long size() {
+        long total = activeCount;
+        for (Segment segment : sealed) {
+            total += segment.count;
+        }
+        return total;
+    }
+
+    /**
+     * Highest order id with an archived receipt (0 when empty)
+     */
+    public synchronized int getHighestOrderId() {
+        int highest = 0;
+        for (Segment segment : sealed) {
+            if (segment.count > 0) {
+                highest = Math.max(highest, segment.maxId);
+            }
+        }
+        for (int i = 0; i < activeCount; i++) {
+            highest = Math.max(highest, (int) (activeEntries[i] >>> 32));
+        }
+        return highest;
+    }
+
+    /**
+     * Bytes on disk: segments, their indexes and the names file
+     */
+    public synchronized long diskBytes() throws IOException {
+        long total = namesFile.size() + (active != null ? active.size : 0);
+        for (Segment segment : sealed) {
+            total += segment.size + 8L * segment.count;
+        }
+        return total;
+    }
+
+    /**
+     * Receipts archived since opening that did not fit the template
+     */
+    public synchronized int getDeflatedCount() {
+        return deflatedCount;
+    }
+
+    // ==================== TEMPLATE V1 ====================
+
+    private boolean encodeTemplate(Order order, Payment payment, long baseSecond) throws IOException {
+        Record r = out;
+        r.length = 0;
+        int type = indexOf(TYPES, order.getOrderType());
+        int status = indexOf(STATUSES, order.getStatus());
+        if (type < 0 || status < 0) {
+            return false;
+        }
+        r.putByte(TEMPLATE_V1);
+        r.putVarint(order.getOrderId());
+        r.putSignedVarint(order.getOrderDate().toEpochSecond(ZoneOffset.UTC) - baseSecond);
+        r.putByte(type);
+        r.putByte(status);
+
+        String customerId = order.getCustomerId();
+        int customerNumber = customerNumber(customerId);
+        if (customerId == null) {
+            r.putByte(0);
+        } else if (customerNumber >= 0) {
+            r.putByte(1);
+            r.putVarint(customerNumber);
+        } else {
+            r.putByte(2);
+            r.putString(customerId);
+        }
+
+        Map<MenuItem, Integer> items = order.getItems();
+        r.putVarint(items.size());
+        for (Map.Entry<MenuItem, Integer> line : items.entrySet()) {
+            int code = nameCode(line.getKey().getName());
+            if (code < 0) {
+                return false;
+            }
+            r.putVarint(code);
+            r.putSignedVarint(line.getValue());
+            r.putSignedVarint(order.getLineTotalCents(line.getKey()));
+        }
+        r.putSignedVarint(Math.round(order.getSubtotal() * 100));
+        r.putSignedVarint(Math.round(order.getDiscountAmount() * 100));
+        r.putSignedVarint(Math.round(order.getTotal() * 100));
+
+        Address address = order.getDeliveryAddress();
+        if (address != null && address.getFullAddress() != null) {
+            r.putByte(1);
+            r.putString(address.getFullAddress());
+        } else {
+            r.putByte(0);
+        }
+        r.putVarint(order.getTable() != null ? order.getTable().getTableNumber() + 1L : 0);
+
+        if (payment == null) {
+            r.putByte(0);
+            return true;
+        }
+        int method = indexOf(METHODS, payment.getPaymentMethod());
+        int paymentStatus = indexOf(STATUSES, payment.getStatus());
+        if (method < 0 || paymentStatus < 0) {
+            return false;
+        }
+        r.putByte(method + 1);
+        r.putByte(paymentStatus);
+        r.putSignedVarint(Math.round(payment.getAmount() * 100));
+        return true;
+    }
+
+    private String render(byte[] bytes, int start, int length, long baseSecond) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(bytes, start, length);
+        byte kind = in.get();
+        int orderId = Record.getVarint(in);
+        if (kind == DEFLATED) {
+            return inflate(in);
+        }
+        if (kind != TEMPLATE_V1) {
+            throw new IOException("Unknown receipt record kind " + kind + " for order " + orderId);
+        }
+        LocalDateTime date = LocalDateTime.ofEpochSecond(baseSecond + Record.getSignedVarint(in), 0, ZoneOffset.UTC);
+        String type = TYPES[in.get()];
+        String status = STATUSES[in.get()];
+        String customerId = switch (in.get()) {
+            case 0 -> "null";
+            case 1 -> formatCustomerId(Record.getVarint(in));
+            default -> Record.getString(in);
+        };
+
+        StringBuilder sb = new StringBuilder(768);
+        sb.append('\n').append("=".repeat(60)).append('\n');
+        sb.append("                    ORDER SUMMARY\n");
+        sb.append("=".repeat(60)).append('\n');
+        sb.append("Order ID: ").append(orderId).append('\n');
+        sb.append("Date: ");
+        appendDate(sb, date);
+        sb.append('\n');
+        sb.append("Type: ").append(type).append('\n');
+        sb.append("Customer ID: ").append(customerId).append('\n');
+        sb.append("-".repeat(60)).append('\n');
+        sb.append("Items:\n");
+        String[] names = this.names;
+        for (int lines = Record.getVarint(in); lines > 0; lines--) {
+            String name = names[Record.getVarint(in)];
+            long quantity = Record.getSignedVarint(in);
+            sb.append("  - ").append(name);
+            pad(sb, 25 - name.length());
+            sb.append(" x");
+            int mark = sb.length();
+            sb.append(quantity);
+            pad(sb, 3 - (sb.length() - mark));
+            sb.append(" = EGP ");
+            appendMoney(sb, Record.getSignedVarint(in), 7);
+            sb.append('\n');
+        }
+        sb.append("-".repeat(60)).append('\n');
+        sb.append("Subtotal:        EGP ");
+        appendMoney(sb, Record.getSignedVarint(in), 7);
+        sb.append("\nDiscount:        EGP ");
+        appendMoney(sb, Record.getSignedVarint(in), 7);
+        sb.append("\nTOTAL:           EGP ");
+        appendMoney(sb, Record.getSignedVarint(in), 7);
+        sb.append('\n').append("-".repeat(60)).append('\n');
+        sb.append("Status: ").append(status).append('\n');
+        if (in.get() != 0) {
+            sb.append("Delivery Address: ").append(Record.getString(in)).append('\n');
+        }
+        int table = Record.getVarint(in);
+        if (table > 0) {
+            sb.append("Table: #").append(table - 1).append('\n');
+        }
+        sb.append("=".repeat(60)).append('\n');
+
+        int method = in.get();
+        if (method > 0) {
+            String paymentStatus = STATUSES[in.get()];
+            sb.append('\n').append("=".repeat(40));
+            sb.append("\n           PAYMENT RECEIPT");
+            sb.append('\n').append("=".repeat(40));
+            sb.append("\nOrder ID: ").append(orderId);
+            sb.append("\nAmount Paid: EGP ");
+            appendMoney(sb, Record.getSignedVarint(in), 0);
+            sb.append("\nPayment Method: ").append(METHODS[method - 1]);
+            sb.append("\nStatus: ").append(paymentStatus);
+            sb.append('\n').append("=".repeat(40));
+        }
+        return sb.toString();
+    }
+
+    private static void appendDate(StringBuilder sb, LocalDateTime date) {
+        sb.append(date.getYear()).append('-');
+        twoDigits(sb, date.getMonthValue()).append('-');
+        twoDigits(sb, date.getDayOfMonth()).append(' ');
+        twoDigits(sb, date.getHour()).append(':');
+        twoDigits(sb, date.getMinute()).append(':');
+        twoDigits(sb, date.getSecond());
+    }
+
+    private static StringBuilder twoDigits(StringBuilder sb, int value) {
+        return sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Cents as %{width}.2f
+     */
+    private static void appendMoney(StringBuilder sb, long cents, int width) {
+        int mark = sb.length();
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        sb.append(cents / 100).append('.').append((char) ('0' + cents / 10 % 10)).append((char) ('0' + cents % 10));
+        int shortBy = width - (sb.length() - mark);
+        for (int i = 0; i < shortBy; i++) {
+            sb.insert(mark, ' ');
+        }
+    }
+
+    private static void pad(StringBuilder sb, int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            sb.append(' ');
+        }
+    }
+
+    private static int indexOf(String[] frozen, Object value) {
+        if (value != null) {
+            String name = value.toString();
+            for (int i = 0; i < frozen.length; i++) {
+                if (frozen[i].equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of a CUST-style id that formatCustomerId gives back exactly, else -1
+     */
+    private static int customerNumber(String customerId) {
+        if (customerId == null || !customerId.startsWith("CUST") || customerId.length() > 13) {
+            return -1;
+        }
+        try {
+            int number = Integer.parseInt(customerId.substring(4));
+            return number >= 0 && formatCustomerId(number).equals(customerId) ? number : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String formatCustomerId(int number) {
+        String digits = Integer.toString(number);
+        return digits.length() >= 3 ? "CUST" + digits : "CUST" + "000".substring(digits.length()) + digits;
+    }
+
+    // ==================== DEFLATED TEXT ====================
+
+    private void encodeDeflated(int orderId, String text) {
+        Record r = out;
+        r.length = 0;
+        r.putByte(DEFLATED);
+        r.putVarint(orderId);
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(raw);
+        deflater.finish();
+        while (!deflater.finished()) {
+            r.ensure(256);
+            r.length += deflater.deflate(r.bytes, r.length, r.bytes.length - r.length);
+        }
+    }
+
+    private static String inflate(ByteBuffer in) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(in.array(), in.arrayOffset() + in.position(), in.remaining());
+            byte[] text = new byte[in.remaining() * 8 + 64];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == text.length) {
+                    text = Arrays.copyOf(text, text.length * 2);
+                }
+                int n = inflater.inflate(text, length, text.length - length);
+                if (n == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY);
+                } else if (n == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated deflated receipt");
+                }
+                length += n;
+            }
+            return new String(text, 0, length, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflated receipt: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The preset deflate dictionary: a receipt in the V1 layout. Frozen, like
+     * the template - deflated records cannot be read with any other.
+     */
+    private static String sampleReceipt() {
+        String rule = "=".repeat(60);
+        String dash = "-".repeat(60);
+        String short40 = "=".repeat(40);
+        return "\n" + rule + "\n                    ORDER SUMMARY\n" + rule + "\nOrder ID: 1\nDate: 2024-01-01 12:00:00\n"
+               + "Type: TAKEAWAY\nCustomer ID: CUST001\n" + dash + "\nItems:\n"
+               + "  - Burger                    x1   = EGP   80.00\n" + dash + "\n"
+               + "Subtotal:        EGP   80.00\nDiscount:        EGP    0.00\nTOTAL:           EGP   80.00\n"
+               + dash + "\nStatus: COMPLETE\nDelivery Address: \nTable: #1\n" + rule + "\n"
+               + "\n" + short40 + "\n           PAYMENT RECEIPT\n" + short40 + "\nOrder ID: 1\nAmount Paid: EGP 80.00"
+               + "\nPayment Method: CASH\nStatus: COMPLETE\n" + short40;
+    }
+
+    // ==================== ITEM NAMES ====================
+
+    /**
+     * Code of an item name, adding it to the names file first if new; -1 for
+     * names too long to be worth a code
+     */
+    private int nameCode(String name) throws IOException {
+        Integer code = nameCodes.get(name);
+        if (code != null) {
+            return code;
+        }
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > 1024) {
+            return -1;
+        }
+        ByteBuffer entry = ByteBuffer.allocate(5 + utf8.length);
+        Record.putVarint(entry, utf8.length);
+        entry.put(utf8).flip();
+        long position = namesFile.size();
+        while (entry.hasRemaining()) {
+            position += namesFile.write(entry, position);
+        }
+        namesFile.force(false);   // before any record refers to it
+        return addName(name);
+    }
+
+    private int addName(String name) {
+        String[] current = names;
+        if (nameCount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            names = current;
+        }
+        current[nameCount] = name;
+        nameCodes.put(name, nameCount);
+        return nameCount++;
+    }
+
+    private void loadNames() throws IOException {
+        long size = namesFile.size();
+        ByteBuffer all = ByteBuffer.allocate((int) size);
+        readFully(namesFile, all, 0, size);
+        all.flip();
+        int good = 0;
+        try {
+            while (all.hasRemaining()) {
+                int length = Record.getVarint(all);
+                if (length > all.remaining()) {
+                    break;
+                }
+                addName(new String(all.array(), all.position(), length, StandardCharsets.UTF_8));
+                all.position(all.position() + length);
+                good = all.position();
+            }
+        } catch (java.nio.BufferUnderflowException e) {
+            // torn last entry; no record can refer to it
+        }
+        if (good < size) {
+            namesFile.truncate(good);
+        }
+    }
+
+    // ==================== SEGMENTS ====================
+
+    private void loadSegments() throws IOException {
+        ArrayList<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "receipts-*.seg")) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+        ArrayList<Segment> loaded = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.size(path) < HEADER_BYTES) {
+                Files.delete(path);   // created just before a crash, never written to
+                continue;
+            }
+            loaded.add(Segment.open(path, indexPath(path)));
+        }
+        sealed = loaded.toArray(new Segment[0]);
+    }
+
+    private int nextSegmentNumber() {
+        Segment[] segments = sealed;
+        if (segments.length == 0) {
+            return 1;
+        }
+        String name = segments[segments.length - 1].path.getFileName().toString();
+        return Integer.parseInt(name.substring("receipts-".length(), name.length() - ".seg".length())) + 1;
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("receipts-%06d.seg", number));
+    }
+
+    private static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - ".seg".length()) + ".idx");
+    }
+
+    /**
+     * One segment file; sealed ones carry a mapped index of (orderId, offset)
+     * pairs sorted by orderId, then offset
+     */
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final long baseSecond;
+        long size;
+        MappedByteBuffer index;
+        int count;
+        int minId;
+        int maxId;
+
+        private Segment(Path path, FileChannel channel, long baseSecond, long size) {
+            this.path = path;
+            this.channel = channel;
+            this.baseSecond = baseSecond;
+            this.size = size;
+        }
+
+        static Segment create(Path path, LocalDateTime base) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long baseSecond = base.toEpochSecond(ZoneOffset.UTC);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).put(MAGIC).putLong(baseSecond).flip();
+            channel.write(header, 0);
+            return new Segment(path, channel, baseSecond, HEADER_BYTES);
+        }
+
+        /**
+         * Open a segment, rebuilding its index if a crash left it without one
+         */
+        static Segment open(Path path, Path indexPath) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0, HEADER_BYTES);
+            header.flip();
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                channel.close();
+                throw new IOException(path + " is not a receipt segment");
+            }
+            Segment segment = new Segment(path, channel, header.getLong(), channel.size());
+            if (Files.exists(indexPath)) {
+                segment.mapIndex(indexPath);
+            } else {
+                segment.writeIndex(indexPath, segment.scan());
+            }
+            return segment;
+        }
+
+        /**
+         * Entries of every whole record; a torn tail is cut off
+         */
+        private long[] scan() throws IOException {
+            ByteBuffer all = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            all.position(HEADER_BYTES);
+            long[] entries = new long[1024];
+            int n = 0;
+            int good = HEADER_BYTES;
+            try {
+                while (all.hasRemaining()) {
+                    int length = Record.getVarint(all);
+                    if (length < 2 || length > all.remaining()) {
+                        break;
+                    }
+                    int end = all.position() + length;
+                    all.get();   // kind
+                    int orderId = Record.getVarint(all);
+                    if (n == entries.length) {
+                        entries = Arrays.copyOf(entries, n * 2);
+                    }
+                    entries[n++] = (long) orderId << 32 | good;
+                    all.position(end);
+                    good = end;
+                }
+            } catch (java.nio.BufferUnderflowException e) {
+                // torn last record
+            }
+            if (good < size) {
+                channel.truncate(good);
+                size = good;
+            }
+            return Arrays.copyOf(entries, n);
+        }
+
+        void writeIndex(Path indexPath, long[] entries) throws IOException {
+            Arrays.sort(entries);
+            Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                for (long entry : entries) {
+                    if (!buffer.hasRemaining()) {
+                        out.write(buffer.flip());
+                        buffer.clear();
+                    }
+                    buffer.putInt((int) (entry >> 32)).putInt((int) entry);
+                }
+                out.write(buffer.flip());
+                out.force(false);
+            }
+            Files.move(temp, indexPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                       java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            mapIndex(indexPath);
+        }
+
+        private void mapIndex(Path indexPath) throws IOException {
+            try (FileChannel in = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                index = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            }
+            count = index.capacity() / 8;
+            if (count > 0) {
+                minId = index.getInt(0);
+                maxId = index.getInt((count - 1) * 8);
+            }
+        }
+
+        /**
+         * Offset of the latest record for an order, or -1
+         */
+        long find(int orderId) {
+            if (count == 0 || orderId < minId || orderId > maxId) {
+                return -1;
+            }
+            // Last entry with this id: upper bound minus one
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (index.getInt(mid * 8) <= orderId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low > 0 && index.getInt((low - 1) * 8) == orderId ? index.getInt((low - 1) * 8 + 4) : -1;
+        }
+    }
+
+    /**
+     * Growable byte buffer with the varint encoding used by records
+     */
+    private static final class Record {
+        byte[] bytes;
+        int length;
+
+        Record(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        void putByte(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void putSignedVarint(long value) {
+            putVarint(value << 1 ^ value >> 63);
+        }
+
+        void putString(String s) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            length += utf8.length;
+        }
+
+        static void putVarint(ByteBuffer buffer, int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        static int getVarint(ByteBuffer in) {
+            return (int) getLongVarint(in);
+        }
+
+        static long getSignedVarint(ByteBuffer in) {
+            long raw = getLongVarint(in);
+            return raw >>> 1 ^ -(raw & 1);
+        }
+
+        private static long getLongVarint(ByteBuffer in) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        static String getString(ByteBuffer in) {
+            int length = getVarint(in);
+            String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return s;
+        }
+    }
+}
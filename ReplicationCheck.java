@@ -0,0 +1,246 @@
+package restaurantsystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replication check - end-to-end test of OrderJournal and StandbyNode across two
+ * processes.
+ *
+ * Starts a StandbyNode in a child JVM, runs a mix of takeaway and dine-in orders
+ * (with add-ons, payments and table releases) on a primary branch in this JVM,
+ * then drops the primary and compares what the standby took over with the
+ * primary's open orders and seated tables. Also reports what the journal adds
+ * to Cashier.acceptPayment against an unreplicated branch. Exits non-zero on a
+ * mismatch. Usage:
+ *
+ *   java restaurantsystem.ReplicationCheck orders=2000 seed=42
+ */
+public class ReplicationCheck {
+    private static final String[] ITEMS = {"Burger", "Pizza", "Pasta", "Salad", "Cola", "Juice"};
+    private static final String[] INGREDIENTS = {"Bun", "Beef Patty", "Cheese", "Pizza Dough", "Mozzarella",
+                                                 "Pasta", "Chicken", "Greens", "Cola", "Orange"};
+
+    public static void main(String[] args) throws Exception {
+        int orders = 2000;
+        long seed = 42;
+        for (String arg : args) {
+            if (arg.startsWith("orders=")) {
+                orders = Integer.parseInt(arg.substring(7));
+            } else if (arg.startsWith("seed=")) {
+                seed = Long.parseLong(arg.substring(5));
+            }
+        }
+        EventLog.setLevel(EventLog.Level.OFF);
+
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        Process standby = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                StandbyNode.class.getName(), "port=" + port)
+                .redirectErrorStream(true)
+                .start();
+        BufferedReader standbyOut = new BufferedReader(new InputStreamReader(standby.getInputStream()));
+        try {
+            System.exit(run(orders, seed, port, standbyOut) ? 0 : 1);
+        } finally {
+            standby.destroy();
+        }
+    }
+
+    private static boolean run(int orders, long seed, int port, BufferedReader standbyOut)
+            throws IOException, InterruptedException {
+        // Warm the JIT up first, so the baseline is not charged for compiling
+        Branch warmup = prepare("WARM");
+        RestaurantSystem.runIn(warmup, () -> workload(warmup, orders, new Random(seed + 1)));
+
+        // Baseline: the same workload on a branch without a standby
+        Branch baseline = prepare("BASE");
+        long[] baselineNanos = new long[1];
+        RestaurantSystem.runIn(baseline, () -> baselineNanos[0] = workload(baseline, orders, new Random(seed)));
+
+        Branch primary = prepare("MAIN");
+        OrderJournal journal = connect(port);
+        primary.setJournal(journal);
+        long[] replicatedNanos = new long[1];
+        RestaurantSystem.runIn(primary, () -> replicatedNanos[0] = workload(primary, orders, new Random(seed)));
+
+        if (!journal.awaitReplicated(10_000)) {
+            System.out.println("FAIL: standby did not acknowledge everything in 10 s");
+            return false;
+        }
+        long records = journal.getAppendedSequence();
+        long batches = journal.getBatchCount();
+
+        // What the standby must end up with
+        TreeMap<Integer, String> expectedOrders = new TreeMap<>();
+        for (Order order : primary.getOrders()) {
+            if (order.getStatus() == Status.PENDING) {
+                expectedOrders.put(order.getOrderId(), lines(order));
+            }
+        }
+        TreeSet<Integer> expectedTables = new TreeSet<>();
+        for (Table table : primary.getTables()) {
+            if (!table.isAvailable()) {
+                expectedTables.add(table.getTableNumber());
+            }
+        }
+
+        journal.close();   // the primary "dies"
+
+        TreeMap<Integer, String> standbyOrders = new TreeMap<>();
+        TreeSet<Integer> standbyTables = new TreeSet<>();
+        String takeover = null;
+        String line;
+        while ((line = standbyOut.readLine()) != null) {
+            if (line.startsWith("OPEN Order #")) {
+                int id = Integer.parseInt(line.substring(12, line.indexOf(' ', 12)));
+                standbyOrders.put(id, new TreeMap<>(parseLines(line.substring(line.indexOf('{')))).toString());
+            } else if (line.startsWith("SEATED ")) {
+                standbyTables.add(Integer.parseInt(line.substring(7).trim()));
+            } else if (line.startsWith("TAKEOVER")) {
+                takeover = line;
+                break;
+            }
+        }
+
+        System.out.println("Replicated " + records + " records in " + batches + " batches ("
+                           + String.format("%.1f", records / (double) Math.max(1, batches)) + " per batch)");
+        System.out.println(String.format("acceptPayment: %.1f us without standby, %.1f us with",
+                                         baselineNanos[0] / 1000.0, replicatedNanos[0] / 1000.0));
+        System.out.println("Primary: " + expectedOrders.size() + " open orders, tables " + expectedTables);
+        System.out.println("Standby: " + standbyOrders.size() + " open orders, tables " + standbyTables);
+        System.out.println(takeover == null ? "Standby never took over" : takeover);
+
+        boolean ok = takeover != null && expectedOrders.equals(standbyOrders) && expectedTables.equals(standbyTables)
+                     && takeover.contains("orders=" + expectedOrders.size() + " ")
+                     && takeover.contains("tables=" + expectedTables.size() + " ");
+        System.out.println(ok ? "PASS" : "FAIL");
+        return ok;
+    }
+
+    private static Branch prepare(String id) {
+        Branch branch = RestaurantSystem.openBranch(id, true);
+        for (String ingredient : INGREDIENTS) {
+            branch.getInventory().restock(ingredient, 1_000_000_000L);
+        }
+        return branch;
+    }
+
+    private static OrderJournal connect(int port) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                return OrderJournal.connect("127.0.0.1", port);
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(50);   // standby JVM still starting
+            }
+        }
+    }
+
+    /**
+     * Takeaways and dine-ins with add-ons; some tabs stay open, some tables stay
+     * seated. Returns the mean time spent in acceptPayment.
+     */
+    private static long workload(Branch branch, int orders, Random random) {
+        Cashier cashier = branch.getCashiers().get(0);
+        Customer customer = new Customer("guest", "guest", false,
+                                         RestaurantSystem.getAddressRegistry().walkIn(), "Guest", "n/a", "n/a");
+        ArrayList<Order> unpaidTabs = new ArrayList<>();
+        long paymentNanos = 0;
+        int payments = 0;
+
+        for (int i = 0; i < orders; i++) {
+            Map<MenuItem, Integer> items = new HashMap<>();
+            for (int l = 1 + random.nextInt(3); l > 0; l--) {
+                items.merge(branch.getMenu().getItemByName(ITEMS[random.nextInt(ITEMS.length)]),
+                            1 + random.nextInt(2), Integer::sum);
+            }
+            Order order;
+            Table table = null;
+            if (random.nextBoolean()) {
+                order = cashier.processTakeawayOrder(customer, items);
+            } else {
+                table = freeTable(branch);
+                if (table == null) {
+                    // Full house: a table finishes (settling its tab) instead
+                    Table leaving = branch.getTables().get(random.nextInt(branch.getTables().size()));
+                    for (Iterator<Order> it = unpaidTabs.iterator(); it.hasNext(); ) {
+                        Order tab = it.next();
+                        if (tab.getTable() == leaving) {
+                            it.remove();
+                            long start = System.nanoTime();
+                            cashier.acceptPayment(tab, tab.getTotal(), Payment.PaymentMethod.CASH);
+                            paymentNanos += System.nanoTime() - start;
+                            payments++;
+                        }
+                    }
+                    branch.getFloorPlan().release(leaving);
+                    continue;
+                }
+                table.assignTable();
+                order = cashier.processWalkInOrder(customer, items, table);
+            }
+            if (order == null) {
+                continue;
+            }
+            branch.addOrder(order);
+            if (table != null) {
+                order.addItem(branch.getMenu().getItemByName("Cola"), 1);   // an add-on to the tab
+                order.calculateTotal();
+                if (random.nextInt(3) == 0) {
+                    unpaidTabs.add(order);   // still eating
+                    continue;
+                }
+            }
+            long start = System.nanoTime();
+            cashier.acceptPayment(order, order.getTotal() + 10, Payment.PaymentMethod.values()[random.nextInt(4)]);
+            paymentNanos += System.nanoTime() - start;
+            payments++;
+            if (table != null && random.nextBoolean()) {
+                branch.getFloorPlan().release(table);
+            }
+        }
+        return payments == 0 ? 0 : paymentNanos / payments;
+    }
+
+    private static Table freeTable(Branch branch) {
+        for (Table table : branch.getTables()) {
+            if (table.isAvailable()) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    private static String lines(Order order) {
+        TreeMap<String, Integer> lines = new TreeMap<>();
+        for (Map.Entry<MenuItem, Integer> line : order.getItems().entrySet()) {
+            lines.put(line.getKey().getName(), line.getValue());
+        }
+        return lines.toString();
+    }
+
+    private static Map<String, Integer> parseLines(String text) {
+        Map<String, Integer> lines = new HashMap<>();
+        String body = text.substring(1, text.length() - 1);
+        if (!body.isEmpty()) {
+            for (String pair : body.split(", ")) {
+                int eq = pair.lastIndexOf('=');
+                lines.put(pair.substring(0, eq), Integer.parseInt(pair.substring(eq + 1)));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,328 @@
+package restaurantsystem;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reservation book - time-slotted table bookings.
+ *
+ * Each table keeps its bookings in a TreeMap keyed by start time. Bookings on
+ * one table never overlap, so the only candidate for a clash with [start, end)
+ * is the last booking starting before end, and every check is O(log n) in the
+ * table's bookings.
+ *
+ * "A table for N between T1 and T2" uses a slotted bitmap per capacity: for
+ * every 15-minute slot, one bit per table of that capacity saying whether a
+ * booking touches the slot. A query ORs the bitmaps of the slots it covers,
+ * a word (64 tables) at a time, smallest capacity first. A bit from a slot the
+ * window covers completely is a certain clash; a bit from a partly covered
+ * first or last slot is only a possible one and is settled with isFree.
+ *
+ * Cost: O(slots in the window x tables / 64) word operations, plus one
+ * O(log n) check per table whose only possible clash sits in an edge slot
+ * (none when the window starts and ends on slot boundaries). That is not
+ * logarithmic in the number of tables, but for hundreds of tables it is a
+ * few words per slot rather than a lookup per table.
+ */
+public class ReservationBook {
+    /**
+     * How long a walk-in is assumed to stay when checking for upcoming bookings
+     */
+    public static final long DEFAULT_WALK_IN_MILLIS = 90 * 60_000L;
+
+    private static final long SLOT_MILLIS = 15 * 60_000L;
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    /**
+     * One booking of one table for [start, end)
+     */
+    public static final class Reservation {
+        private final long reservationId;
+        private final int tableNumber;
+        private final String customerName;
+        private final int partySize;
+        private final long startMillis;
+        private final long endMillis;
+
+        Reservation(long reservationId, int tableNumber, String customerName,
+                    int partySize, long startMillis, long endMillis) {
+            this.reservationId = reservationId;
+            this.tableNumber = tableNumber;
+            this.customerName = customerName;
+            this.partySize = partySize;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        public long getReservationId() { return reservationId; }
+        public int getTableNumber() { return tableNumber; }
+        public String getCustomerName() { return customerName; }
+        public int getPartySize() { return partySize; }
+        public long getStartMillis() { return startMillis; }
+        public long getEndMillis() { return endMillis; }
+
+        @Override
+        public String toString() {
+            return "Reservation #" + reservationId +
+                   " | Table #" + tableNumber +
+                   " | " + customerName + " (" + partySize + ")" +
+                   " | " + TIME_FORMAT.format(Instant.ofEpochMilli(startMillis)) +
+                   " - " + TIME_FORMAT.format(Instant.ofEpochMilli(endMillis)).substring(11);
+        }
+    }
+
+    private final HashMap<Integer, TreeMap<Long, Reservation>> byTable = new HashMap<>();
+    private final HashMap<Integer, Table> tablesByNumber = new HashMap<>();
+    private final TreeMap<Integer, CapacityGroup> byCapacity = new TreeMap<>();
+    private final HashMap<Integer, CapacityGroup> groupByTable = new HashMap<>();
+    private final HashMap<Integer, Integer> positionByTable = new HashMap<>();   // bit within its group
+    private final HashMap<Long, Reservation> byId = new HashMap<>();
+    private final TreeSet<Reservation> byStart = new TreeSet<>((r1, r2) -> {
+        int cmp = Long.compare(r1.startMillis, r2.startMillis);
+        return cmp != 0 ? cmp : Long.compare(r1.reservationId, r2.reservationId);
+    });
+    private long nextReservationId = 1;
+
+    /**
+     * Tables of one capacity and, per slot, which of them have a booking touching it
+     */
+    private static final class CapacityGroup {
+        final ArrayList<Table> tables = new ArrayList<>();
+        final HashMap<Long, long[]> busyBySlot = new HashMap<>();
+    }
+
+    public ReservationBook(Collection<Table> tables) {
+        for (Table table : tables) {
+            addTable(table);
+        }
+    }
+
+    public synchronized void addTable(Table table) {
+        if (byTable.putIfAbsent(table.getTableNumber(), new TreeMap<>()) == null) {
+            tablesByNumber.put(table.getTableNumber(), table);
+            CapacityGroup group = byCapacity.computeIfAbsent(table.getCapacity(), c -> new CapacityGroup());
+            groupByTable.put(table.getTableNumber(), group);
+            positionByTable.put(table.getTableNumber(), group.tables.size());
+            group.tables.add(table);
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Is the table free of bookings for the whole of [startMillis, endMillis)?
+     */
+    public synchronized boolean isFree(int tableNumber, long startMillis, long endMillis) {
+        TreeMap<Long, Reservation> bookings = byTable.get(tableNumber);
+        if (bookings == null) {
+            return false;
+        }
+        Map.Entry<Long, Reservation> before = bookings.lowerEntry(endMillis);
+        return before == null || before.getValue().endMillis <= startMillis;
+    }
+
+    /**
+     * Should a walk-in be kept off this table because of a booking in the next stayMillis?
+     */
+    public boolean isHeld(Table table, long nowMillis, long stayMillis) {
+        return !isFree(table.getTableNumber(), nowMillis, nowMillis + stayMillis);
+    }
+
+    /**
+     * Smallest table seating the party that is free for the whole of [startMillis, endMillis)
+     */
+    public synchronized Table findFreeTable(int partySize, long startMillis, long endMillis) {
+        long firstSlot = Math.floorDiv(startMillis, SLOT_MILLIS);
+        long lastSlot = Math.floorDiv(endMillis - 1, SLOT_MILLIS);
+        for (CapacityGroup group : byCapacity.tailMap(partySize, true).values()) {
+            int words = (group.tables.size() + 63) >>> 6;
+            long[] clash = new long[words];      // booked in a slot the window covers completely
+            long[] edgeClash = new long[words];  // booked in a partly covered first or last slot
+            for (long slot = firstSlot; slot <= lastSlot; slot++) {
+                long[] busy = group.busyBySlot.get(slot);
+                if (busy == null) {
+                    continue;
+                }
+                boolean covered = slot * SLOT_MILLIS >= startMillis && (slot + 1) * SLOT_MILLIS <= endMillis;
+                long[] into = covered ? clash : edgeClash;
+                for (int w = 0; w < busy.length; w++) {
+                    into[w] |= busy[w];
+                }
+            }
+            for (int w = 0; w < words; w++) {
+                for (long open = ~clash[w]; open != 0; open &= open - 1) {
+                    int position = (w << 6) + Long.numberOfTrailingZeros(open);
+                    if (position >= group.tables.size()) {
+                        break;
+                    }
+                    Table table = group.tables.get(position);
+                    if ((edgeClash[w] & Long.lowestOneBit(open)) == 0
+                            || isFree(table.getTableNumber(), startMillis, endMillis)) {
+                        return table;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Next booking of a table starting at or after the given time, or null
+     */
+    public synchronized Reservation nextReservation(int tableNumber, long fromMillis) {
+        TreeMap<Long, Reservation> bookings = byTable.get(tableNumber);
+        if (bookings == null) {
+            return null;
+        }
+        Map.Entry<Long, Reservation> next = bookings.ceilingEntry(fromMillis);
+        return next == null ? null : next.getValue();
+    }
+
+    /**
+     * Bookings starting in [fromMillis, toMillis), in start order
+     */
+    public synchronized List<Reservation> getReservations(long fromMillis, long toMillis) {
+        Reservation from = new Reservation(0, 0, null, 0, fromMillis, 0);
+        Reservation to = new Reservation(0, 0, null, 0, toMillis, 0);
+        return new ArrayList<>(byStart.subSet(from, true, to, false));
+    }
+
+    public synchronized Reservation getReservation(long reservationId) {
+        return byId.get(reservationId);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    // ==================== BOOKING ====================
+
+    /**
+     * Book the smallest free table for the party, or return null if none is free
+     */
+    public synchronized Reservation book(String customerName, int partySize, long startMillis, long endMillis) {
+        validate(partySize, startMillis, endMillis);
+        Table table = findFreeTable(partySize, startMillis, endMillis);
+        if (table == null) {
+            return null;
+        }
+        return insert(table.getTableNumber(), customerName, partySize, startMillis, endMillis);
+    }
+
+    /**
+     * Book a specific table, or return null if it is unknown, too small for
+     * the party or already booked in that slot
+     */
+    public synchronized Reservation book(int tableNumber, String customerName, int partySize,
+                                         long startMillis, long endMillis) {
+        validate(partySize, startMillis, endMillis);
+        Table table = tablesByNumber.get(tableNumber);
+        if (table == null || table.getCapacity() < partySize || !isFree(tableNumber, startMillis, endMillis)) {
+            return null;
+        }
+        return insert(tableNumber, customerName, partySize, startMillis, endMillis);
+    }
+
+    public synchronized boolean cancel(long reservationId) {
+        Reservation reservation = byId.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        byTable.get(reservation.tableNumber).remove(reservation.startMillis);
+        byStart.remove(reservation);
+        unmarkSlots(reservation);
+        return true;
+    }
+
+    /**
+     * Drop bookings that ended before the given time
+     */
+    public synchronized int purgeBefore(long cutoffMillis) {
+        Reservation cutoff = new Reservation(0, 0, null, 0, cutoffMillis, 0);
+        List<Reservation> ended = new ArrayList<>();
+        for (Reservation reservation : byStart.headSet(cutoff, false)) {
+            if (reservation.endMillis <= cutoffMillis) {
+                ended.add(reservation);
+            }
+        }
+        for (Reservation reservation : ended) {
+            cancel(reservation.reservationId);
+        }
+        return ended.size();
+    }
+
+    private Reservation insert(int tableNumber, String customerName, int partySize,
+                               long startMillis, long endMillis) {
+        Reservation reservation = new Reservation(nextReservationId++, tableNumber, customerName,
+                                                  partySize, startMillis, endMillis);
+        byTable.get(tableNumber).put(startMillis, reservation);
+        byId.put(reservation.reservationId, reservation);
+        byStart.add(reservation);
+        markSlots(reservation);
+        return reservation;
+    }
+
+    private void markSlots(Reservation reservation) {
+        CapacityGroup group = groupByTable.get(reservation.tableNumber);
+        int position = positionByTable.get(reservation.tableNumber);
+        for (long slot = Math.floorDiv(reservation.startMillis, SLOT_MILLIS);
+             slot * SLOT_MILLIS < reservation.endMillis; slot++) {
+            long[] busy = group.busyBySlot.get(slot);
+            if (busy == null || busy.length <= position >>> 6) {
+                busy = busy == null ? new long[(group.tables.size() + 63) >>> 6]
+                                    : Arrays.copyOf(busy, (group.tables.size() + 63) >>> 6);
+                group.busyBySlot.put(slot, busy);
+            }
+            busy[position >>> 6] |= 1L << position;
+        }
+    }
+
+    /**
+     * Clear the table's bit in each slot of a removed booking, unless another
+     * of its bookings (one that ends or starts mid-slot) still touches the slot
+     */
+    private void unmarkSlots(Reservation reservation) {
+        CapacityGroup group = groupByTable.get(reservation.tableNumber);
+        int position = positionByTable.get(reservation.tableNumber);
+        for (long slot = Math.floorDiv(reservation.startMillis, SLOT_MILLIS);
+             slot * SLOT_MILLIS < reservation.endMillis; slot++) {
+            long[] busy = group.busyBySlot.get(slot);
+            if (busy == null || !isFree(reservation.tableNumber, slot * SLOT_MILLIS, (slot + 1) * SLOT_MILLIS)) {
+                continue;
+            }
+            busy[position >>> 6] &= ~(1L << position);
+            if (isEmpty(busy)) {
+                group.busyBySlot.remove(slot);
+            }
+        }
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void validate(int partySize, long startMillis, long endMillis) {
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("Party size must be positive");
+        }
+        if (endMillis <= startMillis) {
+            throw new IllegalArgumentException("Reservation must end after it starts");
+        }
+    }
+}
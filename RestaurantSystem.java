@@ -7,12 +7,15 @@ import java.util.*;
  * Simple version without Controller (as per original UML)
  */
 public class RestaurantSystem {
-    // Global ArrayLists - حسب الـ UML الأصلي
-    private static ArrayList<Customer> customers = new ArrayList<>();
-    private static ArrayList<Cashier> cashiers = new ArrayList<>();
-    private static Menu menu = new Menu();
-    private static ArrayList<Table> tables = new ArrayList<>();
-    private static ArrayList<Order> orders = new ArrayList<>();
+    // Customers are chain-wide unless -Drestaurant.sharedCustomers=false
+    private static ArrayList<Customer> sharedCustomers = new ArrayList<>();
+    private static CustomerIndex sharedCustomerIndex = new CustomerIndex();
+    private static AddressRegistry addressRegistry = new AddressRegistry();
+    private static Gazetteer gazetteer;
+    private static BranchRegistry branches = new BranchRegistry("MAIN",
+            id -> new Branch(id, "Main Branch", sharedCustomers, sharedCustomerIndex));
+    private static final ThreadLocal<Branch> currentBranch = new ThreadLocal<>();
+    private static final long BRANCH_IDLE_MILLIS = 30 * 60_000L;
     private static Scanner scanner = new Scanner(System.in);
 
     public static void main(String[] args) {
@@ -28,6 +31,90 @@ public class RestaurantSystem {
     // ==================== INITIALIZATION ====================
     
     private static void initializeSystem() {
+        gazetteer = loadGazetteer();
+        boolean shared = Boolean.parseBoolean(System.getProperty("restaurant.sharedCustomers", "true"));
+        
+        // -Drestaurant.branches=MAIN,ALEX,GIZA; each branch is built on its first login
+        String[] ids = System.getProperty("restaurant.branches", "MAIN").split(",");
+        BranchLoader loader = new BranchLoader(shared);
+        branches = new BranchRegistry(ids[0], loader);
+        for (int i = 1; i < ids.length; i++) {
+            if (!ids[i].isBlank()) {
+                branches.define(ids[i], loader);
+            }
+        }
+        startMetrics();
+        
+        Branch main = branches.getDefault();
+        importData(main);
+        standBy();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Branch branch : branches.getLoadedBranches()) {
+                closeReceiptArchive(branch);
+            }
+        }));
+        System.out.println("✅ System initialized successfully!");
+        if (branches.getBranchIds().size() > 1) {
+            System.out.println("🏢 Branches: " + String.join(", ", branches.getBranchIds()));
+        }
+        System.out.println("\n👔 Sample Cashier Logins (" + main.getId() + "):");
+        for (Cashier c : main.getCashiers()) {
+            System.out.println("  - ID: " + c.getId() + " | Password: " + c.getPassword());
+        }
+        System.out.println();
+    }
+    
+    /**
+     * Builds each branch on its first login and starts its own services
+     * (order export, receipt archive, replication); stops them again when an
+     * idle branch is dropped
+     */
+    private static final class BranchLoader implements BranchRegistry.Loader {
+        private final boolean sharedCustomerList;
+
+        BranchLoader(boolean sharedCustomerList) {
+            this.sharedCustomerList = sharedCustomerList;
+        }
+
+        @Override
+        public Branch load(String branchId) {
+            Branch branch = openBranch(branchId, sharedCustomerList);
+            startExport(branch);
+            startReceiptArchive(branch);
+            startReplication(branch);
+            return branch;
+        }
+
+        @Override
+        public void unloaded(Branch branch) {
+            OrderExporter exporter = branch.getOrderExporter();
+            if (exporter != null) {
+                try {
+                    exporter.close();
+                } catch (java.io.IOException e) {
+                    // nothing half-written: the next open cuts back to the saved state
+                }
+                branch.setOrderExporter(null);
+            }
+            closeReceiptArchive(branch);
+            OrderJournal journal = branch.getJournal();
+            if (journal != null) {
+                branch.setJournal(null);
+                journal.close();
+            }
+        }
+    }
+    
+    /**
+     * Build a branch with the sample menu, stock, tables and cashiers
+     */
+    static Branch openBranch(String id, boolean sharedCustomerList) {
+        Branch branch = new Branch(id, id.equals(branches.getDefaultId()) ? "Main Branch" : id + " Branch",
+                                   sharedCustomerList ? sharedCustomers : null,
+                                   sharedCustomerList ? sharedCustomerIndex : null);
+        Menu menu = branch.getMenu();
+        Inventory inventory = branch.getInventory();
+        
         // إضافة عناصر للمينيو
         menu.addItem(new MenuItem("Burger", "Beef burger with cheese", 80.0, "Main", true));
         menu.addItem(new MenuItem("Pizza", "Margherita pizza", 120.0, "Main", true));
@@ -36,23 +123,46 @@ public class RestaurantSystem {
         menu.addItem(new MenuItem("Cola", "Soft drink", 20.0, "Beverage", true));
         menu.addItem(new MenuItem("Juice", "Fresh orange juice", 30.0, "Beverage", true));
         
+        // Opening stock and recipes (pieces / grams / ml)
+        inventory.addIngredient("Bun", 40);
+        inventory.addIngredient("Beef Patty", 40);
+        inventory.addIngredient("Cheese", 2000);
+        inventory.addIngredient("Pizza Dough", 25);
+        inventory.addIngredient("Mozzarella", 5000);
+        inventory.addIngredient("Pasta", 6000);
+        inventory.addIngredient("Chicken", 4000);
+        inventory.addIngredient("Greens", 3000);
+        inventory.addIngredient("Cola", 100);
+        inventory.addIngredient("Orange", 200);
+        inventory.setRecipe(menu.getItemByName("Burger"), Map.of("Bun", 1L, "Beef Patty", 1L, "Cheese", 20L));
+        inventory.setRecipe(menu.getItemByName("Pizza"), Map.of("Pizza Dough", 1L, "Mozzarella", 150L));
+        inventory.setRecipe(menu.getItemByName("Pasta"), Map.of("Pasta", 150L, "Chicken", 120L));
+        inventory.setRecipe(menu.getItemByName("Salad"), Map.of("Greens", 150L));
+        inventory.setRecipe(menu.getItemByName("Cola"), Map.of("Cola", 1L));
+        inventory.setRecipe(menu.getItemByName("Juice"), Map.of("Orange", 3L));
+        
         // إنشاء طاولات
         for (int i = 1; i <= 10; i++) {
-            tables.add(new Table(i, 4, Table.TableStatus.AVAILABLE));
+            branch.getTables().add(new Table(i, 4, Table.TableStatus.AVAILABLE));
         }
+        branch.layOutTables(5);   // two rows of five
         
-        // إنشاء cashiers للتجربة
-        cashiers.add(new Cashier("Ahmed Ali", "ahmed@restaurant.com", "0123456789", 
-                                "cash123", 5000, "Morning"));
-        cashiers.add(new Cashier("Sara Mohamed", "sara@restaurant.com", "0111222333", 
-                                "cash456", 5000, "Evening"));
+        // Delivery batching: 2 km radius, 5 minute window, 4 orders per rider
+        branch.setDeliveryBatcher(new DeliveryBatcher(gazetteer, 2.0, 5 * 60_000L, 4));
         
-        System.out.println("✅ System initialized successfully!");
-        System.out.println("\n👔 Sample Cashier Logins:");
-        for (Cashier c : cashiers) {
-            System.out.println("  - ID: " + c.getId() + " | Password: " + c.getPassword());
+        // إنشاء cashiers للتجربة
+        if (branch.getId().equals(branches.getDefaultId())) {
+            branch.getCashiers().add(new Cashier("Ahmed Ali", "ahmed@restaurant.com", "0123456789", 
+                                    "cash123", 5000, "Morning"));
+            branch.getCashiers().add(new Cashier("Sara Mohamed", "sara@restaurant.com", "0111222333", 
+                                    "cash456", 5000, "Evening"));
+        } else {
+            Cashier cashier = new Cashier(branch.getName() + " Cashier", id.toLowerCase() + "@restaurant.com",
+                                          "n/a", "cash123", 5000, "Morning");
+            branch.getCashiers().add(cashier);
+            System.out.println("🏢 " + branch + " opened | cashier " + cashier.getId() + " / cash123");
         }
-        System.out.println();
+        return branch;
     }
     
     // ==================== MAIN MENU ====================
@@ -70,9 +180,9 @@ public class RestaurantSystem {
             int choice = getIntInput();
             
             switch (choice) {
-                case 1 -> Customer.registerCustomer(customers, scanner);
-                case 2 -> login();
-                case 3 -> menu.displayMenu();
+                case 1 -> inChosenBranch(() -> Customer.registerCustomer(getBranch().getCustomers(), scanner));
+                case 2 -> inChosenBranch(RestaurantSystem::login);
+                case 3 -> inChosenBranch(() -> getMenu().displayMenu());
                 case 4 -> {
                     System.out.println("Thank you for using our system!");
                     System.exit(0);
@@ -84,24 +194,46 @@ public class RestaurantSystem {
     
     // ==================== LOGIN ====================
     
+    /**
+     * Route to a branch (asking only when there are several), then drop
+     * branches nobody has used for a while
+     */
+    private static void inChosenBranch(Runnable work) {
+        Branch branch = chooseBranch();
+        if (branch == null) {
+            return;
+        }
+        runIn(branch, work);
+        branches.unloadIdle(BRANCH_IDLE_MILLIS);
+    }
+    
     private static void login() {
         System.out.println("\n=== LOGIN ===");
         System.out.print("Enter your ID/Username (CUST### or CH###): ");
-        String id = scanner.nextLine();
+        String id = Prompt.readLine(scanner);
         
         System.out.print("Enter password: ");
-        String password = scanner.nextLine();
+        String password = Prompt.readLine(scanner);
         
+        // LOGIN covers finding the account as well as checking the password
         if (id.toUpperCase().startsWith("CUST")) {
-            Customer customer = Customer.findCustomer(id, customers);
-            if (customer != null && customer.login(id, password)) {
-                customer.customerMenu(menu, tables, scanner);
+            long start = System.nanoTime();
+            Customer customer = Customer.findCustomer(id, getBranch().getCustomers());
+            boolean authenticated = customer != null && customer.authenticate(id, password);
+            Metrics.LOGIN.recordSince(start);
+            if (authenticated) {
+                customer.welcome();
+                customer.customerMenu(getMenu(), getTables(), scanner);
             } else {
                 System.out.println("❌ Login failed! Invalid credentials.");
             }
         } else if (id.toUpperCase().startsWith("CH")) {
-            Cashier cashier = Cashier.findCashier(id, cashiers);
-            if (cashier != null && cashier.login(id, password)) {
+            long start = System.nanoTime();
+            Cashier cashier = Cashier.findCashier(id, getBranch().getCashiers());
+            boolean authenticated = cashier != null && cashier.authenticate(id, password);
+            Metrics.LOGIN.recordSince(start);
+            if (authenticated) {
+                cashier.welcome();
                 cashierMenu(cashier);
             } else {
                 System.out.println("❌ Login failed! Invalid credentials.");
@@ -123,7 +255,14 @@ public class RestaurantSystem {
             System.out.println("3. 🪑 View All Tables");
             System.out.println("4. ✅ Release Table");
             System.out.println("5. 📋 View Menu");
-            System.out.println("6. 🔙 Logout");
+            System.out.println("6. 📊 Kitchen Load");
+            System.out.println("7. 🛵 Dispatch Deliveries");
+            System.out.println("8. 📅 Reservations & Waitlist");
+            System.out.println("9. 📦 Inventory");
+            System.out.println("10. 🔒 Close My Shift");
+            System.out.println("11. 🧾 Reprint Archived Receipt");
+            System.out.println("12. 🏆 Shift Leaderboard");
+            System.out.println("13. 🔙 Logout");
             System.out.println("===================================");
             System.out.print("Choose an option: ");
             
@@ -134,8 +273,15 @@ public class RestaurantSystem {
                 case 2 -> processDineIn(cashier);
                 case 3 -> viewTables();
                 case 4 -> releaseTable();
-                case 5 -> menu.displayMenu();
-                case 6 -> {
+                case 5 -> getMenu().displayMenu();
+                case 6 -> System.out.println(getSystemManager().getAdmissionReport());
+                case 7 -> dispatchDeliveries();
+                case 8 -> manageReservations();
+                case 9 -> manageInventory();
+                case 10 -> cashier.closeShift(getLedger(), getShiftMetrics());
+                case 11 -> reprintArchivedReceipt();
+                case 12 -> System.out.println(getShiftMetrics().snapshot());
+                case 13 -> {
                     System.out.println("✅ Logged out successfully!");
                     return;
                 }
@@ -145,68 +291,174 @@ public class RestaurantSystem {
     }
     
     private static void processTakeaway(Cashier cashier) {
+        long started = System.nanoTime();
         System.out.println("\n=== PROCESS TAKEAWAY ORDER ===");
         
-        System.out.print("Enter customer ID (or 0 for walk-in): ");
-        String custId = scanner.nextLine();
+        System.out.print("Enter customer ID, phone, email or name (or 0 for walk-in): ");
+        String custId = Prompt.readLine(scanner);
         
         Customer customer = getOrCreateCustomer(custId);
         if (customer == null) return;
         
-        Map<MenuItem, Integer> items = menu.selectMenuItems(scanner);
+        Systemmanager.Admission admission = admit(Systemmode.TAKEAWAY);
+        
+        Map<MenuItem, Integer> items = getMenu().selectMenuItems(scanner);
         if (items.isEmpty()) {
             System.out.println("❌ No items selected!");
+            getSystemManager().withdraw(admission);
             return;
         }
         
         Order order = cashier.processTakeawayOrder(customer, items);
-        orders.add(order);
+        if (order == null) {
+            getSystemManager().withdraw(admission);
+            return;
+        }
+        getBranch().addOrder(order);
         cashier.printReceipt(order);
         
-        processPayment(order, cashier);
+        processPayment(order, cashier, started);
     }
     
     private static void processDineIn(Cashier cashier) {
+        long started = System.nanoTime();
         System.out.println("\n=== PROCESS DINE-IN ORDER ===");
         
-        System.out.print("Enter customer ID (or 0 for walk-in): ");
-        String custId = scanner.nextLine();
+        System.out.print("Enter customer ID, phone, email or name (or 0 for walk-in): ");
+        String custId = Prompt.readLine(scanner);
         
         Customer customer = getOrCreateCustomer(custId);
         if (customer == null) return;
         
-        Table table = Table.selectTable(tables, scanner);
+        System.out.print("Party size: ");
+        int partySize = getIntInput();
+        if (partySize <= 0) {
+            System.out.println("❌ Invalid party size!");
+            return;
+        }
+        
+        Table table;
+        if (partySize > largestTableCapacity()) {
+            // Too big for any one table: push adjacent free tables together,
+            // keeping off tables booked before the party would leave or held
+            // for a party called from the waitlist
+            ReservationBook reservations = getReservationBook();
+            Waitlist waitlist = getWaitlist();
+            long now = System.currentTimeMillis();
+            List<Table> merged = getFloorPlan().seatParty(partySize,
+                    t -> !reservations.isHeld(t, now, ReservationBook.DEFAULT_WALK_IN_MILLIS)
+                         && waitlist.getCalledParty(t) == null);
+            if (merged == null) {
+                // Not offered the waitlist: a released table is only ever
+                // matched to a party that fits it, so this one would never be called
+                Metrics.NO_AVAILABLE_TABLES.increment();
+                System.out.println("❌ No adjacent free tables can seat " + partySize + " - please try again later!");
+                return;
+            }
+            StringBuilder numbers = new StringBuilder();
+            for (Table t : merged) {
+                numbers.append(numbers.length() == 0 ? "#" : " + #").append(t.getTableNumber());
+            }
+            System.out.println("✅ Merged tables " + numbers + " for a party of " + partySize);
+            table = merged.get(0);
+        } else {
+            table = Table.selectTable(getTables(), scanner);
+        }
         if (table == null) {
             System.out.println("❌ No available tables!");
+            if (Table.getAvailableTables(getTables()).isEmpty()) {
+                offerWaitlist(customer, partySize);
+            }
             return;
         }
         
-        Map<MenuItem, Integer> items = menu.selectMenuItems(scanner);
+        Systemmanager.Admission admission = admit(Systemmode.DINE_IN);
+        
+        Map<MenuItem, Integer> items = getMenu().selectMenuItems(scanner);
         if (items.isEmpty()) {
             System.out.println("❌ No items selected!");
-            table.releaseTable();
+            getSystemManager().withdraw(admission);
+            getFloorPlan().release(table);
             return;
         }
         
         Order order = cashier.processWalkInOrder(customer, items, table);
-        orders.add(order);
+        if (order == null) {
+            getSystemManager().withdraw(admission);
+            getFloorPlan().release(table);
+            return;
+        }
+        getBranch().addOrder(order);
         cashier.printReceipt(order);
         
-        processPayment(order, cashier);
+        processPayment(order, cashier, started);
         
         // سؤال تحرير الطاولة
         System.out.print("\n🪑 Has customer finished? Release table now? (y/n): ");
-        String release = scanner.nextLine();
+        String release = Prompt.readLine(scanner);
         if (release.equalsIgnoreCase("y")) {
-            table.releaseTable();
+            getFloorPlan().release(table);
             System.out.println("✅ Table #" + table.getTableNumber() + " is now available!");
         }
     }
     
+    private static int largestTableCapacity() {
+        int largest = 0;
+        for (Table table : getTables()) {
+            largest = Math.max(largest, table.getCapacity());
+        }
+        return largest;
+    }
+    
+    private static void offerWaitlist(Customer customer, int partySize) {
+        long estimate = getWaitlist().estimateWaitMillis();
+        System.out.print("⏳ Estimated wait: " + (estimate + 59_999) / 60_000
+                         + " min. Add to waitlist? (y/n): ");
+        if (!Prompt.readLine(scanner).equalsIgnoreCase("y")) {
+            return;
+        }
+        Waitlist.Party party = getWaitlist().join(customer.getName(), partySize, System.currentTimeMillis());
+        System.out.println("✅ Added to waitlist: " + party);
+    }
+    
+    private static void viewWaitlist() {
+        System.out.println("\n========== WAITLIST ==========");
+        List<Waitlist.Party> parties = getWaitlist().getWaitingParties();
+        if (parties.isEmpty()) {
+            System.out.println("Nobody is waiting.");
+        }
+        long now = System.currentTimeMillis();
+        for (Waitlist.Party party : parties) {
+            System.out.println(party + " | waited " + (now - party.getJoinedAtMillis()) / 60_000L + " min");
+        }
+        System.out.println("Average seat time: " + getWaitlist().getAverageSeatMillis() / 60_000L + " min");
+        System.out.print("Remove a ticket (0 to skip): ");
+        int ticket = getIntInput();
+        if (ticket > 0) {
+            System.out.println(getWaitlist().leave(ticket) ? "✅ Removed." : "❌ Ticket not found.");
+        }
+    }
+    
     private static void viewTables() {
-        System.out.println("\n========== ALL TABLES ==========");
-        for (Table table : tables) {
-            System.out.println(table);
+        // Tables are only added at startup, so the branch's table version alone keys the board
+        Branch branch = getBranch();
+        DisplayCache.print(branch.getTableBoard().get(branch.getBoardVersion(),
+                                                      () -> Table.renderBoard(branch.getTables())));
+    }
+    
+    private static void reprintArchivedReceipt() {
+        ReceiptArchive archive = getBranch().getReceiptArchive();
+        if (archive == null) {
+            System.out.println("❌ Receipts are not archived (start with -Drestaurant.receiptDir)");
+            return;
+        }
+        System.out.print("Order ID: ");
+        int orderId = getIntInput();
+        try {
+            String receipt = archive.get(orderId);
+            System.out.println(receipt != null ? receipt : "❌ No archived receipt for order #" + orderId);
+        } catch (java.io.IOException e) {
+            System.out.println("❌ Could not read the archive: " + e.getMessage());
         }
     }
     
@@ -214,7 +466,7 @@ public class RestaurantSystem {
         System.out.println("\n========== RELEASE TABLE ==========");
         
         ArrayList<Table> occupied = new ArrayList<>();
-        for (Table table : tables) {
+        for (Table table : getTables()) {
             if (!table.isAvailable()) {
                 occupied.add(table);
             }
@@ -235,12 +487,132 @@ public class RestaurantSystem {
         
         if (choice > 0 && choice <= occupied.size()) {
             Table table = occupied.get(choice - 1);
-            table.releaseTable();
+            getFloorPlan().release(table);
             System.out.println("✅ Table released!");
         }
     }
     
-    private static void processPayment(Order order, Cashier cashier) {
+    private static void dispatchDeliveries() {
+        System.out.println("\n========== DISPATCH DELIVERIES ==========");
+        System.out.println("Waiting orders: " + getDeliveryBatcher().getPendingCount());
+        
+        List<DeliveryBatcher.RiderRun> runs = getDeliveryBatcher().buildBatches(System.currentTimeMillis());
+        if (runs.isEmpty()) {
+            System.out.print("No runs due yet. Dispatch everything now? (y/n): ");
+            if (Prompt.readLine(scanner).equalsIgnoreCase("y")) {
+                runs = getDeliveryBatcher().flush();
+            }
+        }
+        for (DeliveryBatcher.RiderRun run : runs) {
+            System.out.println(run);
+        }
+    }
+    
+    private static void manageReservations() {
+        System.out.println("\n========== RESERVATIONS & WAITLIST ==========");
+        System.out.println("1. Book Table");
+        System.out.println("2. Cancel Reservation");
+        System.out.println("3. Seat Arriving Party");
+        System.out.println("4. Today's Reservations");
+        System.out.println("5. Walk-In Waitlist");
+        System.out.print("Choice: ");
+        
+        int choice = getIntInput();
+        
+        switch (choice) {
+            case 1 -> bookReservation();
+            case 2 -> {
+                System.out.print("Reservation ID: ");
+                long id = getIntInput();
+                System.out.println(getReservationBook().cancel(id)
+                        ? "✅ Reservation cancelled." : "❌ Reservation not found.");
+            }
+            case 3 -> seatReservation();
+            case 4 -> {
+                java.time.LocalDate today = java.time.LocalDate.now();
+                java.time.ZoneId zone = java.time.ZoneId.systemDefault();
+                List<ReservationBook.Reservation> todays = getReservationBook().getReservations(
+                        today.atStartOfDay(zone).toInstant().toEpochMilli(),
+                        today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+                if (todays.isEmpty()) {
+                    System.out.println("No reservations today.");
+                }
+                for (ReservationBook.Reservation r : todays) {
+                    System.out.println(r);
+                }
+            }
+            case 5 -> viewWaitlist();
+            default -> System.out.println("❌ Invalid choice!");
+        }
+    }
+    
+    private static void bookReservation() {
+        System.out.print("Name: ");
+        String name = Prompt.readLine(scanner).trim();
+        System.out.print("Party size: ");
+        int partySize = getIntInput();
+        System.out.print("Date and time (yyyy-MM-dd HH:mm): ");
+        String when = Prompt.readLine(scanner).trim();
+        System.out.print("Duration in minutes: ");
+        int minutes = getIntInput();
+        
+        try {
+            long start = java.time.LocalDateTime.parse(when.replace(' ', 'T'))
+                    .atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
+            ReservationBook.Reservation reservation =
+                    getReservationBook().book(name, partySize, start, start + minutes * 60_000L);
+            if (reservation == null) {
+                System.out.println("❌ No table for " + partySize + " is free at that time.");
+            } else {
+                System.out.println("✅ Booked: " + reservation);
+            }
+        } catch (java.time.format.DateTimeParseException e) {
+            System.out.println("❌ Invalid date/time!");
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+        }
+    }
+    
+    private static void seatReservation() {
+        System.out.print("Reservation ID: ");
+        ReservationBook.Reservation reservation = getReservationBook().getReservation(getIntInput());
+        if (reservation == null) {
+            System.out.println("❌ Reservation not found.");
+            return;
+        }
+        for (Table table : getTables()) {
+            if (table.getTableNumber() == reservation.getTableNumber()) {
+                if (table.assignTable()) {
+                    System.out.println("✅ " + reservation.getCustomerName() + " seated at Table #"
+                                       + table.getTableNumber());
+                }
+                return;
+            }
+        }
+    }
+    
+    private static void manageInventory() {
+        System.out.println("\n========== INVENTORY ==========");
+        System.out.print(getInventory().getStockReport());
+        System.out.print("Restock ingredient (blank to skip): ");
+        String name = Prompt.readLine(scanner).trim();
+        if (name.isEmpty()) {
+            return;
+        }
+        System.out.print("Quantity: ");
+        int quantity = getIntInput();
+        try {
+            getInventory().restock(name, quantity);
+            System.out.println("✅ " + name + " now at " + getInventory().getStock(name));
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Take payment for an order the cashier started at startedNanos
+     */
+    private static void processPayment(Order order, Cashier cashier, long startedNanos) {
         System.out.println("\n--- PAYMENT ---");
         System.out.println("Total: EGP " + order.getTotal());
         System.out.println("Select payment method:");
@@ -264,44 +636,365 @@ public class RestaurantSystem {
         System.out.print("Enter payment amount: EGP ");
         double amount = getDoubleInput();
         
-        cashier.acceptPayment(order, amount, method);
+        cashier.acceptPayment(order, amount, method, startedNanos);
+        getBranch().archiveReceipt(order);
     }
     
     // ==================== HELPER METHODS ====================
     
+    /**
+     * Register metrics over JMX, plus HTTP when -Drestaurant.metrics.port is set
+     */
+    private static void startMetrics() {
+        Metrics.registerJmx();
+        String port = System.getProperty("restaurant.metrics.port");
+        if (port == null || port.isBlank()) {
+            return;
+        }
+        try {
+            Metrics.startHttpEndpoint(Integer.parseInt(port.trim()));
+            System.out.println("📈 Metrics at http://127.0.0.1:" + port.trim() + "/metrics");
+        } catch (NumberFormatException | java.io.IOException e) {
+            System.out.println("⚠️ Could not start metrics endpoint: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * -Drestaurant.importCustomers=file / -Drestaurant.importMenu=file: bulk load
+     * CSV or JSON into the default branch before the tills open
+     */
+    private static void importData(Branch branch) {
+        String customers = System.getProperty("restaurant.importCustomers");
+        String menu = System.getProperty("restaurant.importMenu");
+        if ((customers == null || customers.isBlank()) && (menu == null || menu.isBlank())) {
+            return;
+        }
+        BulkImporter importer = new BulkImporter();
+        try {
+            if (customers != null && !customers.isBlank()) {
+                reportImport(importer.importCustomers(java.nio.file.Paths.get(customers.trim()), branch));
+            }
+            if (menu != null && !menu.isBlank()) {
+                reportImport(importer.importMenu(java.nio.file.Paths.get(menu.trim()), branch.getMenu()));
+            }
+        } catch (java.io.IOException e) {
+            System.out.println("⚠️ Import failed: " + e.getMessage());
+        }
+    }
+
+    private static void reportImport(BulkImporter.ImportReport report) {
+        System.out.println("📥 " + report);
+        for (BulkImporter.RowError error : report.getErrors().subList(0, Math.min(5, report.getErrors().size()))) {
+            System.out.println("   ⚠️ " + error);
+        }
+        if (report.getErrors().size() > 5) {
+            System.out.println("   ... and " + (report.getErrors().size() - 5) + " more rejected rows");
+        }
+    }
+
+    /**
+     * -Drestaurant.standbyPort=port: run as the hot standby of another process,
+     * one StandbyNode per branch on consecutive ports (in branch id order),
+     * and take over every branch that was replicated once the primary is lost
+     */
+    private static void standBy() {
+        String standbyPort = System.getProperty("restaurant.standbyPort");
+        if (standbyPort == null || standbyPort.isBlank()) {
+            return;
+        }
+        int basePort = Integer.parseInt(standbyPort.trim());
+        List<String> ids = branches.getBranchIds();
+        StandbyNode[] standbys = new StandbyNode[ids.size()];
+        Thread[] receivers = new Thread[ids.size()];
+        for (int i = 0; i < standbys.length; i++) {
+            standbys[i] = new StandbyNode(basePort + i);
+        }
+        System.out.println("🛡️ Standby for " + String.join(", ", ids) + " on ports " + basePort + "-"
+                           + (basePort + ids.size() - 1) + " - waiting for the primary...");
+        for (int i = 0; i < standbys.length; i++) {
+            StandbyNode standby = standbys[i];
+            receivers[i] = new Thread(() -> {
+                try {
+                    standby.replicateUntilPrimaryLost();
+                } catch (java.io.IOException e) {
+                    System.out.println("⚠️ Standby stopped: " + e.getMessage());
+                }
+                // The primary process is gone: its branches that never connected have nothing to send
+                for (StandbyNode other : standbys) {
+                    other.stopWaiting();
+                }
+            }, "standby-" + ids.get(i));
+            receivers[i].start();
+        }
+        for (Thread receiver : receivers) {
+            try {
+                receiver.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        for (int i = 0; i < standbys.length; i++) {
+            if (standbys[i].getAppliedSequence() == 0) {
+                continue;
+            }
+            List<Order> reopened = standbys[i].takeOver(branches.get(ids.get(i)));
+            System.out.println("🛡️ Primary lost - " + ids.get(i) + " took over " + reopened.size()
+                               + " open orders and " + standbys[i].getSeatedTables().size() + " seated tables");
+        }
+    }
+    
+    /**
+     * -Drestaurant.replicateTo=host:port: stream the branch to the standby
+     * listening for it (port + the branch's position in branch id order)
+     */
+    private static void startReplication(Branch branch) {
+        String target = System.getProperty("restaurant.replicateTo");
+        if (target == null || target.isBlank()) {
+            return;
+        }
+        try {
+            int colon = target.lastIndexOf(':');
+            String host = target.substring(0, colon).trim();
+            int port = Integer.parseInt(target.substring(colon + 1).trim())
+                       + branches.getBranchIds().indexOf(branch.getId());
+            branch.setJournal(OrderJournal.connect(host, port));
+            System.out.println("🛡️ Replicating " + branch.getId() + " to " + host + ":" + port);
+        } catch (java.io.IOException | RuntimeException e) {
+            System.out.println("⚠️ Could not reach standby " + target + " for " + branch.getId() + ": "
+                               + e.getMessage());
+        }
+    }
+    
+    /**
+     * -Drestaurant.exportDir=dir: append the branch's finished orders for
+     * accounting (orders-<branch>.csv) every -Drestaurant.exportMinutes
+     * (default 15), as -Drestaurant.exportFormat=csv|json
+     */
+    private static void startExport(Branch branch) {
+        String dir = System.getProperty("restaurant.exportDir");
+        if (dir == null || dir.isBlank()) {
+            return;
+        }
+        try {
+            OrderExporter.Format format = OrderExporter.Format.valueOf(
+                    System.getProperty("restaurant.exportFormat", "csv").trim().toUpperCase());
+            long minutes = Long.parseLong(System.getProperty("restaurant.exportMinutes", "15").trim());
+            OrderExporter exporter = new OrderExporter(branch, java.nio.file.Paths.get(dir.trim()), format);
+            exporter.schedule(minutes);
+            branch.setOrderExporter(exporter);
+            System.out.println("📤 Exporting orders to " + exporter.getDataFile() + " every " + minutes + " min");
+        } catch (java.io.IOException | IllegalArgumentException e) {
+            System.out.println("⚠️ Could not start order export: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * -Drestaurant.receiptDir=dir: keep every paid order's receipt in a
+     * compressed archive there, one sub-directory per branch (dir/main, ...)
+     */
+    private static void startReceiptArchive(Branch branch) {
+        String dir = System.getProperty("restaurant.receiptDir");
+        if (dir == null || dir.isBlank()) {
+            return;
+        }
+        java.nio.file.Path directory = java.nio.file.Paths.get(dir.trim(), branch.getId().toLowerCase());
+        try {
+            ReceiptArchive archive = new ReceiptArchive(directory);
+            branch.setReceiptArchive(archive);
+            System.out.println("🧾 Archiving receipts in " + directory + " (" + archive.size() + " kept)");
+        } catch (java.io.IOException e) {
+            System.out.println("⚠️ Could not open receipt archive: " + e.getMessage());
+        }
+    }
+    
+    private static void closeReceiptArchive(Branch branch) {
+        ReceiptArchive archive = branch.getReceiptArchive();
+        if (archive == null) {
+            return;
+        }
+        branch.setReceiptArchive(null);
+        try {
+            archive.close();
+        } catch (java.io.IOException e) {
+            // reopening rebuilds the index of the open segment
+        }
+    }
+    
+    /**
+     * Load the offline gazetteer named by -Drestaurant.gazetteer (default gazetteer.csv)
+     */
+    private static Gazetteer loadGazetteer() {
+        java.nio.file.Path file = java.nio.file.Paths.get(
+                System.getProperty("restaurant.gazetteer", "gazetteer.csv"));
+        if (!java.nio.file.Files.exists(file)) {
+            return null;
+        }
+        try {
+            Gazetteer gazetteer = Gazetteer.load(file);
+            System.out.println("🗺️ Gazetteer loaded: " + gazetteer.size() + " places");
+            return gazetteer;
+        } catch (java.io.IOException e) {
+            System.out.println("⚠️ Could not load gazetteer: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Ask the system manager for a kitchen slot and tell the cashier about delays
+     */
+    private static Systemmanager.Admission admit(Systemmode mode) {
+        Systemmanager.Admission admission = getSystemManager().admit(mode);
+        if (admission.getDecision() == Systemmanager.Decision.DEFERRED) {
+            System.out.println("⏳ Kitchen is busy - tell the customer: ready by " +
+                             admission.getPromisedAt().toLocalTime().withNano(0));
+        }
+        return admission;
+    }
+    
     private static Customer getOrCreateCustomer(String custId) {
         if (custId.equals("0")) {
             System.out.print("Customer name: ");
-            String name = scanner.nextLine();
-            Address tempAddr = new Address(0, "Walk-in", true);
-            return new Customer("guest", "guest", false, tempAddr, name, "n/a", "n/a");
-        } else {
-            return Customer.findCustomer(custId, customers);
+            String name = Prompt.readLine(scanner);
+            return new Customer("guest", "guest", false, addressRegistry.walkIn(), name, "n/a", "n/a");
+        }
+        Customer customer = Customer.findCustomer(custId, getBranch().getCustomers());
+        if (customer != null) {
+            return customer;
+        }
+        // Not an id or username: look the customer up by phone, email or name
+        List<CustomerIndex.Match> matches = getCustomerIndex().search(custId, 5);
+        if (matches.isEmpty()) {
+            System.out.println("❌ No customer matches '" + custId + "'");
+            return null;
         }
+        for (int i = 0; i < matches.size(); i++) {
+            System.out.println((i + 1) + ". " + matches.get(i));
+        }
+        System.out.print("Choose customer (0 to cancel): ");
+        int choice = getIntInput();
+        return choice >= 1 && choice <= matches.size() ? matches.get(choice - 1).getCustomer() : null;
     }
     
-    // Get ArrayLists (for Customer class)
+    // ==================== BRANCH ROUTING ====================
+    
+    /**
+     * The branch the calling thread is working in (the default branch if none)
+     */
+    public static Branch getBranch() {
+        Branch branch = currentBranch.get();
+        return branch != null ? branch : branches.getDefault();
+    }
+    
+    public static BranchRegistry getBranches() {
+        return branches;
+    }
+    
+    /**
+     * Run work on the calling thread as part of the given branch
+     */
+    public static void runIn(Branch branch, Runnable work) {
+        Branch previous = currentBranch.get();
+        currentBranch.set(branch);
+        branch.enter();
+        try {
+            work.run();
+        } finally {
+            branch.leave();
+            if (previous == null) {
+                currentBranch.remove();
+            } else {
+                currentBranch.set(previous);
+            }
+        }
+    }
+    
+    /**
+     * Ask which branch to work in; skipped when only one branch is defined
+     */
+    private static Branch chooseBranch() {
+        List<String> ids = branches.getBranchIds();
+        if (ids.size() == 1) {
+            return branches.getDefault();
+        }
+        System.out.print("Branch " + ids + " (Enter for " + branches.getDefaultId() + "): ");
+        String id = Prompt.readLine(scanner).trim();
+        if (id.isEmpty()) {
+            return branches.getDefault();
+        }
+        Branch branch = branches.isDefined(id) ? branches.get(id) : null;
+        if (branch == null) {
+            System.out.println("❌ Unknown branch!");
+        }
+        return branch;
+    }
+    
+    // Get ArrayLists (for Customer class) - all per branch except addresses
     public static Menu getMenu() {
-        return menu;
+        return getBranch().getMenu();
     }
     
     public static ArrayList<Table> getTables() {
-        return tables;
+        return getBranch().getTables();
     }
     
     public static ArrayList<Order> getOrders() {
-        return orders;
+        return getBranch().getOrders();
+    }
+    
+    public static PaymentLedger getLedger() {
+        return getBranch().getLedger();
+    }
+    
+    public static ShiftMetrics getShiftMetrics() {
+        return getBranch().getShiftMetrics();
+    }
+    
+    public static PricingEngine getPricingEngine() {
+        return getBranch().getPricingEngine();
+    }
+    
+    public static Inventory getInventory() {
+        return getBranch().getInventory();
+    }
+    
+    public static Systemmanager getSystemManager() {
+        return getBranch().getSystemManager();
+    }
+    
+    public static DeliveryBatcher getDeliveryBatcher() {
+        return getBranch().getDeliveryBatcher();
+    }
+    
+    public static CustomerIndex getCustomerIndex() {
+        return getBranch().getCustomerIndex();
+    }
+    
+    public static AddressRegistry getAddressRegistry() {
+        return addressRegistry;
+    }
+    
+    public static ReservationBook getReservationBook() {
+        return getBranch().getReservationBook();
+    }
+    
+    public static Waitlist getWaitlist() {
+        return getBranch().getWaitlist();
+    }
+    
+    public static FloorPlan getFloorPlan() {
+        return getBranch().getFloorPlan();
     }
     
     private static int getIntInput() {
         while (true) {
             try {
-                int value = scanner.nextInt();
-                scanner.nextLine();
+                int value = Prompt.readInt(scanner);
+                Prompt.readLine(scanner);
                 return value;
             } catch (InputMismatchException e) {
                 System.out.print("❌ Invalid input! Enter a number: ");
-                scanner.nextLine();
+                Prompt.readLine(scanner);
             }
         }
     }
@@ -309,12 +1002,12 @@ public class RestaurantSystem {
     private static double getDoubleInput() {
         while (true) {
             try {
-                double value = scanner.nextDouble();
-                scanner.nextLine();
+                double value = Prompt.readDouble(scanner);
+                Prompt.readLine(scanner);
                 return value;
             } catch (InputMismatchException e) {
                 System.out.print("❌ Invalid input! Enter a number: ");
-                scanner.nextLine();
+                Prompt.readLine(scanner);
             }
         }
     }
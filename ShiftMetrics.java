@@ -0,0 +1,296 @@
+package restaurantsystem;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Shift metrics - what each cashier actually did this shift: orders taken and
+ * revenue (per hour), items per order, how often payments fail, and how long
+ * an order takes from the moment the cashier starts it until it is paid.
+ *
+ * Recording sits on the till's payment path, so it works like
+ * LatencyHistogram: each till thread owns a stripe of counters per cashier
+ * that only it writes, and the leaderboard merges the stripes when it is
+ * shown. Closing the shift swaps in a fresh set of accumulators and
+ * summarises the old one; a cashier closing their own shift swaps and
+ * summarises just their row.
+ */
+public class ShiftMetrics {
+    /**
+     * Pass as the order start when the handling time is unknown
+     */
+    public static final long NO_START = Long.MIN_VALUE;
+
+    private static final int ORDERS = 0;
+    private static final int ITEMS = 1;
+    private static final int REVENUE_CENTS = 2;
+    private static final int FAILED = 3;
+    private static final int FIELDS = 4;
+
+    /**
+     * Accumulators of one shift
+     */
+    private static final class Shift {
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final ConcurrentHashMap<String, CashierStats> byCashier = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * One cashier's counters for one shift, striped per recording thread
+     */
+    private static final class CashierStats {
+        final String cashierId;
+        final String name;
+        final LocalDateTime startedAt;
+        final long startNanos;
+        final LatencyHistogram handling;
+        final CopyOnWriteArrayList<AtomicLongArray> stripes = new CopyOnWriteArrayList<>();
+        final ThreadLocal<AtomicLongArray> local = ThreadLocal.withInitial(() -> {
+            AtomicLongArray stripe = new AtomicLongArray(FIELDS);
+            stripes.add(stripe);
+            return stripe;
+        });
+
+        CashierStats(Cashier cashier, LocalDateTime startedAt, long startNanos) {
+            this.cashierId = cashier.getId();
+            this.name = cashier.getName();
+            this.startedAt = startedAt;
+            this.startNanos = startNanos;
+            this.handling = new LatencyHistogram("order_handling." + cashierId);
+        }
+    }
+
+    private volatile Shift current = new Shift();
+
+    // ==================== RECORDING ====================
+
+    /**
+     * Record the outcome of a payment a cashier took; orderStartNanos is the
+     * System.nanoTime() at which the cashier started the order (or NO_START)
+     */
+    public void recordPayment(Cashier cashier, Order order, boolean paid, long orderStartNanos) {
+        long now = System.nanoTime();
+        Shift shift = current;
+        CashierStats stats = shift.byCashier.get(cashier.getId());
+        if (stats == null) {
+            stats = shift.byCashier.computeIfAbsent(cashier.getId(),
+                    id -> new CashierStats(cashier, shift.startedAt, shift.startNanos));
+        }
+        AtomicLongArray stripe = stats.local.get();
+        // Single writer per stripe: ordered stores are enough, no CAS needed
+        if (paid) {
+            int items = 0;
+            for (int quantity : order.getItems().values()) {
+                items += quantity;
+            }
+            stripe.lazySet(ORDERS, stripe.get(ORDERS) + 1);
+            stripe.lazySet(ITEMS, stripe.get(ITEMS) + items);
+            stripe.lazySet(REVENUE_CENTS, stripe.get(REVENUE_CENTS) + Math.round(order.getTotal() * 100));
+        } else {
+            stripe.lazySet(FAILED, stripe.get(FAILED) + 1);
+        }
+        if (orderStartNanos != NO_START) {
+            stats.handling.record(now - orderStartNanos);
+        }
+    }
+
+    // ==================== REPORTING ====================
+
+    /**
+     * Live leaderboard of the current shift
+     */
+    public Summary snapshot() {
+        return summarise(current, false);
+    }
+
+    /**
+     * End the shift: start counting afresh and return the closed shift's summary
+     */
+    public synchronized Summary closeShift() {
+        Shift closed = current;
+        current = new Shift();
+        return summarise(closed, true);
+    }
+
+    /**
+     * End one cashier's shift: start their counts afresh and return their
+     * closed figures (other cashiers carry on)
+     */
+    public synchronized Summary closeShift(Cashier cashier) {
+        Shift shift = current;
+        CashierStats closed = shift.byCashier.put(cashier.getId(),
+                new CashierStats(cashier, LocalDateTime.now(), System.nanoTime()));
+        if (closed == null) {
+            closed = new CashierStats(cashier, shift.startedAt, shift.startNanos);
+        }
+        long now = System.nanoTime();
+        return new Summary(closed.startedAt, now - closed.startNanos, true, List.of(row(closed, now)));
+    }
+
+    private static Summary summarise(Shift shift, boolean closed) {
+        long now = System.nanoTime();
+        List<CashierRow> rows = new ArrayList<>();
+        for (CashierStats stats : shift.byCashier.values()) {
+            rows.add(row(stats, now));
+        }
+        rows.sort(Comparator.comparingLong((CashierRow r) -> r.revenueCents).reversed()
+                            .thenComparing(r -> r.cashierId));
+        return new Summary(shift.startedAt, now - shift.startNanos, closed, rows);
+    }
+
+    private static CashierRow row(CashierStats stats, long nowNanos) {
+        long[] totals = new long[FIELDS];
+        for (AtomicLongArray stripe : stats.stripes) {
+            for (int i = 0; i < FIELDS; i++) {
+                totals[i] += stripe.get(i);
+            }
+        }
+        // Rates over the cashier's own time, which is shorter if they closed earlier
+        return new CashierRow(stats.cashierId, stats.name, totals[ORDERS], totals[ITEMS],
+                              totals[REVENUE_CENTS], totals[FAILED], stats.handling.snapshot(),
+                              nowNanos - stats.startNanos);
+    }
+
+    /**
+     * One cashier's line of a leaderboard
+     */
+    public static final class CashierRow {
+        private final String cashierId;
+        private final String name;
+        private final long orders;
+        private final long items;
+        private final long revenueCents;
+        private final long failedPayments;
+        private final LatencyHistogram.Snapshot handling;
+        private final double hours;
+
+        CashierRow(String cashierId, String name, long orders, long items, long revenueCents,
+                   long failedPayments, LatencyHistogram.Snapshot handling, long elapsedNanos) {
+            this.cashierId = cashierId;
+            this.name = name;
+            this.orders = orders;
+            this.items = items;
+            this.revenueCents = revenueCents;
+            this.failedPayments = failedPayments;
+            this.handling = handling;
+            // Rates over less than a minute would be noise
+            this.hours = Math.max(elapsedNanos, 60_000_000_000L) / 3.6e12;
+        }
+
+        public String getCashierId() { return cashierId; }
+        public String getName() { return name; }
+        public long getOrders() { return orders; }
+        public double getRevenue() { return revenueCents / 100.0; }
+        public long getFailedPayments() { return failedPayments; }
+        public double getOrdersPerHour() { return orders / hours; }
+        public double getRevenuePerHour() { return revenueCents / 100.0 / hours; }
+
+        public double getAverageItems() {
+            return orders == 0 ? 0 : (double) items / orders;
+        }
+
+        /**
+         * Failed payments over all payments attempted (0..1)
+         */
+        public double getFailureRate() {
+            long attempts = orders + failedPayments;
+            return attempts == 0 ? 0 : (double) failedPayments / attempts;
+        }
+
+        /**
+         * Order start to payment, in seconds
+         */
+        public double getMeanHandlingSeconds() {
+            return handling.getMeanNanos() / 1e9;
+        }
+
+        public double getHandlingSecondsAt(double quantile) {
+            return handling.getValueAtQuantile(quantile) / 1e9;
+        }
+    }
+
+    /**
+     * Leaderboard of a shift, best revenue first
+     */
+    public static final class Summary {
+        private final LocalDateTime startedAt;
+        private final long elapsedNanos;
+        private final boolean closed;
+        private final List<CashierRow> rows;
+
+        Summary(LocalDateTime startedAt, long elapsedNanos, boolean closed, List<CashierRow> rows) {
+            this.startedAt = startedAt;
+            this.elapsedNanos = elapsedNanos;
+            this.closed = closed;
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public Duration getElapsed() { return Duration.ofNanos(elapsedNanos); }
+        public List<CashierRow> getRows() { return rows; }
+
+        public CashierRow getRow(String cashierId) {
+            for (CashierRow row : rows) {
+                if (row.cashierId.equals(cashierId)) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            Duration elapsed = getElapsed();
+            StringBuilder sb = new StringBuilder();
+            sb.append("\n").append("=".repeat(110)).append("\n");
+            sb.append(closed ? "                                            SHIFT PRODUCTIVITY\n"
+                             : "                                          LIVE SHIFT LEADERBOARD\n");
+            sb.append("=".repeat(110)).append("\n");
+            sb.append("Shift started: ").append(startedAt.withNano(0))
+              .append(String.format(" | %dh %02dm %s%n", elapsed.toHours(), elapsed.toMinutesPart(),
+                                    closed ? "worked" : "so far"));
+            sb.append("-".repeat(110)).append("\n");
+            sb.append(String.format("%-3s %-22s %7s %8s %12s %12s %10s %9s %10s %10s%n", "#", "Cashier",
+                                    "Orders", "Per hour", "Revenue", "Per hour", "Items/ord", "Failed",
+                                    "Handle avg", "Handle p90"));
+            long orders = 0;
+            long failed = 0;
+            double revenue = 0;
+            int rank = 1;
+            for (CashierRow row : rows) {
+                sb.append(String.format("%-3d %-22s %7d %8.1f %12.2f %12.2f %10.2f %8.1f%% %10s %10s%n",
+                                        rank++, row.name + " (" + row.cashierId + ")", row.orders,
+                                        row.getOrdersPerHour(), row.getRevenue(), row.getRevenuePerHour(),
+                                        row.getAverageItems(), row.getFailureRate() * 100,
+                                        duration(row.getMeanHandlingSeconds()),
+                                        duration(row.getHandlingSecondsAt(0.9))));
+                orders += row.orders;
+                failed += row.failedPayments;
+                revenue += row.getRevenue();
+            }
+            if (rows.isEmpty()) {
+                sb.append("No payments taken yet.\n");
+            }
+            sb.append("-".repeat(110)).append("\n");
+            sb.append(String.format("Total: %d orders, EGP %.2f, %d failed payments%n", orders, revenue, failed));
+            sb.append("=".repeat(110)).append("\n");
+            return sb.toString();
+        }
+
+        private static String duration(double seconds) {
+            if (seconds < 1) {
+                return String.format("%.0f ms", seconds * 1e3);
+            }
+            return seconds < 60 ? String.format("%.1f s", seconds) : String.format("%.1f min", seconds / 60);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package restaurantsystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Standby node - the receiving end of an OrderJournal.
+ *
+ * Listens on loopback for the primary, applies every batch to a lightweight
+ * copy of the branch's open orders and seated tables as it arrives, and
+ * acknowledges it. When the primary goes away, takeOver rebuilds those orders
+ * and tables in a real Branch so the tills can carry on from this process.
+ * Usage (headless, prints what it took over and exits):
+ *
+ *   java restaurantsystem.StandbyNode port=7070
+ *
+ * or run the full system as a standby with -Drestaurant.standbyPort=7070
+ * (one StandbyNode per branch, on consecutive ports).
+ */
+public class StandbyNode {
+    /**
+     * Replicated state of one open order
+     */
+    public static final class OrderState {
+        private final int orderId;
+        private final Systemmode type;
+        private final String customerId;
+        private final int tableNumber;
+        private final double discountAmount;
+        private final String deliveryAddress;
+        private final LinkedHashMap<String, Integer> lines = new LinkedHashMap<>();
+        private Status status;
+        private Payment.PaymentMethod paymentMethod;
+        private double paidAmount;
+        private String cashierId;
+
+        OrderState(int orderId, Systemmode type, Status status, String customerId, int tableNumber,
+                   double discountAmount, String deliveryAddress) {
+            this.orderId = orderId;
+            this.type = type;
+            this.status = status;
+            this.customerId = customerId;
+            this.tableNumber = tableNumber;
+            this.discountAmount = discountAmount;
+            this.deliveryAddress = deliveryAddress;
+        }
+
+        public int getOrderId() { return orderId; }
+        public Systemmode getType() { return type; }
+        public Status getStatus() { return status; }
+        public String getCustomerId() { return customerId; }
+        public int getTableNumber() { return tableNumber; }
+        public Map<String, Integer> getLines() { return lines; }
+        public boolean isPaid() { return paymentMethod != null; }
+
+        @Override
+        public String toString() {
+            return "Order #" + orderId + " " + type + " " + status + (isPaid() ? " paid" : " unpaid")
+                   + (tableNumber > 0 ? " table " + tableNumber : "") + " " + lines;
+        }
+    }
+
+    private final int port;
+    private final TreeMap<Integer, OrderState> openOrders = new TreeMap<>();
+    private final TreeSet<Integer> seatedTables = new TreeSet<>();
+    private int highestOrderId;
+    private long appliedSequence;
+    private long batchesApplied;
+    private ServerSocket listening;   // while waiting for the primary to connect
+    private boolean stopped;
+
+    public StandbyNode(int port) {
+        this.port = port;
+    }
+
+    // ==================== REPLICATION ====================
+
+    /**
+     * Accept the primary and apply its journal until it disconnects (normally
+     * or by crashing); returns the number of records applied
+     */
+    public long replicateUntilPrimaryLost() throws IOException {
+        ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        synchronized (this) {
+            if (stopped) {
+                server.close();
+                return appliedSequence;
+            }
+            listening = server;
+        }
+        try (server; Socket socket = server.accept()) {
+            synchronized (this) {
+                listening = null;
+            }
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                int bytes;
+                try {
+                    bytes = in.readInt();
+                } catch (EOFException e) {
+                    break;   // primary closed the connection
+                }
+                int records = in.readInt();
+                long first = in.readLong();
+                byte[] batch = in.readNBytes(bytes);
+                if (batch.length < bytes) {
+                    break;   // primary died mid-batch; the partial batch was never acknowledged
+                }
+                applyBatch(batch, records, first);
+                out.writeLong(appliedSequence);
+                out.flush();
+            }
+        } catch (java.net.SocketException e) {
+            // Connection reset: the primary is gone (or stopWaiting closed the listener)
+        }
+        return appliedSequence;
+    }
+
+    /**
+     * Stop waiting for a primary that has not connected yet (its process is
+     * gone: another branch's primary was lost); no effect once connected
+     */
+    public synchronized void stopWaiting() {
+        stopped = true;
+        if (listening != null) {
+            try {
+                listening.close();
+            } catch (IOException e) {
+                // accept() fails either way
+            }
+            listening = null;
+        }
+    }
+
+    private synchronized void applyBatch(byte[] batch, int records, long first) throws IOException {
+        DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(batch));
+        for (int i = 0; i < records; i++) {
+            byte type = in.readByte();
+            switch (type) {
+                case OrderJournal.ORDER_OPENED -> {
+                    int orderId = in.readInt();
+                    Systemmode mode = Systemmode.values()[in.readByte()];
+                    Status status = Status.values()[in.readByte()];
+                    OrderState order = new OrderState(orderId, mode, status, in.readUTF(), in.readInt(),
+                                                      in.readDouble(), in.readUTF());
+                    int lines = in.readShort();
+                    for (int l = 0; l < lines; l++) {
+                        order.lines.put(in.readUTF(), in.readInt());
+                    }
+                    openOrders.put(orderId, order);
+                    highestOrderId = Math.max(highestOrderId, orderId);
+                }
+                case OrderJournal.LINE_CHANGED -> {
+                    OrderState order = openOrders.get(in.readInt());
+                    String item = in.readUTF();
+                    int quantity = in.readInt();
+                    if (order != null) {
+                        if (quantity == 0) {
+                            order.lines.remove(item);
+                        } else {
+                            order.lines.put(item, quantity);
+                        }
+                    }
+                }
+                case OrderJournal.STATUS_CHANGED -> {
+                    int orderId = in.readInt();
+                    Status status = Status.values()[in.readByte()];
+                    if (status == Status.PENDING) {
+                        OrderState order = openOrders.get(orderId);
+                        if (order != null) {
+                            order.status = status;
+                        }
+                    } else {
+                        openOrders.remove(orderId);
+                    }
+                }
+                case OrderJournal.PAYMENT_ACCEPTED -> {
+                    OrderState order = openOrders.get(in.readInt());
+                    Payment.PaymentMethod method = Payment.PaymentMethod.values()[in.readByte()];
+                    double amount = in.readDouble();
+                    String cashierId = in.readUTF();
+                    if (order != null) {
+                        order.paymentMethod = method;
+                        order.paidAmount = amount;
+                        order.cashierId = cashierId.isEmpty() ? null : cashierId;
+                    }
+                }
+                case OrderJournal.TABLE_CHANGED -> {
+                    int table = in.readInt();
+                    boolean occupied = in.readBoolean();
+                    if (occupied) {
+                        seatedTables.add(table);
+                    } else {
+                        seatedTables.remove(table);
+                    }
+                }
+                default -> throw new IOException("Unknown journal record type " + type);
+            }
+        }
+        appliedSequence = first + records - 1;
+        batchesApplied++;
+    }
+
+    // ==================== TAKEOVER ====================
+
+    /**
+     * Seat the replicated tables and reopen the replicated orders in the given
+     * branch (built like the primary's: same menu and table numbers). Returns the
+     * orders reopened.
+     */
+    public synchronized List<Order> takeOver(Branch branch) {
+        List<Order> reopened = new ArrayList<>();
+        RestaurantSystem.runIn(branch, () -> {
+            for (Table table : branch.getTables()) {
+                if (seatedTables.contains(table.getTableNumber()) && table.isAvailable()) {
+                    table.assignTable();
+                }
+            }
+            int nextOrderId = branch.getOrderCounter();
+            for (OrderState state : openOrders.values()) {
+                Order order = reopen(branch, state);
+                if (order != null) {
+                    reopened.add(order);
+                }
+            }
+            // New orders continue after the primary's, even if this process already made some
+            branch.setOrderCounter(Math.max(nextOrderId, highestOrderId + 1));
+        });
+        return reopened;
+    }
+
+    private Order reopen(Branch branch, OrderState state) {
+        LinkedHashMap<MenuItem, Integer> items = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> line : state.lines.entrySet()) {
+            MenuItem item = branch.getMenu().getItemByName(line.getKey());
+            if (item == null) {
+                System.out.println("⚠️ Order #" + state.orderId + ": " + line.getKey() + " is not on this menu");
+                continue;
+            }
+            items.put(item, line.getValue());
+        }
+        Table table = null;
+        for (Table t : branch.getTables()) {
+            if (t.getTableNumber() == state.tableNumber) {
+                table = t;
+            }
+        }
+
+        branch.setOrderCounter(state.orderId);
+        Order order = new Order(state.customerId, items, state.type, table);
+        order.restoreDiscount(state.discountAmount);
+        order.calculateTotal();
+        if (!state.deliveryAddress.isEmpty()) {
+            order.setDeliveryAddress(RestaurantSystem.getAddressRegistry().intern(state.deliveryAddress, false));
+        }
+        // Hold the ingredients again so cancelling a reopened order gives them back
+        branch.getInventory().reserve(order);
+        if (state.paymentMethod != null) {
+            Payment payment = new Payment(state.paidAmount, state.paymentMethod, state.orderId);
+            payment.setCashierId(state.cashierId);
+            payment.setStatus(Status.COMPLETE);
+            order.setPayment(payment);
+            if (state.type == Systemmode.ONLINE_DELIVERY && order.getDeliveryAddress() != null) {
+                branch.getDeliveryBatcher().addReady(order);
+            }
+        }
+        branch.addOrder(order);
+        return order;
+    }
+
+    // ==================== STATUS ====================
+
+    public synchronized List<OrderState> getOpenOrders() {
+        return new ArrayList<>(openOrders.values());
+    }
+
+    public synchronized List<Integer> getSeatedTables() {
+        return new ArrayList<>(seatedTables);
+    }
+
+    public synchronized long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public synchronized long getBatchesApplied() {
+        return batchesApplied;
+    }
+
+    /**
+     * One line per open order and seated table, for logs and ReplicationCheck
+     */
+    public synchronized String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("applied ").append(appliedSequence).append(" records in ").append(batchesApplied)
+          .append(" batches").append(System.lineSeparator());
+        for (OrderState order : openOrders.values()) {
+            sb.append("OPEN ").append(order).append(System.lineSeparator());
+        }
+        for (int table : seatedTables) {
+            sb.append("SEATED ").append(table).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    // ==================== MAIN ====================
+
+    public static void main(String[] args) throws IOException {
+        int port = 7070;
+        for (String arg : args) {
+            if (arg.startsWith("port=")) {
+                port = Integer.parseInt(arg.substring(5));
+            }
+        }
+        EventLog.setLevel(EventLog.Level.OFF);
+        StandbyNode standby = new StandbyNode(port);
+        System.out.println("STANDBY listening on " + port);
+        standby.replicateUntilPrimaryLost();
+        System.out.print(standby.describe());
+
+        Branch branch = RestaurantSystem.openBranch("MAIN", true);
+        List<Order> reopened = standby.takeOver(branch);
+        int seated = 0;
+        for (Table table : branch.getTables()) {
+            if (!table.isAvailable()) {
+                seated++;
+            }
+        }
+        System.out.println("TAKEOVER orders=" + reopened.size() + " tables=" + seated
+                           + " nextOrderId=" + branch.getOrderCounter());
+    }
+}
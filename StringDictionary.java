@@ -0,0 +1,143 @@
+package restaurantsystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * String dictionary - assigns each distinct string a dense int code and keeps
+ * the text as UTF-8 in one shared byte arena.
+ *
+ * A stored string costs its bytes plus an int offset and a hash slot, instead
+ * of a String and a byte[] with their headers, and repeated values (first
+ * names, cities, default passwords) are stored once. Codes are never reused;
+ * strings that are no longer referenced stay in the arena until the owner
+ * rebuilds the dictionary from its live codes (see CustomerStore).
+ */
+public final class StringDictionary {
+    private static final int EMPTY = -1;
+
+    private byte[] arena = new byte[4096];
+    private int used;
+    private int[] offsets = new int[257];    // string i is arena[offsets[i], offsets[i + 1])
+    private int[] hashes = new int[256];
+    private int size;
+    private int[] slots = emptySlots(512);
+
+    /**
+     * The string's code, adding it if it is new
+     */
+    public synchronized int encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int slot = find(bytes, hash);
+        if (slots[slot] != EMPTY) {
+            return slots[slot];
+        }
+        if (used + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, used + bytes.length));
+        }
+        System.arraycopy(bytes, 0, arena, used, bytes.length);
+        used += bytes.length;
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            offsets = Arrays.copyOf(offsets, hashes.length + 1);
+        }
+        int code = size++;
+        offsets[code + 1] = used;
+        hashes[code] = hash;
+        slots[slot] = code;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    /**
+     * The string's code, or -1 if it has never been encoded
+     */
+    public synchronized int lookup(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return slots[find(bytes, hash(bytes))];
+    }
+
+    public synchronized String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("Unknown string code: " + code);
+        }
+        return new String(arena, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the code stands for exactly this string, without decoding it
+     */
+    public synchronized boolean matches(int code, String value) {
+        int start = offsets[code];
+        int length = offsets[code + 1] - start;
+        if (length != value.length()) {
+            // Only all-ASCII strings have one byte per char; decode the rest
+            return length > value.length() && decode(code).equals(value);
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = arena[start + i];
+            if (b < 0) {
+                return decode(code).equals(value);
+            }
+            if (b != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Approximate bytes held (arena, offsets, hashes and slots)
+     */
+    public synchronized long footprintBytes() {
+        return arena.length + 4L * (offsets.length + hashes.length + slots.length);
+    }
+
+    private int find(byte[] bytes, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int code = slots[slot];
+            if (code == EMPTY || (hashes[code] == hash && sameBytes(code, bytes))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean sameBytes(int code, byte[] bytes) {
+        int start = offsets[code];
+        return offsets[code + 1] - start == bytes.length
+               && Arrays.equals(arena, start, start + bytes.length, bytes, 0, bytes.length);
+    }
+
+    private void rehash() {
+        slots = emptySlots(slots.length * 2);
+        int mask = slots.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = code;
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] emptySlots(int length) {
+        int[] slots = new int[length];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+}
@@ -1,17 +1,123 @@
 package restaurantsystem;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * System Manager class - controls the operation mode of the restaurant system
+ * and admits orders against per-mode quotas that tighten as the kitchen backs up.
+ * The backlog is the branch's open orders, reported by the Branch as orders
+ * are taken and settled, failed or cancelled.
  */
 public class Systemmanager implements Serializable {
     private static final long serialVersionUID = 1L;
-    
+
+    /**
+     * Admission decision enum
+     */
+    public enum Decision {
+        ADMITTED,
+        DEFERRED,
+        SHED
+    }
+
+    /**
+     * Outcome of an admission request
+     */
+    public static final class Admission {
+        private final Systemmode mode;
+        private final Decision decision;
+        private final LocalDateTime promisedAt;
+        private final TokenBucket quota;   // the bucket a token was taken from, or null
+        private boolean withdrawn;         // guarded by the Systemmanager
+
+        Admission(Systemmode mode, Decision decision, LocalDateTime promisedAt, TokenBucket quota) {
+            this.mode = mode;
+            this.decision = decision;
+            this.promisedAt = promisedAt;
+            this.quota = quota;
+        }
+
+        public Systemmode getMode() { return mode; }
+        public Decision getDecision() { return decision; }
+        public LocalDateTime getPromisedAt() { return promisedAt; }
+        public boolean isAccepted() { return decision != Decision.SHED; }
+
+        @Override
+        public String toString() {
+            return decision + (promisedAt != null
+                    ? " (promised " + promisedAt.format(DateTimeFormatter.ofPattern("HH:mm")) + ")"
+                    : "");
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously at a per-minute rate
+     */
+    static final class TokenBucket implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final double capacity;
+        private final double refillPerMinute;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(double capacity, double refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * Take one token; the refill rate is scaled by {@code rateFactor} (0..1)
+         */
+        synchronized boolean tryAcquire(double rateFactor, long nowNanos) {
+            double minutes = (nowNanos - lastRefillNanos) / 60_000_000_000.0;
+            tokens = Math.min(capacity, tokens + minutes * refillPerMinute * rateFactor);
+            lastRefillNanos = nowNanos;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Give back a token taken for an order that never happened
+         */
+        synchronized void release() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        synchronized double getTokens() {
+            return tokens;
+        }
+    }
+
+    private static final Decision[] DECISIONS = Decision.values();
+
     private Systemmode currentMode;
+    private final Map<Systemmode, TokenBucket> quotas = new EnumMap<>(Systemmode.class);
+    private final AtomicLongArray counters =
+            new AtomicLongArray(Systemmode.values().length * DECISIONS.length);
+
+    // Kitchen: open orders against the kitchen's throughput
+    private double kitchenOrdersPerMinute = 1.0;
+    private int maxKitchenBacklog = 30;
+    private int basePrepMinutes = 15;
+    private int maxPromiseDelayMinutes = 60;
+    private int kitchenBacklog;
 
     public Systemmanager(Systemmode mode) {
         this.currentMode = mode;
+        quotas.put(Systemmode.ONLINE_DELIVERY, new TokenBucket(10, 1.0));
+        quotas.put(Systemmode.TAKEAWAY, new TokenBucket(15, 1.5));
+        quotas.put(Systemmode.DINE_IN, new TokenBucket(20, 2.0));
     }
 
     public Systemmode getCurrentMode() {
@@ -23,6 +129,116 @@ public class Systemmanager implements Serializable {
         System.out.println("✅ System mode changed to: " + mode);
     }
 
+    /**
+     * Replace the quota of one mode
+     */
+    public void setQuota(Systemmode mode, int burst, double ordersPerMinute) {
+        if (burst <= 0 || ordersPerMinute <= 0) {
+            throw new IllegalArgumentException("Quota must be greater than 0");
+        }
+        synchronized (quotas) {
+            quotas.put(mode, new TokenBucket(burst, ordersPerMinute));
+        }
+    }
+
+    /**
+     * Configure the kitchen capacity used to scale quotas and promise times
+     */
+    public synchronized void setKitchenCapacity(double ordersPerMinute, int maxBacklog,
+                                                int basePrepMinutes, int maxPromiseDelayMinutes) {
+        if (ordersPerMinute <= 0 || maxBacklog <= 0) {
+            throw new IllegalArgumentException("Kitchen capacity must be greater than 0");
+        }
+        this.kitchenOrdersPerMinute = ordersPerMinute;
+        this.maxKitchenBacklog = maxBacklog;
+        this.basePrepMinutes = basePrepMinutes;
+        this.maxPromiseDelayMinutes = maxPromiseDelayMinutes;
+    }
+
+    /**
+     * The number of orders the kitchen has open (Branch, on every change)
+     */
+    public synchronized void reportKitchenBacklog(int openOrders) {
+        kitchenBacklog = Math.max(0, openOrders);
+    }
+
+    public synchronized int getKitchenBacklog() {
+        return kitchenBacklog;
+    }
+
+    // ==================== ADMISSION CONTROL ====================
+
+    /**
+     * Admit an order of the given type.
+     * Walk-in orders (takeaway, dine-in) are never turned away: over quota they
+     * are admitted with a later promise time. Online orders over quota are
+     * deferred while the promise stays within the limit, and shed beyond it.
+     */
+    public Admission admit(Systemmode mode) {
+        long now = System.nanoTime();
+        TokenBucket bucket;
+        synchronized (quotas) {
+            bucket = quotas.get(mode);
+        }
+
+        synchronized (this) {
+            double load = Math.min(1.0, (double) kitchenBacklog / maxKitchenBacklog);
+            boolean withinQuota = bucket.tryAcquire(1.0 - load, now);
+            int waitMinutes = basePrepMinutes + (int) Math.ceil(kitchenBacklog / kitchenOrdersPerMinute);
+
+            Decision decision;
+            if (withinQuota && load < 1.0) {
+                decision = Decision.ADMITTED;
+            } else if (mode != Systemmode.ONLINE_DELIVERY || waitMinutes <= maxPromiseDelayMinutes) {
+                decision = Decision.DEFERRED;
+            } else {
+                decision = Decision.SHED;
+            }
+            counters.incrementAndGet(mode.ordinal() * DECISIONS.length + decision.ordinal());
+
+            LocalDateTime promisedAt = decision == Decision.DEFERRED
+                    ? LocalDateTime.now().plusMinutes(waitMinutes)
+                    : null;
+            return new Admission(mode, decision, promisedAt, withinQuota ? bucket : null);
+        }
+    }
+
+    /**
+     * Undo the admission of an order that was abandoned: give back its quota
+     * token and take it out of the admission counts (once)
+     */
+    public synchronized void withdraw(Admission admission) {
+        if (admission == null || !admission.isAccepted() || admission.withdrawn) {
+            return;
+        }
+        admission.withdrawn = true;
+        if (admission.quota != null) {
+            admission.quota.release();
+        }
+        counters.decrementAndGet(admission.mode.ordinal() * DECISIONS.length + admission.decision.ordinal());
+    }
+
+    public long getCount(Systemmode mode, Decision decision) {
+        return counters.get(mode.ordinal() * DECISIONS.length + decision.ordinal());
+    }
+
+    /**
+     * Admission metrics per mode
+     */
+    public String getAdmissionReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n========== KITCHEN LOAD ==========\n");
+        sb.append(String.format("Backlog: %d / %d orders%n", getKitchenBacklog(), maxKitchenBacklog));
+        sb.append(String.format("%-16s | %8s | %8s | %8s%n", "Mode", "Admitted", "Deferred", "Shed"));
+        for (Systemmode mode : Systemmode.values()) {
+            sb.append(String.format("%-16s | %8d | %8d | %8d%n", mode,
+                    getCount(mode, Decision.ADMITTED),
+                    getCount(mode, Decision.DEFERRED),
+                    getCount(mode, Decision.SHED)));
+        }
+        return sb.toString();
+    }
+
     /**
      * Direct system to Online Delivery mode
      */
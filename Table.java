@@ -11,9 +11,35 @@ public class Table {
         OCCUPIED
     }
     
+    /**
+     * Hears a table being seated and released (a branch wires its waitlist,
+     * metrics, journal and table board in here; tables without one affect
+     * nothing else)
+     */
+    public interface SeatListener {
+        void seated(Table table);
+
+        /**
+         * An occupied table was freed; seatedNanos is how long the party sat
+         * (0 if the table was occupied without assignTable)
+         */
+        void released(Table table, long seatedNanos);
+
+        /**
+         * The table's number, capacity or status changed (before seated or
+         * released, when it was one of those)
+         */
+        default void changed(Table table) {
+        }
+    }
+
     private int tableNumber;
     private int capacity;
     private TableStatus status;
+    private long seatedAtNanos;
+    private long assignedAtMillis;
+    private long releasedAtMillis;
+    private volatile SeatListener seatListener;
 
     public Table(int tableNumber, int capacity, TableStatus status) {
         this.tableNumber = tableNumber;
@@ -28,6 +54,7 @@ public class Table {
 
     public void setTableNumber(int tableNumber) {
         this.tableNumber = tableNumber;
+        changed();
     }
 
     public int getCapacity() {
@@ -36,6 +63,7 @@ public class Table {
 
     public void setCapacity(int capacity) {
         this.capacity = capacity;
+        changed();
     }
 
     public TableStatus getStatus() {
@@ -44,13 +72,53 @@ public class Table {
 
     public void setStatus(TableStatus status) {
         this.status = status;
+        changed();
     }
 
     public boolean isAvailable() {
         return status == TableStatus.AVAILABLE;
     }
 
+    /**
+     * System.nanoTime() when the current party was seated (0 when free)
+     */
+    public long getSeatedAtNanos() {
+        return seatedAtNanos;
+    }
+
+    public long getAssignedAtMillis() {
+        return assignedAtMillis;
+    }
+
+    public long getReleasedAtMillis() {
+        return releasedAtMillis;
+    }
+
+    public void setSeatListener(SeatListener seatListener) {
+        this.seatListener = seatListener;
+    }
+
+    private void changed() {
+        SeatListener listener = seatListener;
+        if (listener != null) {
+            listener.changed(this);
+        }
+    }
+
     // ==================== STATIC METHODS ====================
+
+    /**
+     * The "all tables" board, one line per table
+     */
+    public static String renderBoard(ArrayList<Table> tables) {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder(64 + tables.size() * 64);
+        sb.append(nl).append("========== ALL TABLES ==========").append(nl);
+        for (Table table : tables) {
+            sb.append(table).append(nl);
+        }
+        return sb.toString();
+    }
     
     /**
      * Select table from available tables
@@ -61,23 +129,35 @@ public class Table {
         System.out.println("=".repeat(60));
         
         ArrayList<Table> availableTables = new ArrayList<>();
+        ReservationBook reservations = RestaurantSystem.getReservationBook();
+        Waitlist waitlist = RestaurantSystem.getWaitlist();
+        long now = System.currentTimeMillis();
 
         for (Table table : tables) {
-            if (table.isAvailable()) {
-                availableTables.add(table);
-                System.out.println(availableTables.size() + ". " + table.toString());
+            if (!table.isAvailable()) {
+                continue;
             }
+            // Keep walk-ins off tables that are booked before they would leave
+            if (reservations.isHeld(table, now, ReservationBook.DEFAULT_WALK_IN_MILLIS)) {
+                System.out.println("   Table #" + table.getTableNumber() + " is reserved soon");
+                continue;
+            }
+            availableTables.add(table);
+            Waitlist.Party called = waitlist.getCalledParty(table);
+            System.out.println(availableTables.size() + ". " + table.toString()
+                               + (called == null ? "" : " | 📣 held for " + called.getName()));
         }
 
         if (availableTables.isEmpty()) {
+            Metrics.NO_AVAILABLE_TABLES.increment();
             System.out.println("❌ No available tables!");
             return null;
         }
 
         System.out.print("\nSelect table number: ");
         try {
-            int choice = scanner.nextInt();
-            scanner.nextLine();
+            int choice = Prompt.readInt(scanner);
+            Prompt.readLine(scanner);
 
             if (choice < 1 || choice > availableTables.size()) {
                 System.out.println("❌ Invalid choice!");
@@ -85,11 +165,22 @@ public class Table {
             }
 
             Table selected = availableTables.get(choice - 1);
+            // A table held for a called party is only theirs to take
+            Waitlist.Party called = waitlist.getCalledParty(selected);
+            if (called != null) {
+                System.out.print("📣 Table #" + selected.getTableNumber() + " is held for " + called.getName()
+                                 + ". Seating that party? (y/n): ");
+                if (!Prompt.readLine(scanner).equalsIgnoreCase("y")) {
+                    System.out.println("❌ Table is held for the waitlist!");
+                    return null;
+                }
+                waitlist.claim(selected);
+            }
             selected.assignTable();
             return selected;
         } catch (InputMismatchException e) {
             System.out.println("❌ Invalid input!");
-            scanner.nextLine();
+            Prompt.readLine(scanner);
             return null;
         }
     }
@@ -107,22 +198,70 @@ public class Table {
         return available;
     }
     
+    /**
+     * First available table that seats the party, in list order
+     */
+    public static Table firstFit(ArrayList<Table> tables, int partySize) {
+        for (Table table : tables) {
+            if (table.isAvailable() && table.capacity >= partySize) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Available table that seats the party with the fewest empty seats
+     */
+    public static Table bestFit(ArrayList<Table> tables, int partySize) {
+        Table best = null;
+        for (Table table : tables) {
+            if (table.isAvailable() && table.capacity >= partySize
+                    && (best == null || table.capacity < best.capacity)) {
+                best = table;
+                if (best.capacity == partySize) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+    
     // ==================== INSTANCE METHODS ====================
 
     public boolean assignTable() {
         if (this.isAvailable()) {
             status = TableStatus.OCCUPIED;
-            System.out.println("✅ Table " + tableNumber + " assigned.");
+            seatedAtNanos = System.nanoTime();
+            assignedAtMillis = System.currentTimeMillis();
+            EventLog.log(EventLog.EventType.TABLE_ASSIGNED, tableNumber);
+            SeatListener listener = seatListener;
+            if (listener != null) {
+                listener.changed(this);
+                listener.seated(this);
+            }
             return true;
         } else {
-            System.out.println("❌ Table " + tableNumber + " is already occupied.");
+            EventLog.log(EventLog.EventType.TABLE_ALREADY_OCCUPIED, tableNumber);
             return false;
         }
     }
 
     public void releaseTable() {
+        boolean wasOccupied = status == TableStatus.OCCUPIED;
+        long seatedNanos = seatedAtNanos == 0 ? 0 : System.nanoTime() - seatedAtNanos;
+        seatedAtNanos = 0;
+        releasedAtMillis = System.currentTimeMillis();
         status = TableStatus.AVAILABLE;
-        System.out.println("✅ Table " + tableNumber + " is now available.");
+        EventLog.log(EventLog.EventType.TABLE_RELEASED, tableNumber);
+
+        SeatListener listener = seatListener;
+        if (listener != null) {
+            listener.changed(this);
+            if (wasOccupied) {
+                listener.released(this, seatedNanos);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,174 @@
+package restaurantsystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Waitlist class - walk-in parties waiting for a table.
+ *
+ * Parties are queued by size in a TreeMap, first come first served within a
+ * size. When a table is released the largest waiting party that fits it is
+ * called (floorEntry, O(log n)) and the table is held for them until they claim
+ * it; if anyone else is seated there instead, the called party goes back to the
+ * front of its queue. A table kept for an upcoming booking calls nobody. Quoted waits come from a running average of seat durations that is
+ * updated on every seat and release.
+ */
+public class Waitlist {
+    private static final double ALPHA = 0.2;
+    private static final long DEFAULT_SEAT_MILLIS = 45 * 60_000L;
+
+    /**
+     * One waiting party
+     */
+    public static final class Party {
+        private final long ticket;
+        private final String name;
+        private final int partySize;
+        private final long joinedAtMillis;
+        private final long quotedWaitMillis;
+
+        Party(long ticket, String name, int partySize, long joinedAtMillis, long quotedWaitMillis) {
+            this.ticket = ticket;
+            this.name = name;
+            this.partySize = partySize;
+            this.joinedAtMillis = joinedAtMillis;
+            this.quotedWaitMillis = quotedWaitMillis;
+        }
+
+        public long getTicket() { return ticket; }
+        public String getName() { return name; }
+        public int getPartySize() { return partySize; }
+        public long getJoinedAtMillis() { return joinedAtMillis; }
+        public long getQuotedWaitMillis() { return quotedWaitMillis; }
+
+        @Override
+        public String toString() {
+            return "Ticket #" + ticket + " | " + name + " (" + partySize + ")" +
+                   " | quoted " + (quotedWaitMillis / 60_000L) + " min";
+        }
+    }
+
+    private final TreeMap<Integer, ArrayDeque<Party>> bySize = new TreeMap<>();
+    private final HashMap<Integer, Party> calledByTable = new HashMap<>();
+    private long nextTicket = 1;
+    private int waiting;
+    private int occupiedTables;
+    private double averageSeatMillis = DEFAULT_SEAT_MILLIS;
+
+    // ==================== QUEUE ====================
+
+    /**
+     * Add a party and quote its wait
+     */
+    public synchronized Party join(String name, int partySize, long nowMillis) {
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("Party size must be positive");
+        }
+        Party party = new Party(nextTicket++, name, partySize, nowMillis, estimateWaitMillis());
+        bySize.computeIfAbsent(partySize, s -> new ArrayDeque<>()).addLast(party);
+        waiting++;
+        return party;
+    }
+
+    public synchronized boolean leave(long ticket) {
+        for (Map.Entry<Integer, ArrayDeque<Party>> bucket : bySize.entrySet()) {
+            if (bucket.getValue().removeIf(p -> p.ticket == ticket)) {
+                waiting--;
+                if (bucket.getValue().isEmpty()) {
+                    bySize.remove(bucket.getKey());
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimated wait for a party joining now: one table turns over every
+     * averageSeat / occupiedTables on average, and everyone ahead needs one.
+     */
+    public synchronized long estimateWaitMillis() {
+        if (occupiedTables == 0) {
+            return 0;
+        }
+        return (long) ((waiting + 1) * averageSeatMillis / occupiedTables);
+    }
+
+    /**
+     * Party a released table is being held for, or null
+     */
+    public synchronized Party getCalledParty(Table table) {
+        return calledByTable.get(table.getTableNumber());
+    }
+
+    public synchronized List<Party> getWaitingParties() {
+        List<Party> parties = new ArrayList<>(waiting);
+        for (ArrayDeque<Party> bucket : bySize.values()) {
+            parties.addAll(bucket);
+        }
+        parties.sort((p1, p2) -> Long.compare(p1.ticket, p2.ticket));
+        return parties;
+    }
+
+    public synchronized int size() {
+        return waiting;
+    }
+
+    public synchronized long getAverageSeatMillis() {
+        return (long) averageSeatMillis;
+    }
+
+    // ==================== TABLE EVENTS ====================
+
+    /**
+     * The called party takes the table held for them; returns that party, or
+     * null if the table is not held. Call before assigning the table.
+     */
+    public synchronized Party claim(Table table) {
+        return calledByTable.remove(table.getTableNumber());
+    }
+
+    /**
+     * A table was assigned. A party still held for it was passed over, so it
+     * goes back to the front of its queue.
+     */
+    public synchronized void onSeated(Table table) {
+        occupiedTables++;
+        Party passedOver = calledByTable.remove(table.getTableNumber());
+        if (passedOver != null) {
+            bySize.computeIfAbsent(passedOver.partySize, s -> new ArrayDeque<>()).addFirst(passedOver);
+            waiting++;
+        }
+    }
+
+    /**
+     * A table was released: fold its seat time into the average and call the
+     * largest waiting party that fits it, unless the table is booked soon
+     * (reservedSoon). Returns the called party or null.
+     */
+    public synchronized Party onReleased(Table table, long seatMillis, boolean reservedSoon) {
+        occupiedTables = Math.max(0, occupiedTables - 1);
+        if (seatMillis > 0) {
+            averageSeatMillis += ALPHA * (seatMillis - averageSeatMillis);
+        }
+        if (reservedSoon) {
+            return null;
+        }
+
+        Map.Entry<Integer, ArrayDeque<Party>> bucket = bySize.floorEntry(table.getCapacity());
+        if (bucket == null) {
+            return null;
+        }
+        Party party = bucket.getValue().pollFirst();
+        if (bucket.getValue().isEmpty()) {
+            bySize.remove(bucket.getKey());
+        }
+        waiting--;
+        calledByTable.put(table.getTableNumber(), party);
+        return party;
+    }
+}
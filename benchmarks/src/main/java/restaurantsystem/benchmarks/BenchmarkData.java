@@ -0,0 +1,69 @@
+package restaurantsystem.benchmarks;
+
+import restaurantsystem.*;
+
+import java.util.*;
+
+/**
+ * Deterministic synthetic data shared by the benchmarks
+ */
+final class BenchmarkData {
+    static final String[] CATEGORIES = {"Main", "Appetizer", "Beverage", "Dessert", "Side", "Salad", "Soup", "Kids"};
+    private static final String[] WORDS = {"grilled", "spicy", "creamy", "fresh", "crispy", "smoked",
+            "chicken", "beef", "cheese", "garlic", "lemon", "tomato", "mushroom", "pepper", "rice", "bread"};
+
+    private BenchmarkData() {
+    }
+
+    static {
+        // Benchmarks measure the domain logic, not the console
+        EventLog.setLevel(EventLog.Level.OFF);
+    }
+
+    static Menu menu(int size) {
+        Random random = new Random(42);
+        Menu menu = new Menu();
+        for (int i = 0; i < size; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " with " + WORDS[random.nextInt(WORDS.length)];
+            menu.addItem(new MenuItem(name, description, 10 + random.nextInt(200),
+                    CATEGORIES[i % CATEGORIES.length], random.nextInt(10) != 0));
+        }
+        return menu;
+    }
+
+    static Map<MenuItem, Integer> lines(Menu menu, int lineCount) {
+        Random random = new Random(7);
+        ArrayList<MenuItem> items = menu.getMenuItems();
+        Map<MenuItem, Integer> lines = new HashMap<>();
+        for (int i = 0; i < lineCount; i++) {
+            lines.put(items.get(i % items.size()), 1 + random.nextInt(4));
+        }
+        return lines;
+    }
+
+    static ArrayList<Customer> customers(int count) {
+        ArrayList<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Address address = new Address(i, i + " Benchmark Street, Cairo", true);
+            customers.add(new Customer("user" + i, "pw" + i, i % 7 == 0, address,
+                    "Customer " + i, "user" + i + "@mail.com", String.format("01%09d", i)));
+        }
+        return customers;
+    }
+
+    static ArrayList<Table> tables(int count) {
+        Random random = new Random(3);
+        ArrayList<Table> tables = new ArrayList<>(count);
+        int[] capacities = {2, 4, 4, 6, 8};
+        for (int i = 1; i <= count; i++) {
+            Table table = new Table(i, capacities[random.nextInt(capacities.length)], Table.TableStatus.AVAILABLE);
+            if (random.nextInt(4) != 0) {
+                table.setStatus(Table.TableStatus.OCCUPIED);
+            }
+            tables.add(table);
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,48 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.Customer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer lookup by id and by username
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int customerCount;
+
+    private ArrayList<Customer> customers;
+    private String[] ids;
+    private String[] usernames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        customers = BenchmarkData.customers(customerCount);
+        ids = new String[1024];
+        usernames = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            Customer c = customers.get((int) ((long) i * 7919 % customerCount));
+            ids[i] = c.getCustomerId();
+            usernames[i] = c.getUsername();
+        }
+    }
+
+    @Benchmark
+    public Customer findById() {
+        return Customer.findCustomer(ids[next++ & 1023], customers);
+    }
+
+    @Benchmark
+    public Customer findByUsername() {
+        return Customer.findCustomer(usernames[next++ & 1023], customers);
+    }
+}
@@ -0,0 +1,67 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.Customer;
+import restaurantsystem.CustomerIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counter lookups by phone, email and name: exact prefixes and queries with typos
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class CustomerIndexBenchmark {
+    @Param({"100000", "1000000"})
+    public int customerCount;
+
+    private CustomerIndex index;
+    private String phone;
+    private String email;
+    private String emailTypo;
+    private String name;
+    private String nameTypo;
+
+    @Setup
+    public void setUp() {
+        ArrayList<Customer> customers = BenchmarkData.customers(customerCount);
+        index = new CustomerIndex(customers);
+        Customer c = customers.get(customerCount / 3);
+        phone = c.getPhoneNumber().substring(0, 9);
+        email = c.getEmail();
+        emailTypo = email.replace("@mail.", "@mial.");   // one transposition = two edits
+        name = c.getName();
+        nameTypo = name.replace("Customer", "Custmer");
+    }
+
+    @Benchmark
+    public List<CustomerIndex.Match> phonePrefix() {
+        return index.search(phone);
+    }
+
+    @Benchmark
+    public List<CustomerIndex.Match> emailExact() {
+        return index.search(email);
+    }
+
+    @Benchmark
+    public List<CustomerIndex.Match> emailWithTypo() {
+        return index.search(emailTypo);
+    }
+
+    @Benchmark
+    public List<CustomerIndex.Match> fullName() {
+        return index.search(name);
+    }
+
+    @Benchmark
+    public List<CustomerIndex.Match> nameWithTypo() {
+        return index.search(nameTypo);
+    }
+}
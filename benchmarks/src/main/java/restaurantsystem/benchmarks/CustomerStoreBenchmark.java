@@ -0,0 +1,89 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.Customer;
+import restaurantsystem.CustomerStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer objects versus CustomerStore rows: lookup, reading a profile, and
+ * what a full GC costs with the whole customer base live. The object model is
+ * indexed with a HashMap so both sides look up in constant time. Setup prints
+ * the retained heap of each model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class CustomerStoreBenchmark {
+    @Param({"100000", "1000000"})
+    public int customerCount;
+
+    @Param({"objects", "store"})
+    public String model;
+
+    private HashMap<String, Customer> byUsername;
+    private CustomerStore store;
+    private String[] usernames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        load();
+        System.out.printf("%n%s, %d customers: %.1f MB retained%n", model, customerCount,
+                          (usedHeap() - before) / (1024.0 * 1024.0));
+    }
+
+    private void load() {
+        ArrayList<Customer> customers = BenchmarkData.customers(customerCount);
+        usernames = new String[1024];
+        for (int i = 0; i < usernames.length; i++) {
+            usernames[i] = customers.get((int) ((long) i * 7919 % customerCount)).getUsername();
+        }
+        if (model.equals("store")) {
+            store = new CustomerStore();
+            for (Customer customer : customers) {
+                store.add(customer);
+            }
+        } else {
+            byUsername = new HashMap<>(customerCount * 2);
+            for (Customer customer : customers) {
+                byUsername.put(customer.getUsername().toLowerCase(), customer);
+            }
+        }
+    }
+
+    @Benchmark
+    public Customer findByUsername() {
+        String username = usernames[next++ & 1023];
+        return store != null ? store.find(username) : byUsername.get(username.toLowerCase());
+    }
+
+    @Benchmark
+    public String findAndShowProfile() {
+        return findByUsername().getDetails();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void fullGc() {
+        System.gc();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
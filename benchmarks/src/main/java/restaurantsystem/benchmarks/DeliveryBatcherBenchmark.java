@@ -0,0 +1,46 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building rider runs from thousands of pending delivery orders spread over a city
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeliveryBatcherBenchmark {
+    @Param({"1000", "5000", "20000"})
+    public int pendingOrders;
+
+    private Order[] orders;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        orders = new Order[pendingOrders];
+        for (int i = 0; i < pendingOrders; i++) {
+            Order order = new Order("CUST001", new HashMap<>(), Systemmode.ONLINE_DELIVERY, null);
+            Address address = new Address(i, i + " Delivery Street, Cairo", false);
+            // Roughly a 30 km x 30 km city
+            address.setCoordinates(29.9 + random.nextDouble() * 0.27, 31.1 + random.nextDouble() * 0.31);
+            order.setDeliveryAddress(address);
+            orders[i] = order;
+        }
+    }
+
+    @Benchmark
+    public List<DeliveryBatcher.RiderRun> buildBatches() {
+        DeliveryBatcher batcher = new DeliveryBatcher(null, 2.0, 5 * 60_000L, 4);
+        for (int i = 0; i < orders.length; i++) {
+            batcher.addReady(orders[i], i * 10L);
+        }
+        return batcher.buildBatches(Long.MAX_VALUE / 2);
+    }
+}
@@ -0,0 +1,52 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order-placement latency with the event log off and on (writing to a file).
+ * Run with -t 4 or more to see terminals contending.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventLogBenchmark {
+    @Param({"OFF", "INFO"})
+    public EventLog.Level level;
+
+    private Cashier cashier;
+    private Customer customer;
+    private Map<MenuItem, Integer> lines;
+    private Path logFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("restaurant-events", ".log");
+        EventLog.logToFile(logFile);
+        EventLog.setLevel(level);
+        cashier = new Cashier("Bench Cashier", "bench@restaurant.com", "0100000000", "pw", 5000, "Morning");
+        customer = BenchmarkData.customers(1).get(0);
+        lines = BenchmarkData.lines(BenchmarkData.menu(50), 5);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        EventLog.flush();
+        EventLog.setLevel(EventLog.Level.OFF);
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        return cashier.processTakeawayOrder(customer, lines);
+    }
+}
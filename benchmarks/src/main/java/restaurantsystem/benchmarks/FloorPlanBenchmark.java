@@ -0,0 +1,39 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.FloorPlan;
+import restaurantsystem.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merged-table allocation for large parties on grid floors (about a quarter of tables free)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FloorPlanBenchmark {
+    @Param({"10", "100", "500"})
+    public int tableCount;
+
+    @Param({"7", "13", "21"})
+    public int partySize;
+
+    private FloorPlan floorPlan;
+
+    @Setup
+    public void setUp() {
+        ArrayList<Table> tables = BenchmarkData.tables(tableCount);
+        floorPlan = FloorPlan.grid(tables, Math.max(5, (int) Math.sqrt(tableCount)));
+    }
+
+    @Benchmark
+    public List<Table> allocate() {
+        return floorPlan.allocate(partySize);
+    }
+}
@@ -0,0 +1,49 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.Menu;
+import restaurantsystem.MenuItem;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Menu search and category lookup over menus of different sizes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MenuBenchmark {
+    @Param({"50", "500", "5000"})
+    public int menuSize;
+
+    private Menu menu;
+
+    @Setup
+    public void setUp() {
+        menu = BenchmarkData.menu(menuSize);
+    }
+
+    @Benchmark
+    public List<MenuItem> searchItems() {
+        return menu.searchItems("garlic");
+    }
+
+    @Benchmark
+    public List<MenuItem> getItemsByCategory() {
+        return menu.getItemsByCategory("beverage");
+    }
+
+    @Benchmark
+    public List<MenuItem> getAllAvailableItems() {
+        return menu.getAllAvailableItems();
+    }
+
+    @Benchmark
+    public MenuItem getItemByName() {
+        return menu.getItemByName(menu.getMenuItems().get(menuSize / 2).getName());
+    }
+}
@@ -0,0 +1,70 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order creation, totalling, amending and discounting over orders of different sizes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBenchmark {
+    @Param({"3", "20", "200"})
+    public int linesPerOrder;
+
+    @Param({"50", "1000"})
+    public int menuSize;
+
+    private Map<MenuItem, Integer> lines;
+    private Order order;
+    private PricingEngine pricing;
+    private MenuItem addOn;
+
+    @Setup
+    public void setUp() {
+        Menu menu = BenchmarkData.menu(menuSize);
+        lines = BenchmarkData.lines(menu, linesPerOrder);
+        order = new Order("CUST001", lines, Systemmode.TAKEAWAY, null);
+        pricing = PricingEngine.withDefaultRules();
+        addOn = lines.keySet().iterator().next();
+        order.subscribe(delta -> { });
+    }
+
+    @Benchmark
+    public double createAndTotal() {
+        Order o = new Order("CUST001", lines, Systemmode.TAKEAWAY, null);
+        o.calculateSubtotal();
+        o.calculateTotal();
+        return o.getTotal();
+    }
+
+    @Benchmark
+    public double calculateSubtotal() {
+        order.calculateSubtotal();
+        return order.getSubtotal();
+    }
+
+    /**
+     * One add-on to an open tab and its correction; should not grow with linesPerOrder
+     */
+    @Benchmark
+    public double amendTab() {
+        order.addItem(addOn, 1);
+        order.updateQuantity(addOn, order.getItems().get(addOn) - 1);
+        return order.getSubtotal();
+    }
+
+    @Benchmark
+    public double applyDiscount() {
+        order.applyPricing(pricing, true, true);
+        order.calculateTotal();
+        return order.getTotal();
+    }
+}
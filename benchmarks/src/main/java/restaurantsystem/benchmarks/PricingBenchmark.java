@@ -0,0 +1,55 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing throughput of the compiled rule engine on large orders with a full rule set
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+    @Param({"10", "100", "1000"})
+    public int linesPerOrder;
+
+    @Param({"1", "50"})
+    public int extraRules;
+
+    private Order order;
+    private PricingEngine engine;
+
+    @Setup
+    public void setUp() {
+        Menu menu = BenchmarkData.menu(Math.max(linesPerOrder, 100));
+        order = new Order("CUST001", BenchmarkData.lines(menu, linesPerOrder), Systemmode.ONLINE_DELIVERY, null);
+
+        engine = PricingEngine.withDefaultRules();
+        ArrayList<MenuItem> items = menu.getMenuItems();
+        engine.addRule(PricingRule.modeAdjustment("Delivery fee", 90, Systemmode.ONLINE_DELIVERY, 5));
+        for (int i = 0; i < extraRules; i++) {
+            String category = BenchmarkData.CATEGORIES[i % BenchmarkData.CATEGORIES.length];
+            switch (i % 4) {
+                case 0 -> engine.addRule(PricingRule.happyHour("Happy " + i, i, category,
+                        LocalTime.of(0, 0), LocalTime.of(23, 59), 10));
+                case 1 -> engine.addRule(PricingRule.categoryDiscount("Category " + i, i, category, 5));
+                case 2 -> engine.addRule(PricingRule.buyXGetY("Deal " + i, i,
+                        items.get(i % items.size()).getName(), 2, 1));
+                default -> engine.addRule(PricingRule.combo("Combo " + i, i, 50,
+                        items.get(i % items.size()).getName(), items.get((i + 1) % items.size()).getName()));
+            }
+        }
+    }
+
+    @Benchmark
+    public double priceOrder() {
+        return engine.price(order, true);
+    }
+}
@@ -0,0 +1,90 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Receipt archive: rebuilding a random receipt by order id once millions are
+ * on disk. Setup archives the receipts and prints bytes per receipt (data,
+ * indexes and names) against the size of the receipt text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReceiptArchiveBenchmark {
+    @Param({"1000000", "10000000"})
+    public int receiptCount;
+
+    private Path directory;
+    private ReceiptArchive archive;
+    private int[] orderIds;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("receipts");
+        archive = new ReceiptArchive(directory);
+        ArrayList<MenuItem> items = BenchmarkData.menu(200).getMenuItems();
+        Table[] tables = BenchmarkData.tables(40).toArray(new Table[0]);
+        Payment.PaymentMethod[] methods = Payment.PaymentMethod.values();
+        Random random = new Random(11);
+        orderIds = new int[4096];
+        long textBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < receiptCount; i++) {
+            Map<MenuItem, Integer> lines = new HashMap<>();
+            for (int n = 1 + random.nextInt(4); n > 0; n--) {
+                lines.put(items.get(random.nextInt(items.size())), 1 + random.nextInt(3));
+            }
+            boolean dineIn = random.nextBoolean();
+            Order order = new Order(String.format("CUST%03d", random.nextInt(500_000)), lines,
+                                    dineIn ? Systemmode.DINE_IN : Systemmode.TAKEAWAY,
+                                    dineIn ? tables[random.nextInt(tables.length)] : null);
+            order.calculateTotal();
+            Payment payment = new Payment(order.getTotal(), methods[random.nextInt(methods.length)],
+                                          order.getOrderId());
+            payment.setStatus(Status.COMPLETE);   // processPayment would also fill the till's ledger
+            order.setPayment(payment);
+            order.updateStatus(Status.COMPLETE);
+            archive.archive(order);
+            if (i % 4096 == 0) {
+                textBytes += (order.getOrderSummary() + payment.getReceipt()).length();
+            }
+            orderIds[(int) ((long) i * 4096 / receiptCount)] = order.getOrderId();
+        }
+        long samples = (receiptCount + 4095) / 4096;
+        System.out.printf("%n%d receipts archived in %.1f s: %.1f bytes/receipt on disk vs %d chars of text,"
+                          + " %d deflated%n", receiptCount, (System.nanoTime() - start) / 1e9,
+                          (double) archive.diskBytes() / receiptCount, textBytes / samples,
+                          archive.getDeflatedCount());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        archive.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public String lookup() throws IOException {
+        return archive.get(orderIds[next++ & 4095]);
+    }
+}
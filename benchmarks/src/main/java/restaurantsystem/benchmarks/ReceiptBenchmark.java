@@ -0,0 +1,41 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receipt and order summary rendering
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReceiptBenchmark {
+    @Param({"3", "20", "100"})
+    public int linesPerOrder;
+
+    private Cashier cashier;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        cashier = new Cashier("Bench Cashier", "bench@restaurant.com", "0100000000", "pw", 5000, "Morning");
+        Menu menu = BenchmarkData.menu(200);
+        order = new Order("CUST001", BenchmarkData.lines(menu, linesPerOrder), Systemmode.TAKEAWAY, null);
+        order.calculateTotal();
+    }
+
+    @Benchmark
+    public String renderReceipt() {
+        return cashier.renderReceipt(order);
+    }
+
+    @Benchmark
+    public String orderSummary() {
+        return order.getOrderSummary();
+    }
+}
@@ -0,0 +1,57 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the shift metrics add to a payment at the till, and what the
+ * leaderboard costs to show
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShiftMetricsBenchmark {
+    private ShiftMetrics metrics;
+    private Cashier[] cashiers;
+    private Order order;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        metrics = new ShiftMetrics();
+        cashiers = new Cashier[8];
+        for (int i = 0; i < cashiers.length; i++) {
+            cashiers[i] = new Cashier("Cashier " + i, "c" + i + "@restaurant.com", "010000000" + i, "pw", 5000,
+                                      "Morning");
+        }
+        Menu menu = BenchmarkData.menu(40);
+        order = new Order("CUST001", BenchmarkData.lines(menu, 4), Systemmode.TAKEAWAY, null);
+        order.calculateTotal();
+        for (int i = 0; i < 10_000; i++) {
+            metrics.recordPayment(cashiers[i & 7], order, i % 50 != 0, System.nanoTime() - 90_000_000_000L);
+        }
+    }
+
+    @Benchmark
+    public void recordPayment() {
+        metrics.recordPayment(cashiers[next++ & 7], order, true, System.nanoTime() - 90_000_000_000L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordPaymentFourTills() {
+        metrics.recordPayment(cashiers[(int) Thread.currentThread().getId() & 7], order, true,
+                              System.nanoTime() - 90_000_000_000L);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ShiftMetrics.Summary leaderboard() {
+        return metrics.snapshot();
+    }
+}
@@ -0,0 +1,46 @@
+package restaurantsystem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import restaurantsystem.Table;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table selection over floors of different sizes (about a quarter of tables free)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableBenchmark {
+    @Param({"10", "100", "500"})
+    public int tableCount;
+
+    @Param({"2", "6"})
+    public int partySize;
+
+    private ArrayList<Table> tables;
+
+    @Setup
+    public void setUp() {
+        tables = BenchmarkData.tables(tableCount);
+    }
+
+    @Benchmark
+    public Table firstFit() {
+        return Table.firstFit(tables, partySize);
+    }
+
+    @Benchmark
+    public Table bestFit() {
+        return Table.bestFit(tables, partySize);
+    }
+
+    @Benchmark
+    public ArrayList<Table> getAvailableTables() {
+        return Table.getAvailableTables(tables);
+    }
+}